@@ -0,0 +1,100 @@
+package com.Tsimur.Dubcast.benchmark;
+
+import com.Tsimur.Dubcast.scraper.DurationPageScanner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Duration extraction from a recorded track page: the old full-DOM Jsoup parse against {@link
+ * DurationPageScanner}. {@code withMeta=false} drops the {@code <noscript>} meta so both have to
+ * reach the hydration JSON at the end of the page.
+ *
+ * <p>{@code mvn -Pbench test-compile exec:exec -Djmh.includes=DurationScraperBenchmark}; the
+ * profile runs with {@code -prof gc}, {@code gc.alloc.rate.norm} is bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DurationScraperBenchmark {
+
+  private static final String META = "<meta itemprop=\"duration\" content=\"PT00H03M05S\" />";
+
+  @Param({"true", "false"})
+  public boolean withMeta;
+
+  private String html;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream in =
+        DurationScraperBenchmark.class.getResourceAsStream(
+            "/fixtures/soundcloud/track-page.html")) {
+      String page = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      html = withMeta ? page : page.replace(META, "");
+    }
+  }
+
+  @Benchmark
+  public Integer legacyJsoup() {
+    return LegacyScraper.extract(html);
+  }
+
+  @Benchmark
+  public Integer streamingScan() throws IOException {
+    return DurationPageScanner.scan(new StringReader(html));
+  }
+
+  /** Copy of the previous HTML fallback, kept only as the benchmark baseline. */
+  static final class LegacyScraper {
+
+    static Integer extract(String html) {
+      Document doc = Jsoup.parse(html);
+      Element durationMeta = doc.selectFirst("noscript article meta[itemprop=duration]");
+      if (durationMeta != null) {
+        Integer seconds = parseIso(durationMeta.attr("content"));
+        if (seconds != null) {
+          return seconds;
+        }
+      }
+      for (Element script : doc.select("script")) {
+        String data = script.data();
+        int idx = data.indexOf("\"duration\":");
+        if (idx == -1) continue;
+        int pos = idx + "\"duration\":".length();
+        while (pos < data.length() && Character.isWhitespace(data.charAt(pos))) {
+          pos++;
+        }
+        int start = pos;
+        while (pos < data.length() && Character.isDigit(data.charAt(pos))) {
+          pos++;
+        }
+        if (start == pos) continue;
+        long seconds = Long.parseLong(data.substring(start, pos)) / 1000L;
+        if (seconds > 0 && seconds < 8 * 60 * 60) {
+          return (int) seconds;
+        }
+      }
+      return null;
+    }
+
+    private static Integer parseIso(String iso) {
+      try {
+        long seconds = Duration.parse(iso).getSeconds();
+        return seconds > 0 && seconds < 8 * 60 * 60 ? (int) seconds : null;
+      } catch (Exception e) {
+        return null;
+      }
+    }
+  }
+}
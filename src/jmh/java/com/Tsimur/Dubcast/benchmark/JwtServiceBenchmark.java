@@ -0,0 +1,77 @@
+package com.Tsimur.Dubcast.benchmark;
+
+import com.Tsimur.Dubcast.model.Role;
+import com.Tsimur.Dubcast.model.User;
+import com.Tsimur.Dubcast.security.jwt.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Tokens validated per second: the old JwtService (key + parser rebuilt per call, three parses in
+ * {@code isValid}) against the current one (shared key/parser, single {@code verify}).
+ *
+ * <p>{@code mvn -Pbench test-compile exec:exec -Djmh.includes=JwtServiceBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+  private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123";
+
+  private JwtService jwtService;
+  private User user;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(SECRET, 3_600_000L);
+    user = User.builder().email("bench@example.com").role(Role.ROLE_USER).build();
+    token = jwtService.generateToken(user);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean legacyIsValid() {
+    return LegacyJwt.isValid(token, user);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean isValid() {
+    return jwtService.isValid(token, user);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Claims verify() {
+    return jwtService.verify(token);
+  }
+
+  /** Copy of the previous JwtService read path, kept only as the benchmark baseline. */
+  static final class LegacyJwt {
+
+    private LegacyJwt() {}
+
+    static boolean isValid(String token, User user) {
+      return user.getEmail().equals(extractAllClaims(token).getSubject())
+          && !extractAllClaims(token).getExpiration().before(new Date());
+    }
+
+    private static Key getKey() {
+      return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+
+    private static Claims extractAllClaims(String token) {
+      return Jwts.parserBuilder().setSigningKey(getKey()).build().parseClaimsJws(token).getBody();
+    }
+  }
+}
@@ -51,6 +51,8 @@ public class SecurityConfig {
                     .permitAll()
                     .requestMatchers(HttpMethod.GET, ApiPaths.PLAYLIST + "/**")
                     .permitAll()
+                    .requestMatchers(HttpMethod.GET, ApiPaths.TRACK + "/*/embed")
+                    .permitAll()
 
                     // ADMIN
 
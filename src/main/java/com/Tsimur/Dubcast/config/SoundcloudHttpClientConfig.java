@@ -0,0 +1,114 @@
+package com.Tsimur.Dubcast.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client for api-v2 and oEmbed: pooled keep-alive connections, explicit timeouts and gzip
+ * (Apache HttpClient 5 decompresses transparently). Pool usage is exported as {@code
+ * httpcomponents.httpclient.pool.*} with {@code httpclient=soundcloud}.
+ *
+ * <p>The blocking client speaks HTTP/1.1 only; reusing pooled connections is what removes the
+ * per-request TCP/TLS handshakes.
+ */
+@Configuration
+public class SoundcloudHttpClientConfig {
+
+  public static final String POOL_NAME = "soundcloud";
+
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager soundcloudConnectionManager(
+      @Value("${soundcloud.http.max-connections:50}") int maxConnections,
+      @Value("${soundcloud.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+      @Value("${soundcloud.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+      @Value("${soundcloud.http.read-timeout-ms:10000}") long readTimeoutMs) {
+    return PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerRoute)
+        .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+        .setDefaultConnectionConfig(
+            ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                // соединение, пролежавшее в пуле дольше, проверяется перед выдачей
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+        .build();
+  }
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient soundcloudHttpClient(
+      @Qualifier("soundcloudConnectionManager")
+          PoolingHttpClientConnectionManager connectionManager,
+      @Value("${soundcloud.http.pool-timeout-ms:5000}") long poolTimeoutMs,
+      @Value("${soundcloud.http.read-timeout-ms:10000}") long readTimeoutMs) {
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(
+            RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+        .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofSeconds(30))
+        .build();
+  }
+
+  @Bean
+  public RestTemplate soundcloudRestTemplate(
+      RestTemplateBuilder builder,
+      @Qualifier("soundcloudHttpClient") CloseableHttpClient httpClient) {
+    return builder
+        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+        .build();
+  }
+
+  /**
+   * Resolves stub tracks of imported playlists; at most {@code scraper.stub-fetch.concurrency}
+   * api-v2 requests are in flight across all imports. Shut down with the context.
+   *
+   * <p>Not a default candidate: injected by qualifier only, and Boot's {@code
+   * applicationTaskExecutor} does not back off because of it.
+   */
+  @Bean(destroyMethod = "shutdownNow", defaultCandidate = false)
+  public ExecutorService soundcloudStubFetchExecutor(
+      @Value("${scraper.stub-fetch.concurrency:4}") int concurrency) {
+    AtomicInteger counter = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        Math.max(concurrency, 1),
+        r -> {
+          Thread t = new Thread(r, "sc-stub-fetch-" + counter.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  @Bean
+  public MeterBinder soundcloudConnectionPoolMetrics(
+      @Qualifier("soundcloudConnectionManager")
+          PoolingHttpClientConnectionManager connectionManager) {
+    return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME);
+  }
+}
@@ -3,6 +3,7 @@ package com.Tsimur.Dubcast.controller.api;
 import com.Tsimur.Dubcast.config.ApiPaths;
 import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.AdminDaySlotsResponse;
 import com.Tsimur.Dubcast.dto.response.PlaylistScheduleResponse;
 import com.Tsimur.Dubcast.exception.ErrorResponse;
 import com.Tsimur.Dubcast.service.RadioProgrammingService;
@@ -14,6 +15,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -284,4 +286,47 @@ public class AdminProgrammingRestController {
     Page<AdminScheduleSlotDto> page = radioProgrammingService.getDaySchedule(date, pageable);
     return ResponseEntity.ok(page);
   }
+
+  @GetMapping("/day/slots")
+  @Operation(
+      summary = "Get day schedule by keyset",
+      description =
+          """
+                    Returns up to `size` schedule slots of a day in start-time order, in one query and
+                    without a total count. Pass `nextAfter` from the response as `after` to get the
+                    next page; it is null on the last page.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Day schedule page returned",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = AdminDaySlotsResponse.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<AdminDaySlotsResponse> getDaySlots(
+      @Parameter(description = "Date of the schedule (yyyy-MM-dd)", example = "2025-12-08")
+          @RequestParam("date")
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate date,
+      @Parameter(
+              description = "Start time of the last slot of the previous page",
+              example = "2025-12-08T10:15:30+02:00")
+          @RequestParam(value = "after", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          OffsetDateTime after,
+      @Parameter(description = "Page size (max 500)", example = "50")
+          @RequestParam(value = "size", defaultValue = "50")
+          int size) {
+    return ResponseEntity.ok(radioProgrammingService.getDaySlots(date, after, size));
+  }
 }
@@ -0,0 +1,74 @@
+package com.Tsimur.Dubcast.controller.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes {@code application/x-ndjson} (one JSON object per line) straight into the servlet response
+ * as the rows arrive, on the request thread: nothing is collected in memory and no async dispatch
+ * is involved.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Calls {@code producer} with a sink that serializes each item as one line. Headers are set when
+   * the first line is written, so an error before that still reaches the regular exception
+   * handlers; after that the response is committed and the stream is just cut off.
+   */
+  public <T> void write(
+      HttpServletResponse response, String filename, Consumer<Consumer<T>> producer)
+      throws IOException {
+    JsonGenerator json = objectMapper.createGenerator(response.getOutputStream());
+    // поток ответа закрывает контейнер; flush на каждой строке не нужен
+    json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    // без разделителя по умолчанию (пробел) — строки разделяем сами
+    json.setRootValueSeparator(null);
+    boolean[] started = {false};
+    Runnable start =
+        () -> {
+          if (!started[0]) {
+            started[0] = true;
+            setHeaders(response, filename);
+          }
+        };
+    try {
+      producer.accept(
+          item -> {
+            try {
+              start.run();
+              json.writeObject(item);
+              json.writeRaw('\n');
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+      start.run();
+      json.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      json.close();
+    }
+  }
+
+  private static void setHeaders(HttpServletResponse response, String filename) {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + ".ndjson\"");
+  }
+}
@@ -2,7 +2,11 @@ package com.Tsimur.Dubcast.controller.api;
 
 import com.Tsimur.Dubcast.config.ApiPaths;
 import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
 import com.Tsimur.Dubcast.dto.request.UrlRequest;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
+import com.Tsimur.Dubcast.service.ExportService;
+import com.Tsimur.Dubcast.service.PlaylistImportService;
 import com.Tsimur.Dubcast.service.PlaylistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,9 +16,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +36,9 @@ import org.springframework.web.bind.annotation.*;
 public class PlaylistController {
 
   private final PlaylistService playlistService;
+  private final PlaylistImportService playlistImportService;
+  private final ExportService exportService;
+  private final NdjsonWriter ndjsonWriter;
 
   @GetMapping
   @Operation(
@@ -46,6 +57,49 @@ public class PlaylistController {
     return ResponseEntity.ok(playlistService.getAll());
   }
 
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export all playlists as NDJSON",
+      description =
+          "Streams all playlists in id order as application/x-ndjson, one JSON object per line.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "NDJSON stream of playlists.",
+        content =
+            @Content(
+                mediaType = "application/x-ndjson",
+                schema = @Schema(implementation = PlaylistDto.class)))
+  })
+  public void export(HttpServletResponse response) throws IOException {
+    ndjsonWriter.write(response, "playlists", exportService::exportPlaylists);
+  }
+
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get playlists by keyset",
+      description =
+          "Returns up to `size` playlists in id order without a total count. Pass `nextAfter` as"
+              + " `after` to get the next page; it is null on the last page.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Page of playlists successfully returned.",
+        content =
+            @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = KeysetPageResponse.class)))
+  })
+  public ResponseEntity<KeysetPageResponse<PlaylistDto, Long>> getPage(
+      @Parameter(description = "Id of the last item of the previous page", example = "7")
+          @RequestParam(value = "after", required = false)
+          Long after,
+      @Parameter(description = "Page size (max 500)", example = "50")
+          @RequestParam(value = "size", defaultValue = "50")
+          int size) {
+    return ResponseEntity.ok(playlistService.getPage(after, size));
+  }
+
   @GetMapping("/{id}")
   @Operation(
       summary = "Get playlist by ID",
@@ -119,4 +173,54 @@ public class PlaylistController {
     PlaylistDto playlist = playlistService.importPlaylistFromUrl(request.getUrl());
     return ResponseEntity.ok(playlist);
   }
+
+  @PostMapping("/import/jobs")
+  @Operation(
+      summary = "Start background playlist import",
+      description =
+          """
+                    Queues an import of a playlist URL and returns the job immediately.
+                    Progress is published to /topic/playlist-imports/{jobId} and can be polled
+                    via GET /import/jobs/{jobId}. Submitting the URL of a failed import again
+                    re-queues that job; it continues into the playlist it already created.
+                    """)
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "202",
+        description = "Import job accepted.",
+        content =
+            @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PlaylistImportJobDto.class))),
+    @ApiResponse(
+        responseCode = "400",
+        description = "Invalid URL in request body.",
+        content = @Content)
+  })
+  public ResponseEntity<PlaylistImportJobDto> submitImport(@RequestBody @Valid UrlRequest request) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(playlistImportService.submit(request.getUrl()));
+  }
+
+  @GetMapping("/import/jobs/{jobId}")
+  @Operation(
+      summary = "Get playlist import job",
+      description = "Returns status and progress of a background playlist import.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Job found.",
+        content =
+            @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PlaylistImportJobDto.class))),
+    @ApiResponse(
+        responseCode = "404",
+        description = "Job with the given ID was not found.",
+        content = @Content)
+  })
+  public ResponseEntity<PlaylistImportJobDto> getImportJob(
+      @Parameter(description = "ID of the import job") @PathVariable UUID jobId) {
+    return ResponseEntity.ok(playlistImportService.getJob(jobId));
+  }
 }
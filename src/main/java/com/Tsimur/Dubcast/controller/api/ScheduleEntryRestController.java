@@ -2,7 +2,9 @@ package com.Tsimur.Dubcast.controller.api;
 
 import com.Tsimur.Dubcast.config.ApiPaths;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.ErrorResponse;
+import com.Tsimur.Dubcast.service.ExportService;
 import com.Tsimur.Dubcast.service.ScheduleEntryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,7 +14,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -33,6 +37,8 @@ import org.springframework.web.bind.annotation.*;
 public class ScheduleEntryRestController {
 
   private final ScheduleEntryService scheduleEntryService;
+  private final ExportService exportService;
+  private final NdjsonWriter ndjsonWriter;
 
   // --- CRUD ---
 
@@ -160,6 +166,82 @@ public class ScheduleEntryRestController {
     return ResponseEntity.ok(scheduleEntryService.getAll());
   }
 
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export all schedule as NDJSON",
+      description =
+          """
+                    Streams the slots starting in [from, to) in start-time order as application/x-ndjson, one JSON object per line.
+                    Rows are read through a database cursor and written as they arrive, so memory
+                    use does not depend on the number of rows.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "NDJSON stream of schedule",
+            content =
+                @Content(
+                    mediaType = "application/x-ndjson",
+                    schema = @Schema(implementation = ScheduleEntryDto.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public void export(
+      @Parameter(description = "Range start (inclusive)", example = "2025-12-08T00:00:00+02:00")
+          @RequestParam("from")
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          OffsetDateTime from,
+      @Parameter(description = "Range end (exclusive)", example = "2025-12-15T00:00:00+02:00")
+          @RequestParam("to")
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          OffsetDateTime to,
+      HttpServletResponse response)
+      throws IOException {
+    ndjsonWriter.<ScheduleEntryDto>write(
+        response, "schedule", sink -> exportService.exportSchedule(from, to, sink));
+  }
+
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get schedule by keyset",
+      description =
+          """
+                    Returns up to `size` schedule in id order, without a total count. Pass `nextAfter`
+                    from the response as `after` to get the next page; it is null on the last page.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of schedule",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = KeysetPageResponse.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<KeysetPageResponse<ScheduleEntryDto, Long>> getPage(
+      @Parameter(description = "Id of the last item of the previous page", example = "42")
+          @RequestParam(value = "after", required = false)
+          Long after,
+      @Parameter(description = "Page size (max 500)", example = "50")
+          @RequestParam(value = "size", defaultValue = "50")
+          int size) {
+    return ResponseEntity.ok(scheduleEntryService.getPage(after, size));
+  }
+
   @PutMapping("/{id:\\d+}")
   @Operation(
       summary = "Update schedule entry",
@@ -2,7 +2,10 @@ package com.Tsimur.Dubcast.controller.api;
 
 import com.Tsimur.Dubcast.config.ApiPaths;
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
+import com.Tsimur.Dubcast.dto.response.OembedHtmlResponse;
 import com.Tsimur.Dubcast.exception.ErrorResponse;
+import com.Tsimur.Dubcast.service.ExportService;
 import com.Tsimur.Dubcast.service.TrackService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,12 +15,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -29,7 +39,13 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class TrackRestController {
 
+  // плеер меняется при смене url трека — кэши быстро перепроверяют его по ETag
+  private static final CacheControl EMBED_CACHE_CONTROL =
+      CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic().mustRevalidate();
+
   private final TrackService trackService;
+  private final ExportService exportService;
+  private final NdjsonWriter ndjsonWriter;
 
   @PostMapping
   @Operation(
@@ -139,6 +155,71 @@ public class TrackRestController {
     return ResponseEntity.ok(trackService.getAll());
   }
 
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export all tracks as NDJSON",
+      description =
+          """
+                    Streams the whole track catalog in id order as application/x-ndjson, one JSON object per line.
+                    Rows are read through a database cursor and written as they arrive, so memory
+                    use does not depend on the number of rows.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "NDJSON stream of tracks",
+            content =
+                @Content(
+                    mediaType = "application/x-ndjson",
+                    schema = @Schema(implementation = TrackDto.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public void export(HttpServletResponse response) throws IOException {
+    ndjsonWriter.write(response, "tracks", exportService::exportTracks);
+  }
+
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get tracks by keyset",
+      description =
+          """
+                    Returns up to `size` tracks in id order, without a total count. Pass `nextAfter`
+                    from the response as `after` to get the next page; it is null on the last page.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of tracks",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = KeysetPageResponse.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<KeysetPageResponse<TrackDto, Long>> getPage(
+      @Parameter(description = "Id of the last item of the previous page", example = "42")
+          @RequestParam(value = "after", required = false)
+          Long after,
+      @Parameter(description = "Page size (max 500)", example = "50")
+          @RequestParam(value = "size", defaultValue = "50")
+          int size) {
+    return ResponseEntity.ok(trackService.getPage(after, size));
+  }
+
   @PutMapping("/{id}")
   @Operation(
       summary = "Update track",
@@ -217,4 +298,46 @@ public class TrackRestController {
     trackService.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  @GetMapping("/{id}/embed")
+  @Operation(
+      summary = "Get player HTML of a track",
+      description =
+          """
+                    Returns the SoundCloud oEmbed player HTML stored for the track.
+                    Public and cacheable for 5 minutes, then revalidated with If-None-Match.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Player HTML",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = OembedHtmlResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Not modified"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Track not found or SoundCloud has no player for it",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<OembedHtmlResponse> getEmbed(
+      @PathVariable @Parameter(description = "Track ID", example = "42") Long id,
+      WebRequest request) {
+    String html = trackService.getEmbedCode(id);
+    String etag = "\"" + DigestUtils.md5DigestAsHex(html.getBytes(StandardCharsets.UTF_8)) + "\"";
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .cacheControl(EMBED_CACHE_CONTROL)
+          .build();
+    }
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(EMBED_CACHE_CONTROL)
+        .body(new OembedHtmlResponse(html));
+  }
 }
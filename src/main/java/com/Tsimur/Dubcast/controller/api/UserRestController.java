@@ -5,7 +5,9 @@ import com.Tsimur.Dubcast.dto.UserDto;
 import com.Tsimur.Dubcast.dto.request.ChangePasswordRequest;
 import com.Tsimur.Dubcast.dto.request.CreateUserRequest;
 import com.Tsimur.Dubcast.dto.request.UpdateUserRequest;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.ErrorResponse;
+import com.Tsimur.Dubcast.service.ExportService;
 import com.Tsimur.Dubcast.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,7 +17,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +38,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserRestController {
 
   private final UserService userService;
+  private final ExportService exportService;
+  private final NdjsonWriter ndjsonWriter;
 
   @PostMapping
   @Operation(
@@ -161,6 +167,73 @@ public class UserRestController {
     return ResponseEntity.ok(userService.getAll());
   }
 
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export all users as NDJSON",
+      description =
+          """
+                    Streams all users in id order as application/x-ndjson, one JSON object per line.
+                    Rows are read through a database cursor and written as they arrive, so memory
+                    use does not depend on the number of rows.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "NDJSON stream of users",
+            content =
+                @Content(
+                    mediaType = "application/x-ndjson",
+                    schema = @Schema(implementation = UserDto.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public void export(HttpServletResponse response) throws IOException {
+    ndjsonWriter.write(response, "users", exportService::exportUsers);
+  }
+
+  @GetMapping("/page")
+  @Operation(
+      summary = "Get users by keyset",
+      description =
+          """
+                    Returns up to `size` users in id order, without a total count. Pass `nextAfter`
+                    from the response as `after` to get the next page; it is null on the last page.
+                    """,
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of users",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = KeysetPageResponse.class))),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden (ADMIN role required)",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<KeysetPageResponse<UserDto, UUID>> getPage(
+      @Parameter(
+              description = "Id of the last item of the previous page",
+              example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+          @RequestParam(value = "after", required = false)
+          UUID after,
+      @Parameter(description = "Page size (max 500)", example = "50")
+          @RequestParam(value = "size", defaultValue = "50")
+          int size) {
+    return ResponseEntity.ok(userService.getPage(after, size));
+  }
+
   @PutMapping("/{id}")
   @Operation(
       summary = "Update user",
@@ -1,6 +1,5 @@
 package com.Tsimur.Dubcast.controller.web;
 
-import com.Tsimur.Dubcast.dto.ChatMessageDto;
 import com.Tsimur.Dubcast.dto.request.SendMessageWEBRequest;
 import com.Tsimur.Dubcast.service.MessageService;
 import jakarta.validation.Valid;
@@ -8,7 +7,6 @@ import java.security.Principal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -17,14 +15,17 @@ public class ChatWsController {
 
   private final MessageService messageService;
 
+  /**
+   * Goes through the same pipeline as the REST endpoint: the message is broadcast to {@code
+   * /topic/chat} by {@link com.Tsimur.Dubcast.websocket.ChatMessageBroadcastListener} after commit,
+   * so nothing is returned here.
+   */
   @MessageMapping("/chat.send")
-  @SendTo("/topic/chat")
-  public ChatMessageDto handleSend(
-      @Valid @Payload SendMessageWEBRequest incoming, Principal principal) {
+  public void handleSend(@Valid @Payload SendMessageWEBRequest incoming, Principal principal) {
     if (principal == null) {
       throw new IllegalStateException("User must be authenticated to send messages");
     }
 
-    return messageService.saveMessage(incoming.getText(), principal.getName());
+    messageService.saveMessageAndPublish(incoming.getText(), principal.getName());
   }
 }
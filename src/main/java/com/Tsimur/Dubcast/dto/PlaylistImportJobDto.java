@@ -0,0 +1,32 @@
+package com.Tsimur.Dubcast.dto;
+
+import com.Tsimur.Dubcast.model.PlaylistImportStatus;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlaylistImportJobDto {
+
+  private UUID id;
+
+  private String playlistUrl;
+
+  private PlaylistImportStatus status;
+
+  private Long playlistId;
+
+  private Integer totalTracks;
+
+  private Integer processedTracks;
+
+  private String error;
+
+  private OffsetDateTime createdAt;
+
+  private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.Tsimur.Dubcast.dto.response;
+
+import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AdminDaySlotsResponse {
+  private List<AdminScheduleSlotDto> slots;
+
+  /** Pass as {@code after} to get the next page; {@code null} on the last page. */
+  private OffsetDateTime nextAfter;
+}
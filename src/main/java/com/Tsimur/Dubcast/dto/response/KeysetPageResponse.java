@@ -0,0 +1,40 @@
+package com.Tsimur.Dubcast.dto.response;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.Data;
+
+/** One page of a list ordered by a unique key; the next page starts after {@code nextAfter}. */
+@Data
+@Builder
+public class KeysetPageResponse<T, K> {
+
+  public static final int MAX_SIZE = 500;
+
+  private List<T> items;
+
+  /** Pass as {@code after} to get the next page; {@code null} on the last page. */
+  private K nextAfter;
+
+  /** Requested page size limited to {@code 1..MAX_SIZE}. */
+  public static int limit(int size) {
+    return Math.max(1, Math.min(size, MAX_SIZE));
+  }
+
+  /**
+   * Builds a page from {@code rows} fetched with {@code limit(size) + 1}: the extra row only tells
+   * that there is a next page and is not returned.
+   */
+  public static <T, K> KeysetPageResponse<T, K> of(List<T> rows, int size, Function<T, K> keyOf) {
+    int limit = limit(size);
+    if (rows.size() <= limit) {
+      return KeysetPageResponse.<T, K>builder().items(rows).build();
+    }
+    List<T> items = rows.subList(0, limit);
+    return KeysetPageResponse.<T, K>builder()
+        .items(items)
+        .nextAfter(keyOf.apply(items.get(limit - 1)))
+        .build();
+  }
+}
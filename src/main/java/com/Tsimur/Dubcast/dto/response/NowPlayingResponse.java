@@ -7,6 +7,7 @@ import lombok.*;
 @Data
 public class NowPlayingResponse {
   private boolean playing;
+  private Long trackId;
   private String title;
   private String artworkUrl;
   private Instant startedAt;
@@ -4,6 +4,7 @@ import com.Tsimur.Dubcast.exception.ErrorResponse;
 import com.Tsimur.Dubcast.exception.type.EmailAlreadyUsedException;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.exception.type.SlotCurrentlyPlayingException;
+import com.Tsimur.Dubcast.exception.type.SoundcloudUnavailableException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
@@ -74,6 +75,18 @@ public class RestExceptionHandler {
     return build(HttpStatus.NOT_FOUND, message, request);
   }
 
+  // ======= SOUNDCLOUD НЕДОСТУПЕН (503) =======
+  @ExceptionHandler(SoundcloudUnavailableException.class)
+  public ResponseEntity<ErrorResponse> handleSoundcloudUnavailable(
+      SoundcloudUnavailableException ex, HttpServletRequest request) {
+    log.warn(
+        "SoundCloud unavailable on {} {}: {}",
+        request.getMethod(),
+        request.getRequestURI(),
+        ex.getMessage());
+    return build(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+  }
+
   // ======= ЛЮБЫЕ ПРОЧИЕ ОШИБКИ (500) =======
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleOther(Exception ex, HttpServletRequest request) {
@@ -0,0 +1,7 @@
+package com.Tsimur.Dubcast.exception.type;
+
+public class SoundcloudUnavailableException extends RuntimeException {
+  public SoundcloudUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,11 @@
+package com.Tsimur.Dubcast.mapper;
+
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+import com.Tsimur.Dubcast.model.PlaylistImportJob;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface PlaylistImportJobMapper {
+
+  PlaylistImportJobDto toDto(PlaylistImportJob entity);
+}
@@ -14,6 +14,7 @@ public interface ScheduleEntryMapper {
   ScheduleEntryDto toDto(ScheduleEntry entity);
 
   @Mapping(source = "playlistId", target = "playlist.id")
+  @Mapping(target = "autofill", ignore = true)
   ScheduleEntry toEntity(ScheduleEntryDto dto);
 
   List<ScheduleEntryDto> toDtoList(List<ScheduleEntry> entities);
@@ -24,5 +25,6 @@ public interface ScheduleEntryMapper {
   @Mapping(target = "id", ignore = true)
   @Mapping(target = "createdAt", ignore = true)
   @Mapping(target = "playlist", ignore = true) // 👈 плейлист не меняем патчем
+  @Mapping(target = "autofill", ignore = true)
   void updateEntityFromDto(ScheduleEntryDto dto, @MappingTarget ScheduleEntry entity);
 }
@@ -14,6 +14,7 @@ public interface TrackMapper {
   TrackDto toDto(Track entity);
 
   @Mapping(source = "soundcloudUrl", target = "scUrl")
+  @Mapping(target = "embedCode", ignore = true)
   Track toEntity(TrackDto dto);
 
   List<TrackDto> toDtoList(List<Track> entities);
@@ -23,6 +24,7 @@ public interface TrackMapper {
   @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
   @Mapping(target = "id", ignore = true)
   @Mapping(target = "createdAt", ignore = true)
+  @Mapping(target = "embedCode", ignore = true)
   @Mapping(target = "scUrl", source = "soundcloudUrl")
   void updateEntityFromDto(TrackDto dto, @MappingTarget Track entity);
 }
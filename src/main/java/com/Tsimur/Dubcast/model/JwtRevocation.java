@@ -0,0 +1,24 @@
+package com.Tsimur.Dubcast.model;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.*;
+
+/** Tokens of {@code userId} issued before {@code revokedBefore} are no longer accepted. */
+@Entity
+@Table(name = "jwt_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JwtRevocation {
+
+  @Id
+  @Column(name = "user_id")
+  private UUID userId;
+
+  @Column(name = "revoked_before", nullable = false)
+  private OffsetDateTime revokedBefore;
+}
@@ -0,0 +1,60 @@
+package com.Tsimur.Dubcast.model;
+
+import com.Tsimur.Dubcast.dto.TrackDto;
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Background import of a SoundCloud playlist. The scraped tracks are stored with the job, and
+ * {@code processedTracks} only advances in the same transaction as the rows it covers, so an
+ * interrupted job can continue from there.
+ */
+@Entity
+@Table(name = "playlist_import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlaylistImportJob {
+
+  @Id private UUID id;
+
+  @Column(name = "playlist_url", nullable = false, length = 500)
+  private String playlistUrl;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private PlaylistImportStatus status;
+
+  @Column(name = "playlist_id")
+  private Long playlistId;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "tracks", columnDefinition = "jsonb")
+  private List<TrackDto> tracks;
+
+  @Column(name = "total_tracks", nullable = false)
+  private int totalTracks;
+
+  @Column(name = "processed_tracks", nullable = false)
+  private int processedTracks;
+
+  @Column(length = 1000)
+  private String error;
+
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private OffsetDateTime createdAt;
+
+  @UpdateTimestamp
+  @Column(name = "updated_at", nullable = false)
+  private OffsetDateTime updatedAt;
+}
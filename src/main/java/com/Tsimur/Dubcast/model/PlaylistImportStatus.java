@@ -0,0 +1,13 @@
+package com.Tsimur.Dubcast.model;
+
+public enum PlaylistImportStatus {
+  QUEUED,
+  SCRAPING,
+  IMPORTING,
+  COMPLETED,
+  FAILED;
+
+  public boolean isFinished() {
+    return this == COMPLETED || this == FAILED;
+  }
+}
@@ -18,7 +18,8 @@ public class ScheduleEntry {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @ManyToOne(optional = false)
+  /** Lazy: read paths fetch it through the repository's entity graphs. */
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
   @JoinColumn(name = "track_id", nullable = false)
   private Track track;
 
@@ -36,4 +37,9 @@ public class ScheduleEntry {
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "playlist_id")
   private Playlist playlist;
+
+  /** Added by the autofill lookahead; dropped again when programmed content is appended. */
+  @Builder.Default
+  @Column(nullable = false)
+  private boolean autofill = false;
 }
@@ -29,6 +29,10 @@ public class Track {
 
   private String artworkUrl;
 
+  /** SoundCloud oEmbed player HTML, stored so the widget is not fetched on every page view. */
+  @Column(columnDefinition = "TEXT")
+  private String embedCode;
+
   @CreationTimestamp
   @Setter(AccessLevel.NONE)
   @Column(nullable = false)
@@ -41,6 +41,7 @@ public class NowPlayingResponseFactory {
 
     return NowPlayingResponse.builder()
         .playing(true)
+        .trackId(track.getId())
         .title(track.getTitle())
         .artworkUrl(track.getArtworkUrl())
         .startedAt(entry.getStartTime())
@@ -0,0 +1,160 @@
+package com.Tsimur.Dubcast.radio;
+
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * End of the last scheduled slot, kept in memory so "where is the tail" does not hit the DB, and
+ * the lock appends take to reserve it.
+ *
+ * <p>{@link #acquire} serializes appenders in this process with a lock and across connections with
+ * a transaction-scoped Postgres advisory lock; both are released when the transaction ends. The
+ * appender then {@link #advance}s the cursor: its own transaction sees the new tail at once, so a
+ * second append in it continues from there, everyone else sees it on commit. Any other write that
+ * can move the tail (day rebuilds, CRUD, dropped autofill) calls {@link #invalidate}, and the next
+ * read goes back to {@code max(end_time)}. Like the import workers, this assumes one application
+ * instance owns the schedule; the advisory lock only keeps other writers from interleaving with an
+ * append.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleTailCursor {
+
+  static final long ADVISORY_LOCK_KEY = 0x4475_6263_6173_74L; // "Dubcast"
+
+  private final ScheduleEntryRepository scheduleEntryRepository;
+
+  private final ReentrantLock lock = new ReentrantLock(true);
+  private final AtomicLong version = new AtomicLong();
+  // null — конец расписания неизвестен, читаем из БД
+  private volatile Instant tail;
+
+  /**
+   * Tail end, including what the current transaction appended, or {@code now} if the schedule ends
+   * before it. No locking.
+   */
+  public OffsetDateTime peek(OffsetDateTime now) {
+    Instant t = tail;
+    if (t == null) {
+      t = load();
+    }
+    Instant own = pendingTail();
+    if (own != null && own.isAfter(t)) {
+      t = own;
+    }
+    return t.isAfter(now.toInstant()) ? OffsetDateTime.ofInstant(t, now.getOffset()) : now;
+  }
+
+  /**
+   * Locks the tail until the current transaction completes and returns it, or {@code now} if the
+   * schedule ends before it. Reentrant within one transaction.
+   */
+  public OffsetDateTime acquire(OffsetDateTime now) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      lock.lock();
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              if (status != STATUS_COMMITTED) {
+                invalidate();
+              }
+              lock.unlock();
+            }
+          });
+    }
+    scheduleEntryRepository.acquireTailLock(ADVISORY_LOCK_KEY);
+    return peek(now);
+  }
+
+  /**
+   * Moves the tail to {@code newTail}: for the current transaction right away, for everyone else
+   * once it commits.
+   */
+  public void advance(OffsetDateTime newTail) {
+    Instant end = newTail.toInstant();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      set(end);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new PendingTail(end));
+  }
+
+  /** Forgets the tail now and again after the current transaction, whatever its outcome. */
+  public void invalidate() {
+    version.incrementAndGet();
+    tail = null;
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              version.incrementAndGet();
+              tail = null;
+            }
+          });
+    }
+  }
+
+  /** Furthest tail advanced by the current transaction and not committed yet, if any. */
+  private Instant pendingTail() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return null;
+    }
+    Instant max = null;
+    // синхронизации привязаны к транзакции: у REQUIRES_NEW свои, у соседних потоков тоже
+    for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+      if (s instanceof PendingTail p && p.cursor() == this && (max == null || p.end.isAfter(max))) {
+        max = p.end;
+      }
+    }
+    return max;
+  }
+
+  private final class PendingTail implements TransactionSynchronization {
+
+    private final Instant end;
+
+    private PendingTail(Instant end) {
+      this.end = end;
+    }
+
+    private ScheduleTailCursor cursor() {
+      return ScheduleTailCursor.this;
+    }
+
+    @Override
+    public void afterCommit() {
+      set(end);
+    }
+  }
+
+  private void set(Instant end) {
+    synchronized (this) {
+      version.incrementAndGet();
+      Instant t = tail;
+      // неизвестный хвост не угадываем: он мог уйти дальше в другой транзакции
+      tail = t == null ? null : (end.isAfter(t) ? end : t);
+    }
+  }
+
+  private Instant load() {
+    long seen = version.get();
+    OffsetDateTime max = scheduleEntryRepository.findMaxEndTime();
+    Instant t = max == null ? Instant.EPOCH : max.toInstant();
+    synchronized (this) {
+      // пока читали, хвост сдвинули или сбросили — не кешируем устаревшее значение
+      if (version.get() == seen) {
+        tail = t;
+      }
+    }
+    return t;
+  }
+}
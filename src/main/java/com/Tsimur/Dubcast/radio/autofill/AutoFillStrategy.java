@@ -1,9 +1,29 @@
 package com.Tsimur.Dubcast.radio.autofill;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public interface AutoFillStrategy {
 
   Optional<Long> chooseTrackIdForAutofill(OffsetDateTime now);
+
+  /**
+   * A track lasting {@code minSeconds..maxSeconds} inclusive, for fitting a hole in the schedule.
+   */
+  Optional<Long> chooseTrackIdForAutofill(OffsetDateTime now, int minSeconds, int maxSeconds);
+
+  /** Up to {@code count} tracks in play order; fewer if the strategy runs out. */
+  default List<Long> chooseTrackIdsForAutofill(OffsetDateTime now, int count) {
+    List<Long> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Optional<Long> id = chooseTrackIdForAutofill(now);
+      if (id.isEmpty()) {
+        break;
+      }
+      ids.add(id.get());
+    }
+    return ids;
+  }
 }
@@ -0,0 +1,72 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import com.Tsimur.Dubcast.radio.events.ScheduleUpdatedEvent;
+import com.Tsimur.Dubcast.service.RadioProgrammingService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Fills holes between scheduled slots after the schedule changes. Each {@link ScheduleUpdatedEvent}
+ * only moves the start of the dirty window back; a debounced job then scans from there to {@code
+ * radio.autofill.gaps.horizon-ms} ahead, so a burst of admin edits costs one scan of the affected
+ * part of the timeline. The first run scans from now. The window is only marked once the change has
+ * committed, so a scan never consumes it while it still sees the old schedule.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "radio.autofill.gaps.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@Slf4j
+public class AutofillGapFiller {
+
+  private final RadioProgrammingService radioProgrammingService;
+  private final long horizonMs;
+
+  // начало окна, изменённого с прошлого прохода; null — ничего не менялось
+  private final AtomicReference<Instant> dirtyFrom = new AtomicReference<>(Instant.MIN);
+
+  public AutofillGapFiller(
+      RadioProgrammingService radioProgrammingService,
+      @Value("${radio.autofill.gaps.horizon-ms:21600000}") long horizonMs) {
+    this.radioProgrammingService = radioProgrammingService;
+    this.horizonMs = horizonMs;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onScheduleUpdated(ScheduleUpdatedEvent event) {
+    Instant from = event.effectiveFrom() == null ? Instant.MIN : event.effectiveFrom().toInstant();
+    dirtyFrom.accumulateAndGet(from, (a, b) -> a == null || b.isBefore(a) ? b : a);
+  }
+
+  @Scheduled(fixedDelayString = "${radio.autofill.gaps.debounce-ms:2000}")
+  public void fillDirtyWindow() {
+    Instant dirty = dirtyFrom.getAndSet(null);
+    if (dirty == null) {
+      return;
+    }
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    OffsetDateTime to = now.plus(Duration.ofMillis(horizonMs));
+    OffsetDateTime from = dirty.isAfter(now.toInstant()) ? dirty.atOffset(ZoneOffset.UTC) : now;
+    if (!from.isBefore(to)) {
+      return;
+    }
+    try {
+      radioProgrammingService.fillGaps(from, to);
+    } catch (RuntimeException e) {
+      // вернём окно, чтобы следующий проход попробовал ещё раз
+      onScheduleUpdated(new ScheduleUpdatedEvent(from));
+      log.warn("[AUTOFILL] filling holes from {} failed", from, e);
+    }
+  }
+}
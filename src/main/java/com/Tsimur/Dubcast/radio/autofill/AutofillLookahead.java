@@ -0,0 +1,39 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import com.Tsimur.Dubcast.service.RadioProgrammingService;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the next {@code radio.autofill.lookahead.horizon-ms} of the schedule filled in the
+ * background, so a track boundary never waits for autofill. {@link
+ * com.Tsimur.Dubcast.radio.RadioClock} still autofills a gap on its own if this is disabled.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "radio.autofill.lookahead.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AutofillLookahead {
+
+  private final RadioProgrammingService radioProgrammingService;
+
+  @Scheduled(
+      initialDelayString = "${radio.autofill.lookahead.initial-delay-ms:30000}",
+      fixedDelayString = "${radio.autofill.lookahead.check-interval-ms:60000}")
+  public void topUp() {
+    try {
+      radioProgrammingService.fillAhead(OffsetDateTime.now(ZoneOffset.UTC));
+    } catch (RuntimeException e) {
+      // следующая попытка через check-interval; дыру в эфире закроет RadioClock
+      log.warn("[AUTOFILL] lookahead fill failed", e);
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent.Playable;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sorted {@code long[]} of ids of tracks autofill may play (positive duration), so a random pick is
+ * one array read instead of {@code count()} + {@code OFFSET} over the tracks table. Parallel arrays
+ * hold each track's duration and a small artist number (the uploader from the SoundCloud permalink)
+ * for rotation rules.
+ *
+ * <p>Tracks are also bucketed by duration in whole seconds (a counting sort, rebuilt with the
+ * arrays), so a random track of {@code min..max} seconds is likewise O(1) for gap fitting.
+ *
+ * <p>Kept in sync from {@link TracksChangedEvent} after commit; the arrays are replaced on every
+ * change and readers never lock. A periodic reload picks up changes made on other instances or
+ * directly in the DB.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutofillTrackIndex {
+
+  /** Longer tracks share the last bucket; the scrapers reject anything over 8h anyway. */
+  static final int MAX_BUCKET_SECONDS = 8 * 60 * 60;
+
+  /**
+   * {@code byDuration} lists positions in {@code ids} ordered by duration; tracks of {@code s}
+   * seconds are {@code byDuration[bucketStart[s] .. bucketStart[s + 1])}.
+   */
+  private record Snapshot(
+      long[] ids, int[] artists, int[] durations, int[] byDuration, int[] bucketStart) {
+
+    static Snapshot of(long[] ids, int[] artists, int[] durations) {
+      int[] bucketStart = new int[MAX_BUCKET_SECONDS + 2];
+      for (int d : durations) {
+        bucketStart[bucket(d) + 1]++;
+      }
+      for (int s = 1; s < bucketStart.length; s++) {
+        bucketStart[s] += bucketStart[s - 1];
+      }
+      int[] fill = Arrays.copyOf(bucketStart, bucketStart.length);
+      int[] byDuration = new int[ids.length];
+      for (int i = 0; i < durations.length; i++) {
+        byDuration[fill[bucket(durations[i])]++] = i;
+      }
+      return new Snapshot(ids, artists, durations, byDuration, bucketStart);
+    }
+
+    private static int bucket(int durationSeconds) {
+      return Math.min(Math.max(durationSeconds, 0), MAX_BUCKET_SECONDS);
+    }
+  }
+
+  private final TrackRepository trackRepository;
+
+  // заменяется целиком при каждом изменении; ids отсортированы
+  private volatile Snapshot snapshot = Snapshot.of(new long[0], new int[0], new int[0]);
+
+  // uploader permalink -> номер; только растёт, изменяется под this
+  private final Map<String, Integer> artistNumbers = new HashMap<>();
+
+  public OptionalLong sample() {
+    long[] ids = snapshot.ids();
+    if (ids.length == 0) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+  }
+
+  /** Random track lasting {@code minSeconds..maxSeconds} inclusive. */
+  public OptionalLong sample(int minSeconds, int maxSeconds) {
+    Snapshot s = snapshot;
+    int from = s.bucketStart()[Math.max(Math.min(minSeconds, MAX_BUCKET_SECONDS + 1), 0)];
+    int to = s.bucketStart()[Math.max(Math.min(maxSeconds, MAX_BUCKET_SECONDS), -1) + 1];
+    if (from >= to) {
+      return OptionalLong.empty();
+    }
+    int pos = s.byDuration()[from + ThreadLocalRandom.current().nextInt(to - from)];
+    return OptionalLong.of(s.ids()[pos]);
+  }
+
+  public int size() {
+    return snapshot.ids().length;
+  }
+
+  public boolean contains(long trackId) {
+    return Arrays.binarySearch(snapshot.ids(), trackId) >= 0;
+  }
+
+  /** Artist number of an indexed track, or -1 if the track is not in the index. */
+  public int artistOf(long trackId) {
+    Snapshot s = snapshot;
+    int pos = Arrays.binarySearch(s.ids(), trackId);
+    return pos >= 0 ? s.artists()[pos] : -1;
+  }
+
+  /** Duration of an indexed track in seconds, or -1 if the track is not in the index. */
+  public int durationOf(long trackId) {
+    Snapshot s = snapshot;
+    int pos = Arrays.binarySearch(s.ids(), trackId);
+    return pos >= 0 ? s.durations()[pos] : -1;
+  }
+
+  /** Duration of the shortest indexed track, or -1 if the index is empty. */
+  public int shortestDuration() {
+    Snapshot s = snapshot;
+    return s.ids().length == 0 ? -1 : s.durations()[s.byDuration()[0]];
+  }
+
+  @Scheduled(fixedDelayString = "${radio.autofill.track-index.refresh-ms:600000}")
+  public synchronized void reload() {
+    TreeMap<Long, Playable> playable = new TreeMap<>();
+    for (Object[] row : trackRepository.findAllPlayable()) {
+      playable.put(
+          ((Number) row[0]).longValue(),
+          new Playable((String) row[1], ((Number) row[2]).intValue()));
+    }
+    snapshot = merge(Snapshot.of(new long[0], new int[0], new int[0]), playable, new long[0]);
+    log.debug("[AUTOFILL] track index reloaded, {} playable tracks", playable.size());
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public synchronized void onTracksChanged(TracksChangedEvent event) {
+    long[] removed = event.removedIds().stream().mapToLong(Long::longValue).sorted().toArray();
+    snapshot = merge(snapshot, new TreeMap<>(event.playable()), removed);
+  }
+
+  /** Drops an id that turned out to be gone before the next reload. */
+  public synchronized void evict(long trackId) {
+    snapshot = merge(snapshot, new TreeMap<>(), new long[] {trackId});
+  }
+
+  /**
+   * {@code scheme://host/<uploader>/...} -> {@code <uploader>} in lower case; the URL itself when
+   * it has no path.
+   */
+  static String artistKey(String scUrl) {
+    if (scUrl == null) {
+      return "";
+    }
+    try {
+      String path = URI.create(scUrl.trim()).getPath();
+      if (path != null) {
+        for (String segment : path.split("/")) {
+          if (!segment.isEmpty()) {
+            return segment.toLowerCase(Locale.ROOT);
+          }
+        }
+      }
+    } catch (IllegalArgumentException ignored) {
+    }
+    return scUrl.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * One pass over the current arrays plus the bucket rebuild, so a bulk import costs O(n + k log
+   * k), not O(n * k).
+   */
+  private Snapshot merge(Snapshot current, TreeMap<Long, Playable> added, long[] removed) {
+    if (added.isEmpty() && removed.length == 0) {
+      return current;
+    }
+    long[] ids = current.ids();
+    int[] artists = current.artists();
+    int[] durations = current.durations();
+    int capacity = ids.length + added.size();
+    long[] outIds = new long[capacity];
+    int[] outArtists = new int[capacity];
+    int[] outDurations = new int[capacity];
+    int n = 0;
+    int i = 0;
+    for (Map.Entry<Long, Playable> entry : added.entrySet()) {
+      long id = entry.getKey();
+      for (; i < ids.length && ids[i] < id; i++) {
+        if (Arrays.binarySearch(removed, ids[i]) < 0) {
+          outIds[n] = ids[i];
+          outArtists[n] = artists[i];
+          outDurations[n++] = durations[i];
+        }
+      }
+      if (i < ids.length && ids[i] == id) {
+        i++;
+      }
+      outIds[n] = id;
+      outArtists[n] = artistNumber(entry.getValue().scUrl());
+      outDurations[n++] = entry.getValue().durationSeconds();
+    }
+    for (; i < ids.length; i++) {
+      if (Arrays.binarySearch(removed, ids[i]) < 0) {
+        outIds[n] = ids[i];
+        outArtists[n] = artists[i];
+        outDurations[n++] = durations[i];
+      }
+    }
+    return n == capacity
+        ? Snapshot.of(outIds, outArtists, outDurations)
+        : Snapshot.of(
+            Arrays.copyOf(outIds, n), Arrays.copyOf(outArtists, n), Arrays.copyOf(outDurations, n));
+  }
+
+  private int artistNumber(String scUrl) {
+    return artistNumbers.computeIfAbsent(artistKey(scUrl), key -> artistNumbers.size());
+  }
+}
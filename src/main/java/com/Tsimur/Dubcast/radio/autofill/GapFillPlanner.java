@@ -0,0 +1,73 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks tracks that together fill a hole of a given length. Each step first asks for a track that
+ * closes the rest of the hole to within {@code radio.autofill.gaps.fit-tolerance-seconds}; failing
+ * that, for one that still leaves room for the shortest track in the catalog. Every step is a
+ * duration-range lookup in {@link AutofillTrackIndex}, so a plan costs O(tracks in the plan).
+ */
+@Component
+public class GapFillPlanner {
+
+  private static final int MAX_TRACKS = 500;
+
+  private final AutoFillStrategy autoFillStrategy;
+  private final AutofillTrackIndex trackIndex;
+  private final int fitToleranceSeconds;
+
+  public GapFillPlanner(
+      AutoFillStrategy autoFillStrategy,
+      AutofillTrackIndex trackIndex,
+      @Value("${radio.autofill.gaps.fit-tolerance-seconds:30}") int fitToleranceSeconds) {
+    this.autoFillStrategy = autoFillStrategy;
+    this.trackIndex = trackIndex;
+    this.fitToleranceSeconds = Math.max(fitToleranceSeconds, 0);
+  }
+
+  /** Track ids in play order whose durations add up to at most {@code gapSeconds}. */
+  public List<Long> plan(OffsetDateTime now, long gapSeconds) {
+    List<Long> ids = new ArrayList<>();
+    int remaining = (int) Math.min(gapSeconds, Integer.MAX_VALUE);
+    while (ids.size() < MAX_TRACKS) {
+      int shortest = trackIndex.shortestDuration();
+      if (shortest <= 0 || remaining < shortest) {
+        break;
+      }
+      Optional<Long> closing =
+          autoFillStrategy.chooseTrackIdForAutofill(
+              now, Math.max(remaining - fitToleranceSeconds, 1), remaining);
+      if (closing.isPresent() && take(ids, closing.get()) > 0) {
+        break;
+      }
+      // иначе трек покороче, чтобы после него ещё что-то влезло
+      Optional<Long> next =
+          remaining - shortest >= shortest
+              ? autoFillStrategy.chooseTrackIdForAutofill(now, 1, remaining - shortest)
+              : Optional.empty();
+      if (next.isEmpty()) {
+        next = autoFillStrategy.chooseTrackIdForAutofill(now, 1, remaining);
+      }
+      int duration = next.isPresent() ? take(ids, next.get()) : -1;
+      if (duration <= 0) {
+        break;
+      }
+      remaining -= duration;
+    }
+    return ids;
+  }
+
+  private int take(List<Long> ids, long trackId) {
+    int duration = trackIndex.durationOf(trackId);
+    if (duration > 0) {
+      ids.add(trackId);
+    }
+    return duration;
+  }
+}
@@ -0,0 +1,56 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import java.util.BitSet;
+
+/**
+ * The last {@code capacity} distinct keys: a ring buffer for order plus a bitset for O(1) {@link
+ * #contains}. Keys are non-negative ids; ones beyond {@code int} range are checked against the ring
+ * directly. Not thread-safe.
+ */
+final class NoRepeatWindow {
+
+  private final long[] ring;
+  private final BitSet members = new BitSet();
+  private int next;
+  private int size;
+
+  NoRepeatWindow(int capacity) {
+    this.ring = new long[Math.max(capacity, 0)];
+  }
+
+  boolean contains(long key) {
+    if (key >= 0 && key <= Integer.MAX_VALUE) {
+      return members.get((int) key);
+    }
+    for (int i = 0; i < size; i++) {
+      if (ring[i] == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Adds {@code key}, pushing out the oldest one when full. A key already inside stays put. */
+  void add(long key) {
+    if (ring.length == 0 || key < 0 || contains(key)) {
+      return;
+    }
+    if (size == ring.length) {
+      long evicted = ring[next];
+      if (evicted <= Integer.MAX_VALUE) {
+        members.clear((int) evicted);
+      }
+    } else {
+      size++;
+    }
+    ring[next] = key;
+    next = (next + 1) % ring.length;
+    if (key <= Integer.MAX_VALUE) {
+      members.set((int) key);
+    }
+  }
+
+  int size() {
+    return size;
+  }
+}
@@ -4,14 +4,22 @@ import com.Tsimur.Dubcast.dto.TrackDto;
 import com.Tsimur.Dubcast.service.TrackService;
 import java.time.OffsetDateTime;
 import java.util.Optional;
+import java.util.OptionalLong;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+/** Uniform pick from the whole catalog; the default ({@code radio.autofill.strategy=random}). */
 @Service
+@ConditionalOnProperty(
+    name = "radio.autofill.strategy",
+    havingValue = "random",
+    matchIfMissing = true)
 @RequiredArgsConstructor
 public class RandomTrackAutoFillStrategy implements AutoFillStrategy {
 
   private final TrackService trackService;
+  private final AutofillTrackIndex trackIndex;
 
   @Override
   public Optional<Long> chooseTrackIdForAutofill(OffsetDateTime now) {
@@ -20,4 +28,11 @@ public class RandomTrackAutoFillStrategy implements AutoFillStrategy {
         .filter(t -> t.getDurationSeconds() != null && t.getDurationSeconds() > 0)
         .map(TrackDto::getId);
   }
+
+  @Override
+  public Optional<Long> chooseTrackIdForAutofill(
+      OffsetDateTime now, int minSeconds, int maxSeconds) {
+    OptionalLong id = trackIndex.sample(minSeconds, maxSeconds);
+    return id.isPresent() ? Optional.of(id.getAsLong()) : Optional.empty();
+  }
 }
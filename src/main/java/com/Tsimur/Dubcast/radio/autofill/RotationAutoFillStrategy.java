@@ -0,0 +1,207 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.radio.events.NowPlayingChangedEvent;
+import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Autofill that avoids repeats: a track is not picked again while it is among the last {@code
+ * radio.autofill.rotation.track-window} tracks, nor while its uploader is among the last {@code
+ * artist-window} artists. Both windows also take whatever actually went on air ({@link
+ * NowPlayingChangedEvent}), so manually scheduled tracks count too.
+ *
+ * <p>{@code playlist-weights} ({@code "<playlistId>:<weight>,..."}) rotates between playlists and
+ * the whole catalog ({@code catalog-weight}): a bucket is drawn by weight, then a track inside it.
+ * Each pick is a handful of array reads and bit tests regardless of catalog size; after {@code
+ * max-attempts} rejected candidates the artist rule is dropped, then the track rule, so a catalog
+ * smaller than the window still plays.
+ *
+ * <p>Opt-in: {@code radio.autofill.strategy=rotation}.
+ */
+@Service
+@ConditionalOnProperty(name = "radio.autofill.strategy", havingValue = "rotation")
+@Slf4j
+public class RotationAutoFillStrategy implements AutoFillStrategy {
+
+  private final AutofillTrackIndex trackIndex;
+  private final PlaylistTrackRepository playlistTrackRepository;
+
+  private final int catalogWeight;
+  private final Map<Long, Integer> playlistWeights;
+  private final int maxAttempts;
+
+  private final NoRepeatWindow recentTracks;
+  private final NoRepeatWindow recentArtists;
+
+  // playlistId -> отсортированные id треков; обновляется вместе с индексом
+  private volatile Map<Long, long[]> playlistTracks = Map.of();
+
+  public RotationAutoFillStrategy(
+      AutofillTrackIndex trackIndex,
+      PlaylistTrackRepository playlistTrackRepository,
+      @Value("${radio.autofill.rotation.track-window:50}") int trackWindow,
+      @Value("${radio.autofill.rotation.artist-window:3}") int artistWindow,
+      @Value("${radio.autofill.rotation.catalog-weight:1}") int catalogWeight,
+      @Value("${radio.autofill.rotation.playlist-weights:}") String playlistWeights,
+      @Value("${radio.autofill.rotation.max-attempts:16}") int maxAttempts) {
+    this.trackIndex = trackIndex;
+    this.playlistTrackRepository = playlistTrackRepository;
+    this.recentTracks = new NoRepeatWindow(trackWindow);
+    this.recentArtists = new NoRepeatWindow(artistWindow);
+    this.catalogWeight = Math.max(catalogWeight, 0);
+    this.playlistWeights = parseWeights(playlistWeights);
+    this.maxAttempts = Math.max(maxAttempts, 1);
+  }
+
+  @Override
+  public synchronized Optional<Long> chooseTrackIdForAutofill(OffsetDateTime now) {
+    if (trackIndex.size() == 0) {
+      return Optional.empty();
+    }
+    long[] bucket = pickBucket();
+    return pick(
+        () -> bucket == null ? trackIndex.sample().orElse(-1) : sampleFrom(bucket),
+        () -> trackIndex.sample().orElse(-1));
+  }
+
+  /** Same rules over the tracks of the given length; playlist weights are not applied here. */
+  @Override
+  public synchronized Optional<Long> chooseTrackIdForAutofill(
+      OffsetDateTime now, int minSeconds, int maxSeconds) {
+    LongSupplier inRange = () -> trackIndex.sample(minSeconds, maxSeconds).orElse(-1);
+    return pick(inRange, inRange);
+  }
+
+  private Optional<Long> pick(LongSupplier candidates, LongSupplier lastResort) {
+    long sameArtist = -1;
+    long anyTrack = -1;
+    for (int attempt = 0; attempt < maxAttempts; attempt++) {
+      long id = candidates.getAsLong();
+      if (id < 0) {
+        continue;
+      }
+      anyTrack = id;
+      if (recentTracks.contains(id)) {
+        continue;
+      }
+      int artist = trackIndex.artistOf(id);
+      if (artist >= 0 && recentArtists.contains(artist)) {
+        sameArtist = sameArtist < 0 ? id : sameArtist;
+        continue;
+      }
+      return Optional.of(remember(id));
+    }
+    // каталог меньше окна — лучше повтор, чем тишина
+    long fallback = sameArtist >= 0 ? sameArtist : anyTrack;
+    if (fallback < 0) {
+      fallback = lastResort.getAsLong();
+    }
+    return fallback < 0 ? Optional.empty() : Optional.of(remember(fallback));
+  }
+
+  @EventListener
+  public synchronized void onNowPlayingChanged(NowPlayingChangedEvent event) {
+    ScheduleEntryDto current = event.current();
+    if (current != null && current.getTrack() != null && current.getTrack().getId() != null) {
+      remember(current.getTrack().getId());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${radio.autofill.track-index.refresh-ms:600000}")
+  public void reloadPlaylists() {
+    if (playlistWeights.isEmpty()) {
+      return;
+    }
+    Map<Long, List<Long>> rows = new HashMap<>();
+    for (Object[] row :
+        playlistTrackRepository.findTrackIdsByPlaylistIdIn(playlistWeights.keySet())) {
+      rows.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+          .add(((Number) row[1]).longValue());
+    }
+    Map<Long, long[]> fresh = new HashMap<>();
+    rows.forEach(
+        (playlistId, ids) ->
+            fresh.put(
+                playlistId, ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray()));
+    playlistTracks = fresh;
+  }
+
+  private long remember(long trackId) {
+    recentTracks.add(trackId);
+    int artist = trackIndex.artistOf(trackId);
+    if (artist >= 0) {
+      recentArtists.add(artist);
+    }
+    return trackId;
+  }
+
+  /** Weighted draw over the catalog and the configured playlists; {@code null} is the catalog. */
+  private long[] pickBucket() {
+    Map<Long, long[]> tracks = playlistTracks;
+    int total = catalogWeight;
+    for (Map.Entry<Long, Integer> e : playlistWeights.entrySet()) {
+      if (tracks.containsKey(e.getKey())) {
+        total += e.getValue();
+      }
+    }
+    if (total <= catalogWeight) {
+      return null;
+    }
+    int roll = ThreadLocalRandom.current().nextInt(total);
+    if (roll < catalogWeight) {
+      return null;
+    }
+    roll -= catalogWeight;
+    for (Map.Entry<Long, Integer> e : playlistWeights.entrySet()) {
+      long[] bucket = tracks.get(e.getKey());
+      if (bucket == null) {
+        continue;
+      }
+      if (roll < e.getValue()) {
+        return bucket;
+      }
+      roll -= e.getValue();
+    }
+    return null;
+  }
+
+  /** Random track of the playlist that is still playable, or -1. */
+  private long sampleFrom(long[] bucket) {
+    long id = bucket[ThreadLocalRandom.current().nextInt(bucket.length)];
+    return trackIndex.contains(id) ? id : -1;
+  }
+
+  static Map<Long, Integer> parseWeights(String spec) {
+    Map<Long, Integer> weights = new LinkedHashMap<>();
+    if (spec == null || spec.isBlank()) {
+      return weights;
+    }
+    for (String part : spec.split(",")) {
+      String[] kv = part.trim().split(":");
+      if (kv.length != 2) {
+        throw new IllegalArgumentException(
+            "Bad playlist weight '" + part + "', expected id:weight");
+      }
+      int weight = Integer.parseInt(kv[1].trim());
+      if (weight > 0) {
+        weights.put(Long.parseLong(kv[0].trim()), weight);
+      }
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,12 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/** Silent stretch of the schedule that ends where a scheduled slot starts. */
+public record ScheduleGap(OffsetDateTime start, OffsetDateTime end) {
+
+  public long seconds() {
+    return Duration.between(start, end).getSeconds();
+  }
+}
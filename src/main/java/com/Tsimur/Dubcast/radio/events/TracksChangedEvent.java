@@ -0,0 +1,27 @@
+package com.Tsimur.Dubcast.radio.events;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks written or deleted in the current transaction. {@code playable} holds tracks autofill can
+ * play (known positive duration); everything else is in {@code removedIds}.
+ */
+public record TracksChangedEvent(Map<Long, Playable> playable, List<Long> removedIds) {
+
+  public record Playable(String scUrl, int durationSeconds) {}
+
+  public static boolean isPlayable(Integer durationSeconds) {
+    return durationSeconds != null && durationSeconds > 0;
+  }
+
+  public static TracksChangedEvent saved(Long trackId, String scUrl, Integer durationSeconds) {
+    return isPlayable(durationSeconds)
+        ? new TracksChangedEvent(Map.of(trackId, new Playable(scUrl, durationSeconds)), List.of())
+        : new TracksChangedEvent(Map.of(), List.of(trackId));
+  }
+
+  public static TracksChangedEvent deleted(Long trackId) {
+    return new TracksChangedEvent(Map.of(), List.of(trackId));
+  }
+}
@@ -0,0 +1,19 @@
+package com.Tsimur.Dubcast.repository;
+
+import com.Tsimur.Dubcast.model.JwtRevocation;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface JwtRevocationRepository extends JpaRepository<JwtRevocation, UUID> {
+
+  List<JwtRevocation> findAllByRevokedBeforeAfter(OffsetDateTime after);
+
+  @Modifying
+  @Query("delete from JwtRevocation r where r.revokedBefore <= :cutoff")
+  int deleteAllRevokedBeforeOrAt(@Param("cutoff") OffsetDateTime cutoff);
+}
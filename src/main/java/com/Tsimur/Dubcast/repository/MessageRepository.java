@@ -1,11 +1,35 @@
 package com.Tsimur.Dubcast.repository;
 
 import com.Tsimur.Dubcast.model.Message;
+import java.time.LocalDate;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
   Page<Message> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+  // --- monthly partitions of "messages" (see changelog V2.6) ---
+
+  @Query(value = "select ensure_messages_partition(:month)", nativeQuery = true)
+  String ensurePartition(@Param("month") LocalDate month);
+
+  @Query(
+      value =
+          """
+            select c.relname
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'messages'::regclass
+            order by c.relname
+            """,
+      nativeQuery = true)
+  List<String> findPartitionNames();
+
+  @Query(value = "select retire_messages_partition(:name, :drop)", nativeQuery = true)
+  boolean retirePartition(@Param("name") String name, @Param("drop") boolean drop);
 }
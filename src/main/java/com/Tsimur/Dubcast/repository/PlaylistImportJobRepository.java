@@ -0,0 +1,49 @@
+package com.Tsimur.Dubcast.repository;
+
+import com.Tsimur.Dubcast.model.PlaylistImportJob;
+import com.Tsimur.Dubcast.model.PlaylistImportStatus;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PlaylistImportJobRepository extends JpaRepository<PlaylistImportJob, UUID> {
+
+  List<PlaylistImportJob> findAllByStatusInOrderByCreatedAtAsc(
+      Collection<PlaylistImportStatus> statuses);
+
+  boolean existsByPlaylistUrlAndStatusIn(
+      String playlistUrl, Collection<PlaylistImportStatus> statuses);
+
+  Optional<PlaylistImportJob> findFirstByPlaylistUrlAndStatusOrderByCreatedAtDesc(
+      String playlistUrl, PlaylistImportStatus status);
+
+  // без загрузки сущности: не перезаписываем jsonb с треками на каждом чанке
+  @Modifying
+  @Query(
+      """
+            update PlaylistImportJob j
+            set j.processedTracks = :processed, j.updatedAt = :now
+            where j.id = :id
+            """)
+  int updateProgress(
+      @Param("id") UUID id, @Param("processed") int processed, @Param("now") OffsetDateTime now);
+
+  @Modifying
+  @Query(
+      """
+            update PlaylistImportJob j
+            set j.status = :status, j.error = :error, j.updatedAt = :now
+            where j.id = :id
+            """)
+  int updateStatus(
+      @Param("id") UUID id,
+      @Param("status") PlaylistImportStatus status,
+      @Param("error") String error,
+      @Param("now") OffsetDateTime now);
+}
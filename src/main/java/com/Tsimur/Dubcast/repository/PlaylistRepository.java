@@ -1,9 +1,33 @@
 package com.Tsimur.Dubcast.repository;
 
 import com.Tsimur.Dubcast.model.Playlist;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
   Optional<Playlist> findByScPlaylistUrl(String url);
+
+  @Query("select p.name from Playlist p where p.id = :id")
+  Optional<String> findNameById(@Param("id") Long id);
+
+  /** Whole table in id order, read through a JDBC cursor; close the stream. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select p from Playlist p order by p.id")
+  Stream<Playlist> streamAllOrderById();
+
+  /** First keyset page; {@code limit} is {@code PageRequest.of(0, n)}. */
+  List<Playlist> findAllByOrderByIdAsc(Pageable limit);
+
+  List<Playlist> findByIdGreaterThanOrderByIdAsc(Long after, Pageable limit);
 }
@@ -1,9 +1,11 @@
 package com.Tsimur.Dubcast.repository;
 
 import com.Tsimur.Dubcast.model.PlaylistTrack;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -22,4 +24,29 @@ public interface PlaylistTrackRepository extends JpaRepository<PlaylistTrack, Lo
   Optional<PlaylistTrack> findFirstByTrackIdOrderByPositionAsc(Long trackId);
 
   Optional<PlaylistTrack> findByPlaylistIdAndTrackId(Long playlistId, Long trackId);
+
+  /** {@code [playlist_id, track_id]} of every track in the given playlists. */
+  @Query(
+      """
+            select pt.playlist.id, pt.track.id
+            from PlaylistTrack pt
+            where pt.playlist.id in :playlistIds
+            """)
+  List<Object[]> findTrackIdsByPlaylistIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+
+  /** Links {@code trackIds[i]} to the playlist at {@code positions[i]} in one statement. */
+  @Modifying
+  @Query(
+      value =
+          """
+            insert into playlist_tracks (playlist_id, track_id, position)
+            select :playlistId, t.track_id, t.position
+            from unnest(cast(:trackIds as bigint[]), cast(:positions as int[]))
+                as t(track_id, position)
+            """,
+      nativeQuery = true)
+  int insertAll(
+      @Param("playlistId") Long playlistId,
+      @Param("trackIds") Long[] trackIds,
+      @Param("positions") Integer[] positions);
 }
@@ -1,18 +1,44 @@
 package com.Tsimur.Dubcast.repository;
 
+import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
 import com.Tsimur.Dubcast.model.ScheduleEntry;
+import jakarta.persistence.QueryHint;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Long> {
 
+  // track у ScheduleEntry ленивый: чтения, которые отдают DTO, подтягивают его тем же запросом
+
+  @Override
+  @EntityGraph(attributePaths = "track")
+  Optional<ScheduleEntry> findById(Long id);
+
+  @Override
+  @EntityGraph(attributePaths = "track")
+  List<ScheduleEntry> findAll();
+
+  /** Admin slot row with its track and playlist name, built by the query itself. */
+  String ADMIN_SLOT_SELECT =
+      """
+            select new com.Tsimur.Dubcast.dto.AdminScheduleSlotDto(
+                e.id, t.title, t.artworkUrl, t.scUrl, p.id, p.name, e.startTime, e.endTime)
+            from ScheduleEntry e
+            join e.track t
+            left join e.playlist p
+            """;
+
   @Query(
       """
             select case when count(e) > 0 then true else false end
@@ -30,6 +56,7 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
             """)
   Optional<OffsetDateTime> findLastEndTimeAfter(@Param("from") OffsetDateTime from);
 
+  @EntityGraph(attributePaths = "track")
   @Query(
       """
             select e
@@ -38,6 +65,7 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
             """)
   Optional<ScheduleEntry> findCurrent(@Param("now") OffsetDateTime now);
 
+  @EntityGraph(attributePaths = "track")
   @Query(
       """
             select e
@@ -50,6 +78,11 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
   @Query("select max(e.endTime) from ScheduleEntry e")
   OffsetDateTime findMaxEndTime();
 
+  /** Transaction-scoped advisory lock serializing writers of the schedule tail. */
+  @Query(value = "select 1 from (select pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+  Integer acquireTailLock(@Param("key") long key);
+
+  @EntityGraph(attributePaths = "track")
   @Query(
       """
             select e
@@ -69,6 +102,7 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
   void deleteByPlaylistIdAndStartTimeAfter(
       @Param("playlistId") Long playlistId, @Param("from") OffsetDateTime from);
 
+  @EntityGraph(attributePaths = "track")
   @Query(
       """
             select e
@@ -79,6 +113,7 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
   List<ScheduleEntry> findByStartTimeBetweenOrderByStartTime(
       @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
 
+  @EntityGraph(attributePaths = "track")
   @Query(
       """
             select e
@@ -88,4 +123,120 @@ public interface ScheduleEntryRepository extends JpaRepository<ScheduleEntry, Lo
             """)
   Page<ScheduleEntry> findPageByStartTimeBetweenOrderByStartTime(
       @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Pageable pageable);
+
+  /** Slots starting in {@code [from, to)} with their tracks, read through a JDBC cursor. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @EntityGraph(attributePaths = "track")
+  @Query(
+      """
+            select e
+            from ScheduleEntry e
+            where e.startTime >= :from and e.startTime < :to
+            order by e.startTime asc
+            """)
+  Stream<ScheduleEntry> streamByStartTimeRange(
+      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+  /** First keyset page by id; {@code limit} is {@code PageRequest.of(0, n)}. */
+  @EntityGraph(attributePaths = "track")
+  List<ScheduleEntry> findAllByOrderByIdAsc(Pageable limit);
+
+  @EntityGraph(attributePaths = "track")
+  List<ScheduleEntry> findByIdGreaterThanOrderByIdAsc(Long after, Pageable limit);
+
+  @Query(
+      value =
+          ADMIN_SLOT_SELECT
+              + """
+            where e.startTime >= :from and e.startTime < :to
+            """,
+      countQuery =
+          """
+            select count(e)
+            from ScheduleEntry e
+            where e.startTime >= :from and e.startTime < :to
+            """)
+  Page<AdminScheduleSlotDto> findAdminSlotPage(
+      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Pageable pageable);
+
+  /** First keyset page: slots starting in {@code [from, to)}. No count query. */
+  @Query(
+      ADMIN_SLOT_SELECT
+          + """
+            where e.startTime >= :from and e.startTime < :to
+            order by e.startTime asc
+            """)
+  List<AdminScheduleSlotDto> findAdminSlotsFrom(
+      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, Pageable limit);
+
+  /**
+   * Next keyset page: slots starting after {@code after} and before {@code to}. Slots never
+   * overlap, so the start time alone is a unique key.
+   */
+  @Query(
+      ADMIN_SLOT_SELECT
+          + """
+            where e.startTime > :after and e.startTime < :to
+            order by e.startTime asc
+            """)
+  List<AdminScheduleSlotDto> findAdminSlotsAfter(
+      @Param("after") OffsetDateTime after, @Param("to") OffsetDateTime to, Pageable limit);
+
+  /** {@code [startTime, endTime]} of slots overlapping {@code (from, to)}, by start time. */
+  @Query(
+      """
+            select e.startTime, e.endTime
+            from ScheduleEntry e
+            where e.endTime > :from
+              and e.startTime < :to
+            order by e.startTime asc
+            """)
+  List<Object[]> findSlotTimesBetween(
+      @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+  boolean existsByStartTimeGreaterThanEqual(OffsetDateTime from);
+
+  /**
+   * Autofill slots that have not started yet and follow the last programmed slot; they give way to
+   * programmed content appended to the tail. Autofill filling holes between programmed slots stays.
+   */
+  @Modifying
+  @Query(
+      """
+            delete from ScheduleEntry e
+            where e.autofill = true
+              and e.startTime > :now
+              and not exists (
+                select p.id from ScheduleEntry p
+                where p.autofill = false
+                  and p.startTime > e.startTime)
+            """)
+  int deleteTailAutofillStartingAfter(@Param("now") OffsetDateTime now);
+
+  /**
+   * Inserts autofill slots {@code (trackIds[i], startMillis[i], endMillis[i])} in one statement;
+   * times are epoch milliseconds.
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+            insert into schedule_entries (track_id, start_time, end_time, autofill)
+            select t.track_id,
+                   timestamptz 'epoch' + t.start_ms * interval '1 millisecond',
+                   timestamptz 'epoch' + t.end_ms * interval '1 millisecond',
+                   true
+            from unnest(
+                cast(:trackIds as bigint[]),
+                cast(:startMillis as bigint[]),
+                cast(:endMillis as bigint[])) as t(track_id, start_ms, end_ms)
+            """,
+      nativeQuery = true)
+  int insertAutofill(
+      @Param("trackIds") Long[] trackIds,
+      @Param("startMillis") Long[] startMillis,
+      @Param("endMillis") Long[] endMillis);
 }
@@ -1,12 +1,96 @@
 package com.Tsimur.Dubcast.repository;
 
 import com.Tsimur.Dubcast.model.Track;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface TrackRepository extends JpaRepository<Track, Long> {
 
   boolean existsByScUrl(String scUrl);
 
   Optional<Track> findByScUrl(String scUrl); // <-- вот этот
+
+  List<Track> findAllByScUrlIn(Collection<String> scUrls);
+
+  /**
+   * Inserts all rows in one statement and returns {@code [id, sc_url]} of the rows actually
+   * inserted; URLs that already exist (or were inserted concurrently) are skipped.
+   */
+  @Query(
+      value =
+          """
+            insert into tracks (sc_url, title, duration_seconds, artwork_url)
+            select * from unnest(
+                cast(:scUrls as text[]),
+                cast(:titles as text[]),
+                cast(:durations as int[]),
+                cast(:artworkUrls as text[]))
+            on conflict (sc_url) do nothing
+            returning id, sc_url
+            """,
+      nativeQuery = true)
+  List<Object[]> insertMissing(
+      @Param("scUrls") String[] scUrls,
+      @Param("titles") String[] titles,
+      @Param("durations") Integer[] durations,
+      @Param("artworkUrls") String[] artworkUrls);
+
+  /**
+   * {@code [id, sc_url, duration_seconds]} of tracks autofill can play, i.e. with a known positive
+   * duration.
+   */
+  @Query("select t.id, t.scUrl, t.durationSeconds from Track t where t.durationSeconds > 0")
+  List<Object[]> findAllPlayable();
+
+  /** {@code [id, duration_seconds]} of the given tracks. */
+  @Query("select t.id, t.durationSeconds from Track t where t.id in :ids")
+  List<Object[]> findDurationsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(
+      """
+            select distinct pt.track from PlaylistTrack pt
+            where pt.playlist.id = :playlistId and pt.track.embedCode is null
+            """)
+  List<Track> findAllWithoutEmbedCodeByPlaylistId(@Param("playlistId") Long playlistId);
+
+  /**
+   * Stores the player HTML; the oEmbed thumbnail only fills a missing artwork. Runs in its own
+   * transaction so callers can fetch oEmbed without holding a connection.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      """
+            update Track t
+            set t.embedCode = :embedCode, t.artworkUrl = coalesce(t.artworkUrl, :thumbnailUrl)
+            where t.id = :id
+            """)
+  int updateEmbed(
+      @Param("id") Long id,
+      @Param("embedCode") String embedCode,
+      @Param("thumbnailUrl") String thumbnailUrl);
+
+  /** Whole table in id order, read through a JDBC cursor; close the stream. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select t from Track t order by t.id")
+  Stream<Track> streamAllOrderById();
+
+  /** First keyset page; {@code limit} is {@code PageRequest.of(0, n)}. */
+  List<Track> findAllByOrderByIdAsc(Pageable limit);
+
+  List<Track> findByIdGreaterThanOrderByIdAsc(Long after, Pageable limit);
 }
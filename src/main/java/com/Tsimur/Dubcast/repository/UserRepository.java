@@ -1,9 +1,16 @@
 package com.Tsimur.Dubcast.repository;
 
 import com.Tsimur.Dubcast.model.User;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
@@ -14,4 +21,17 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   boolean existsByUsername(String username);
 
   Optional<User> findByUsername(String username);
+
+  /** Whole table in id order, read through a JDBC cursor; close the stream. */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select u from User u order by u.id")
+  Stream<User> streamAllOrderById();
+
+  /** First keyset page; {@code limit} is {@code PageRequest.of(0, n)}. */
+  List<User> findAllByOrderByIdAsc(Pageable limit);
+
+  List<User> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable limit);
 }
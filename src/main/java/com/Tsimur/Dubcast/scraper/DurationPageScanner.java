@@ -0,0 +1,161 @@
+package com.Tsimur.Dubcast.scraper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Finds a track duration in the HTML of a SoundCloud track page without building a DOM. The page is
+ * read through a fixed {@value #BUFFER_CHARS}-char window and reading stops at the first {@code
+ * <meta itemprop="duration" content="PT..">} or {@code "duration":<millis>} that gives a plausible
+ * value (under 8 hours).
+ */
+public final class DurationPageScanner {
+
+  static final int BUFFER_CHARS = 16 * 1024;
+
+  /** Chars kept when the window slides: enough for a whole {@code <meta ...>} tag. */
+  private static final int KEEP_CHARS = 1024;
+
+  private static final long MAX_SECONDS = 8 * 60 * 60;
+
+  private static final char[] META_MARKER = "itemprop=\"duration\"".toCharArray();
+  private static final char[] JSON_MARKER = "\"duration\":".toCharArray();
+  private static final char[] CONTENT_ATTR = "content=\"".toCharArray();
+
+  private static final long NEED_MORE = -1;
+  private static final long INVALID = 0;
+
+  private DurationPageScanner() {}
+
+  /** Duration in seconds, or {@code null} if the page has none. Does not close {@code in}. */
+  public static Integer scan(Reader in) throws IOException {
+    char[] buf = new char[BUFFER_CHARS];
+    int len = 0;
+    int from = 0;
+    boolean eof = false;
+
+    while (true) {
+      int meta = indexOf(buf, len, META_MARKER, from);
+      int json = indexOf(buf, len, JSON_MARKER, from);
+      int candidate = meta < 0 ? json : json < 0 ? meta : Math.min(meta, json);
+
+      if (candidate >= 0) {
+        long seconds =
+            candidate == meta ? metaSeconds(buf, len, meta, eof) : jsonSeconds(buf, len, json, eof);
+        if (seconds > 0 && seconds < MAX_SECONDS) {
+          return (int) seconds;
+        }
+        if (seconds != NEED_MORE) {
+          from = candidate + 1;
+          continue;
+        }
+        // кандидат обрывается на границе окна — дочитываем и проверяем его заново
+        from = candidate;
+      } else {
+        // неполный маркер на конце окна ещё может дописаться
+        from = Math.max(from, len - JSON_MARKER.length - META_MARKER.length);
+      }
+
+      if (eof) {
+        return null;
+      }
+      if (len == buf.length) {
+        int keepFrom = Math.max(0, Math.min(from, len) - KEEP_CHARS);
+        if (keepFrom == 0) {
+          // тег/число длиннее окна — это не то, что мы ищем
+          from++;
+          continue;
+        }
+        System.arraycopy(buf, keepFrom, buf, 0, len - keepFrom);
+        len -= keepFrom;
+        from -= keepFrom;
+      }
+      int read = in.read(buf, len, buf.length - len);
+      if (read < 0) {
+        eof = true;
+      } else {
+        len += read;
+      }
+    }
+  }
+
+  /** {@code PT3M5S} / {@code PT00H03M05S} to seconds, {@code null} if invalid or implausible. */
+  public static Integer parseIsoDuration(String iso) {
+    if (iso == null || iso.isBlank()) {
+      return null;
+    }
+    try {
+      long seconds = Duration.parse(iso.trim()).getSeconds();
+      return seconds > 0 && seconds < MAX_SECONDS ? (int) seconds : null;
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static long jsonSeconds(char[] buf, int len, int marker, boolean eof) {
+    int pos = marker + JSON_MARKER.length;
+    while (pos < len && Character.isWhitespace(buf[pos])) {
+      pos++;
+    }
+    long millis = 0;
+    int digits = 0;
+    while (pos < len && buf[pos] >= '0' && buf[pos] <= '9') {
+      if (++digits > 12) {
+        return INVALID;
+      }
+      millis = millis * 10 + (buf[pos] - '0');
+      pos++;
+    }
+    if (pos == len && !eof) {
+      return NEED_MORE;
+    }
+    return digits == 0 ? INVALID : millis / 1000;
+  }
+
+  private static long metaSeconds(char[] buf, int len, int marker, boolean eof) {
+    int tagStart = marker;
+    while (tagStart >= 0 && buf[tagStart] != '<' && buf[tagStart] != '>') {
+      tagStart--;
+    }
+    if (tagStart < 0 || buf[tagStart] != '<') {
+      return INVALID;
+    }
+    int tagEnd = marker + META_MARKER.length;
+    while (tagEnd < len && buf[tagEnd] != '>') {
+      tagEnd++;
+    }
+    if (tagEnd == len) {
+      return eof ? INVALID : NEED_MORE;
+    }
+    int content = indexOf(buf, tagEnd, CONTENT_ATTR, tagStart);
+    if (content < 0) {
+      return INVALID;
+    }
+    int valueStart = content + CONTENT_ATTR.length;
+    int valueEnd = valueStart;
+    while (valueEnd < tagEnd && buf[valueEnd] != '"') {
+      valueEnd++;
+    }
+    Integer seconds = parseIsoDuration(new String(buf, valueStart, valueEnd - valueStart));
+    return seconds == null ? INVALID : seconds;
+  }
+
+  private static int indexOf(char[] buf, int len, char[] needle, int from) {
+    int last = len - needle.length;
+    outer:
+    for (int i = Math.max(from, 0); i <= last; i++) {
+      if (buf[i] != needle[0]) {
+        continue;
+      }
+      for (int j = 1; j < needle.length; j++) {
+        if (buf[i + j] != needle[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,38 @@
+package com.Tsimur.Dubcast.scraper;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.WaitUntilState;
+import java.util.Set;
+
+/** Lightweight navigation helpers for pages that are only read for their JS state. */
+public final class PageScraping {
+
+  /** Playwright resource types that never affect inline page state. */
+  public static final Set<String> BLOCKED_RESOURCE_TYPES =
+      Set.of("image", "media", "font", "stylesheet", "texttrack", "manifest");
+
+  private PageScraping() {}
+
+  /** Aborts every request of a {@link #BLOCKED_RESOURCE_TYPES} type before it hits the network. */
+  public static void blockHeavyResources(Page page) {
+    page.route(
+        "**/*",
+        route -> {
+          if (BLOCKED_RESOURCE_TYPES.contains(route.request().resourceType())) {
+            route.abort();
+          } else {
+            route.resume();
+          }
+        });
+  }
+
+  /**
+   * Navigates without waiting for any load event and returns as soon as {@code readyPredicate} (a
+   * JS function returning a truthy value) holds on the page.
+   */
+  public static void navigateUntil(Page page, String url, String readyPredicate, double timeoutMs) {
+    page.navigate(url, new Page.NavigateOptions().setWaitUntil(WaitUntilState.COMMIT));
+    page.waitForFunction(
+        readyPredicate, null, new Page.WaitForFunctionOptions().setTimeout(timeoutMs));
+  }
+}
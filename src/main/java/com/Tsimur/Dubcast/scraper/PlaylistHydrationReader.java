@@ -0,0 +1,102 @@
+package com.Tsimur.Dubcast.scraper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the tracks of a SoundCloud playlist page. The {@code playlist} entry of {@code
+ * window.__sc_hydration} is picked in the page by {@link #EXTRACT_PLAYLIST_DATA}, so only its
+ * {@code data} crosses the Playwright bridge; the track fields are then read with a streaming
+ * parser, skipping everything else without building a tree.
+ */
+public final class PlaylistHydrationReader {
+
+  /** JS run in the page: the playlist {@code data} as a JSON string, or {@code null}. */
+  public static final String EXTRACT_PLAYLIST_DATA =
+      """
+      () => {
+        const entry = (window.__sc_hydration || [])
+            .find(e => e && e.hydratable === 'playlist');
+        return entry && entry.data ? JSON.stringify(entry.data) : null;
+      }""";
+
+  /** Track fields the importer needs; stub entries only carry {@code id}. */
+  public record ScrapedTrack(
+      long id, String permalinkUrl, String title, int durationMs, String artworkUrl) {
+
+    public boolean hasEnoughData() {
+      return permalinkUrl != null && title != null && durationMs > 0;
+    }
+  }
+
+  private PlaylistHydrationReader() {}
+
+  /** Tracks of the playlist {@code data} object in playlist order; empty if there are none. */
+  public static List<ScrapedTrack> readTracks(JsonFactory factory, String playlistData)
+      throws IOException {
+    List<ScrapedTrack> tracks = new ArrayList<>();
+    if (playlistData == null || playlistData.isBlank()) {
+      return tracks;
+    }
+    try (JsonParser parser = factory.createParser(playlistData)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return tracks;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if ("tracks".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+              tracks.add(readTrack(parser));
+            } else {
+              parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return tracks;
+  }
+
+  private static ScrapedTrack readTrack(JsonParser parser) throws IOException {
+    long id = 0;
+    String url = null;
+    String title = null;
+    int durationMs = 0;
+    String artwork = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "id" -> id = parser.getValueAsLong(0);
+        case "permalink_url" -> url = text(parser);
+        case "title" -> title = text(parser);
+        case "duration" -> durationMs = parser.getValueAsInt(0);
+        case "artwork_url" -> artwork = text(parser);
+          // user, media, publisher_metadata и т.п. не нужны — пропускаем целиком
+        default -> parser.skipChildren();
+      }
+    }
+    return new ScrapedTrack(id, url, title, durationMs, artwork);
+  }
+
+  private static String text(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token.isStructStart()) {
+      parser.skipChildren();
+      return null;
+    }
+    return parser.getText();
+  }
+}
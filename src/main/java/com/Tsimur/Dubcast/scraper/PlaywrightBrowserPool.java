@@ -0,0 +1,283 @@
+package com.Tsimur.Dubcast.scraper;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Long-lived headless Chromium instances shared by all scrapers.
+ *
+ * <p>Playwright for Java is not thread-safe: every object must be used on the thread that created
+ * its {@link Playwright}. Each worker therefore owns one thread, one browser and one reusable
+ * {@link BrowserContext}; callers borrow a worker and their action runs on its thread. The context
+ * is recycled after {@code pages-per-context} pages, and a disconnected browser is relaunched on
+ * the next use.
+ *
+ * <p>One browser for the whole pool is not an option: it would be bound to a single thread and
+ * every scrape would queue behind it, so parallelism is bought with one Chromium per worker and
+ * capped by {@code size}.
+ */
+@Component
+@Slf4j
+public class PlaywrightBrowserPool {
+
+  public static final String USER_AGENT =
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
+          + "AppleWebKit/537.36 (KHTML, like Gecko) "
+          + "Chrome/120.0.0.0 Safari/537.36";
+
+  private static final double DEFAULT_PAGE_TIMEOUT_MS = 30_000;
+
+  private final List<Worker> workers = new ArrayList<>();
+  private final BlockingQueue<Worker> idle;
+  private final int pagesPerContext;
+  private final long acquireTimeoutMs;
+  private final boolean warmUp;
+  private final Supplier<Playwright> playwrightFactory;
+
+  private volatile boolean closed;
+
+  @Autowired
+  public PlaywrightBrowserPool(
+      @Value("${scraper.browser-pool.size:2}") int size,
+      @Value("${scraper.browser-pool.pages-per-context:50}") int pagesPerContext,
+      @Value("${scraper.browser-pool.acquire-timeout-ms:60000}") long acquireTimeoutMs,
+      @Value("${scraper.browser-pool.warm-up:false}") boolean warmUp) {
+    this(size, pagesPerContext, acquireTimeoutMs, warmUp, Playwright::create);
+  }
+
+  /** {@code playwrightFactory} is called on the worker thread; tests pass a fake here. */
+  PlaywrightBrowserPool(
+      int size,
+      int pagesPerContext,
+      long acquireTimeoutMs,
+      boolean warmUp,
+      Supplier<Playwright> playwrightFactory) {
+    this.playwrightFactory = playwrightFactory;
+    int poolSize = Math.max(size, 1);
+    this.idle = new ArrayBlockingQueue<>(poolSize);
+    this.pagesPerContext = Math.max(pagesPerContext, 1);
+    this.acquireTimeoutMs = acquireTimeoutMs;
+    this.warmUp = warmUp;
+    for (int i = 0; i < poolSize; i++) {
+      Worker worker = new Worker(i);
+      workers.add(worker);
+      idle.add(worker);
+    }
+  }
+
+  /**
+   * Opens a fresh page in a pooled context, applies {@code action} to it on the browser thread and
+   * closes the page. Only plain data should escape the action — Playwright objects must not.
+   */
+  public <T> T withPage(Function<Page, T> action) {
+    Worker worker = acquire();
+    try {
+      return worker.execute(w -> w.runOnPage(action));
+    } finally {
+      idle.offer(worker);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUpOnStartup() {
+    if (!warmUp) {
+      return;
+    }
+    // не блокируем старт приложения: каждый воркер поднимает браузер на своём потоке
+    for (Worker worker : workers) {
+      worker.submit(
+          w -> {
+            try {
+              w.ensureContext();
+              log.info("[BROWSER-POOL] worker {} warmed up", w.index);
+            } catch (RuntimeException e) {
+              log.warn("[BROWSER-POOL] warm-up of worker {} failed", w.index, e);
+            }
+            return null;
+          });
+    }
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Worker worker : workers) {
+      worker.submit(
+          w -> {
+            w.closeAll();
+            return null;
+          });
+      worker.thread.shutdown();
+    }
+    for (Worker worker : workers) {
+      try {
+        if (!worker.thread.awaitTermination(10, TimeUnit.SECONDS)) {
+          worker.thread.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        worker.thread.shutdownNow();
+      }
+    }
+    log.info("[BROWSER-POOL] shut down");
+  }
+
+  private Worker acquire() {
+    if (closed) {
+      throw new IllegalStateException("Browser pool is shut down");
+    }
+    try {
+      Worker worker = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+      if (worker == null) {
+        throw new IllegalStateException(
+            "No browser available within " + acquireTimeoutMs + " ms, all workers are busy");
+      }
+      return worker;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a browser", e);
+    }
+  }
+
+  private final class Worker {
+
+    private final int index;
+    private final ExecutorService thread;
+
+    // всё ниже трогается только с потока this.thread
+    private Playwright playwright;
+    private Browser browser;
+    private BrowserContext context;
+    private int pagesInContext;
+
+    private Worker(int index) {
+      this.index = index;
+      this.thread =
+          Executors.newSingleThreadExecutor(
+              r -> {
+                Thread t = new Thread(r, "playwright-" + index);
+                t.setDaemon(true);
+                return t;
+              });
+    }
+
+    private <T> Future<T> submit(Function<Worker, T> task) {
+      return thread.submit(() -> task.apply(this));
+    }
+
+    private <T> T execute(Function<Worker, T> task) {
+      try {
+        return submit(task).get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException re) {
+          throw re;
+        }
+        throw new IllegalStateException("Browser task failed", cause);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for browser task", e);
+      }
+    }
+
+    private <T> T runOnPage(Function<Page, T> action) {
+      ensureContext();
+      Page page = context.newPage();
+      pagesInContext++;
+      page.setDefaultTimeout(DEFAULT_PAGE_TIMEOUT_MS);
+      try {
+        return action.apply(page);
+      } catch (PlaywrightException e) {
+        // контекст/браузер могли умереть — пересоздадим при следующем вызове
+        closeContext();
+        if (browser != null && !browser.isConnected()) {
+          closeAll();
+        }
+        throw e;
+      } finally {
+        if (!page.isClosed()) {
+          try {
+            page.close();
+          } catch (PlaywrightException ignored) {
+          }
+        }
+      }
+    }
+
+    private void ensureContext() {
+      if (browser != null && !browser.isConnected()) {
+        log.warn("[BROWSER-POOL] worker {} browser disconnected, relaunching", index);
+        closeAll();
+      }
+      if (playwright == null) {
+        playwright = playwrightFactory.get();
+      }
+      if (browser == null) {
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+        log.info("[BROWSER-POOL] worker {} launched chromium {}", index, browser.version());
+      }
+      if (context != null && pagesInContext >= pagesPerContext) {
+        log.debug(
+            "[BROWSER-POOL] worker {} recycling context after {} pages", index, pagesInContext);
+        closeContext();
+      }
+      if (context == null) {
+        context = browser.newContext(new Browser.NewContextOptions().setUserAgent(USER_AGENT));
+        pagesInContext = 0;
+      }
+    }
+
+    private void closeContext() {
+      if (context != null) {
+        try {
+          context.close();
+        } catch (PlaywrightException ignored) {
+        }
+        context = null;
+      }
+    }
+
+    private void closeAll() {
+      closeContext();
+      if (browser != null) {
+        try {
+          browser.close();
+        } catch (PlaywrightException ignored) {
+        }
+        browser = null;
+      }
+      if (playwright != null) {
+        try {
+          playwright.close();
+        } catch (PlaywrightException ignored) {
+        }
+        playwright = null;
+      }
+    }
+  }
+}
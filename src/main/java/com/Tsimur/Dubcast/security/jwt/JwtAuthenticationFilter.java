@@ -1,14 +1,20 @@
 package com.Tsimur.Dubcast.security.jwt;
 
 import com.Tsimur.Dubcast.config.ApiPaths;
+import com.Tsimur.Dubcast.model.Role;
 import com.Tsimur.Dubcast.model.User;
 import com.Tsimur.Dubcast.repository.UserRepository;
+import com.Tsimur.Dubcast.security.jwt.JwtPrincipalCache.CachedPrincipal;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -26,6 +32,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
   private final UserRepository userRepository;
+  private final JwtPrincipalCache principalCache;
+
+  /**
+   * Present only in stateless mode ({@code security.jwt.stateless=true}): authorities come from the
+   * verified {@code role} claim, the {@code users} table is not queried and revocation is checked
+   * against the registry.
+   */
+  private final Optional<JwtRevocationRegistry> revocationRegistry;
 
   @Override
   protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -40,36 +54,97 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     String authHeader = request.getHeader(AUTH_HEADER);
 
-    if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+    if (authHeader == null
+        || !authHeader.startsWith(BEARER_PREFIX)
+        || SecurityContextHolder.getContext().getAuthentication() != null) {
       filterChain.doFilter(request, response);
       return;
     }
 
     String jwt = authHeader.substring(BEARER_PREFIX.length());
 
-    String userEmail;
+    // токен уже проверяли и он ещё не истёк — ни парсинга, ни запроса в БД
+    CachedPrincipal principal = principalCache.get(jwt);
+    if (principal == null) {
+      principal = loadPrincipal(jwt);
+      if (principal != null) {
+        principalCache.put(jwt, principal);
+      }
+    }
+
+    // отзыв мог прийти с другого инстанса — проверяем и для закэшированных
+    if (principal != null
+        && revocationRegistry.isPresent()
+        && revocationRegistry.get().isRevoked(principal.userId(), principal.issuedAtMillis())) {
+      principal = null;
+    }
+
+    if (principal != null) {
+      UsernamePasswordAuthenticationToken authToken =
+          new UsernamePasswordAuthenticationToken(principal.email(), null, principal.authorities());
+      authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+      SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    filterChain.doFilter(request, response);
+  }
+
+  private CachedPrincipal loadPrincipal(String jwt) {
+    Claims claims;
     try {
-      userEmail = jwtService.extractEmail(jwt);
+      // один парсинг: подпись + exp проверяются внутри
+      claims = jwtService.verify(jwt);
     } catch (Exception e) { // ExpiredJwtException, MalformedJwtException и т.п.
-      // логируем и пропускаем запрос без аутентификации, а не 500
-      // log.warn("Invalid JWT: {}", e.getMessage());
-      filterChain.doFilter(request, response);
-      return;
+      // пропускаем запрос без аутентификации, а не 500
+      return null;
     }
 
-    if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-      User user = userRepository.findByEmail(userEmail).orElse(null);
+    String userEmail = claims.getSubject();
+    if (userEmail == null) {
+      return null;
+    }
 
-      if (user != null && jwtService.isValid(jwt, user)) {
-        UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(
-                userEmail, null, List.of(new SimpleGrantedAuthority(user.getRole().name())));
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
+    if (revocationRegistry.isPresent()) {
+      CachedPrincipal fromClaims = principalFromClaims(claims);
+      if (fromClaims != null) {
+        return fromClaims;
       }
+      // старый токен без uid/role — один раз идём в БД
     }
 
-    filterChain.doFilter(request, response);
+    User user = userRepository.findByEmail(userEmail).orElse(null);
+    if (user == null) {
+      return null;
+    }
+
+    return new CachedPrincipal(
+        user.getId(),
+        user.getEmail(),
+        List.of(new SimpleGrantedAuthority(user.getRole().name())),
+        millis(claims.getIssuedAt(), 0L),
+        millis(claims.getExpiration(), Long.MAX_VALUE));
+  }
+
+  private CachedPrincipal principalFromClaims(Claims claims) {
+    String uid = claims.get(JwtService.USER_ID_CLAIM, String.class);
+    String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+    if (uid == null || role == null) {
+      return null;
+    }
+
+    try {
+      return new CachedPrincipal(
+          UUID.fromString(uid),
+          claims.getSubject(),
+          List.of(new SimpleGrantedAuthority(Role.valueOf(role).name())),
+          millis(claims.getIssuedAt(), 0L),
+          millis(claims.getExpiration(), Long.MAX_VALUE));
+    } catch (IllegalArgumentException e) { // битый uid или неизвестная роль
+      return null;
+    }
+  }
+
+  private static long millis(Date date, long fallback) {
+    return date != null ? date.getTime() : fallback;
   }
 }
@@ -0,0 +1,91 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded LRU cache of already verified bearer tokens → principal, so {@link
+ * JwtAuthenticationFilter} does not parse the JWT and hit {@code users} on every request.
+ *
+ * <p>An entry never outlives the token's {@code exp} and is additionally capped by {@code
+ * security.jwt.principal-cache.ttl-ms}. Entries of a user are dropped on {@link
+ * UserAuthChangedEvent}.
+ */
+@Component
+@Slf4j
+public class JwtPrincipalCache {
+
+  public record CachedPrincipal(
+      UUID userId,
+      String email,
+      List<GrantedAuthority> authorities,
+      long issuedAtMillis,
+      long tokenExpiresAtMillis) {}
+
+  private record Entry(CachedPrincipal principal, long expiresAtMillis) {}
+
+  private final Map<String, Entry> entries;
+  private final long ttlMillis;
+
+  public JwtPrincipalCache(
+      @Value("${security.jwt.principal-cache.max-size:10000}") int maxSize,
+      @Value("${security.jwt.principal-cache.ttl-ms:300000}") long ttlMillis) {
+    this.ttlMillis = ttlMillis;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  public CachedPrincipal get(String token) {
+    long now = System.currentTimeMillis();
+    synchronized (entries) {
+      Entry entry = entries.get(token);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAtMillis() <= now) {
+        entries.remove(token);
+        return null;
+      }
+      return entry.principal();
+    }
+  }
+
+  public void put(String token, CachedPrincipal principal) {
+    long expiresAt =
+        Math.min(principal.tokenExpiresAtMillis(), System.currentTimeMillis() + ttlMillis);
+    synchronized (entries) {
+      entries.put(token, new Entry(principal, expiresAt));
+    }
+  }
+
+  public void invalidateUser(UUID userId) {
+    synchronized (entries) {
+      entries.values().removeIf(e -> e.principal().userId().equals(userId));
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserAuthChanged(UserAuthChangedEvent event) {
+    log.debug("[JWT] Invalidating cached principals of user {}", event.userId());
+    invalidateUser(event.userId());
+  }
+}
@@ -0,0 +1,82 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import com.Tsimur.Dubcast.model.JwtRevocation;
+import com.Tsimur.Dubcast.repository.JwtRevocationRepository;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory copy of {@code jwt_revocations} used by the stateless JWT mode: a token whose {@code
+ * iat} is before the user's {@code revoked_before} is rejected without touching the DB.
+ *
+ * <p>Rows are written together with the change that caused them ({@link UserAuthChangedEvent}) and
+ * the set is reloaded periodically so revocations made on other instances are picked up. Rows older
+ * than the token lifetime are purged, which keeps the set small.
+ *
+ * <p>Only exists with {@code security.jwt.stateless=true}; the stateful mode reads the user on
+ * every new token and writes no revocation rows.
+ */
+@Component
+@ConditionalOnProperty(name = "security.jwt.stateless", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class JwtRevocationRegistry {
+
+  private final JwtRevocationRepository revocationRepository;
+
+  @Value("${security.jwt.expiration}")
+  private long expiration;
+
+  // userId -> revoked_before (epoch millis); заменяется целиком при перезагрузке
+  private volatile Map<UUID, Long> revokedBefore = Map.of();
+
+  public boolean isRevoked(UUID userId, long issuedAtMillis) {
+    Long before = revokedBefore.get(userId);
+    return before != null && issuedAtMillis < before;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void persistRevocation(UserAuthChangedEvent event) {
+    // iat в JWT с точностью до секунды — иначе новый токен, выданный в ту же секунду, тоже отозван
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+    revocationRepository.save(new JwtRevocation(event.userId(), now));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onRevocationCommitted(UserAuthChangedEvent event) {
+    reload();
+  }
+
+  @Scheduled(fixedDelayString = "${security.jwt.revocation.refresh-ms:30000}")
+  @Transactional
+  public void refresh() {
+    OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(expiration, ChronoUnit.MILLIS);
+    int purged = revocationRepository.deleteAllRevokedBeforeOrAt(cutoff);
+    if (purged > 0) {
+      log.debug("[JWT] Purged {} revocations older than token lifetime", purged);
+    }
+    reload();
+  }
+
+  private void reload() {
+    OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(expiration, ChronoUnit.MILLIS);
+    Map<UUID, Long> fresh = new HashMap<>();
+    for (JwtRevocation r : revocationRepository.findAllByRevokedBeforeAfter(cutoff)) {
+      fresh.put(r.getUserId(), r.getRevokedBefore().toInstant().toEpochMilli());
+    }
+    revokedBefore = Map.copyOf(fresh);
+  }
+}
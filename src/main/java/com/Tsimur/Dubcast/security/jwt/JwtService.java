@@ -2,56 +2,72 @@ package com.Tsimur.Dubcast.security.jwt;
 
 import com.Tsimur.Dubcast.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
 import java.util.Date;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
-  @Value("${security.jwt.secret}")
-  private String secret;
+  public static final String ROLE_CLAIM = "role";
+  public static final String USER_ID_CLAIM = "uid";
 
-  @Value("${security.jwt.expiration}")
-  private long expiration;
+  // ключ и парсер строятся один раз: оба immutable и потокобезопасны
+  private final Key key;
+  private final JwtParser parser;
+  private final long expiration;
 
-  private Key getKey() {
-    return Keys.hmacShaKeyFor(secret.getBytes());
+  public JwtService(
+      @Value("${security.jwt.secret}") String secret,
+      @Value("${security.jwt.expiration}") long expiration) {
+    this.key = Keys.hmacShaKeyFor(secret.getBytes());
+    this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+    this.expiration = expiration;
   }
 
   public String generateToken(User user) {
     return Jwts.builder()
         .setSubject(user.getEmail())
-        .claim("role", user.getRole())
+        .claim(ROLE_CLAIM, user.getRole())
+        .claim(USER_ID_CLAIM, user.getId() != null ? user.getId().toString() : null)
         .setIssuedAt(new Date())
         .setExpiration(new Date(System.currentTimeMillis() + expiration))
-        .signWith(getKey(), SignatureAlgorithm.HS256)
+        .signWith(key, SignatureAlgorithm.HS256)
         .compact();
   }
 
+  /**
+   * Verifies signature and expiration and returns all claims from a single parse.
+   *
+   * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+   */
+  public Claims verify(String token) {
+    return parser.parseClaimsJws(token).getBody();
+  }
+
   public String extractEmail(String token) {
-    return extractAllClaims(token).getSubject();
+    return verify(token).getSubject();
   }
 
   public String extractRole(String token) {
-    return extractAllClaims(token).get("role", String.class);
+    return verify(token).get(ROLE_CLAIM, String.class);
   }
 
   public boolean isValid(String token, User user) {
-    return user.getEmail().equals(extractEmail(token)) && !isExpired(token);
+    Claims claims = verify(token);
+    return user.getEmail().equals(claims.getSubject()) && !isExpired(claims);
   }
 
   public boolean isExpired(String token) {
-    return extractAllClaims(token).getExpiration().before(new Date());
+    return isExpired(verify(token));
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parserBuilder().setSigningKey(getKey()).build().parseClaimsJws(token).getBody();
+  private boolean isExpired(Claims claims) {
+    return claims.getExpiration().before(new Date());
   }
 }
@@ -0,0 +1,6 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import java.util.UUID;
+
+/** Role, e-mail, password or existence of a user changed; cached principals must be dropped. */
+public record UserAuthChangedEvent(UUID userId) {}
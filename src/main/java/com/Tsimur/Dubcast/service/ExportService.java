@@ -0,0 +1,25 @@
+package com.Tsimur.Dubcast.service;
+
+import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.UserDto;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Full-table reads for exports. Rows are read through a database cursor and handed to {@code sink}
+ * one by one, so memory does not grow with the table; the read transaction stays open until the
+ * last row is consumed.
+ */
+public interface ExportService {
+
+  void exportTracks(Consumer<TrackDto> sink);
+
+  void exportUsers(Consumer<UserDto> sink);
+
+  void exportPlaylists(Consumer<PlaylistDto> sink);
+
+  /** Slots starting in {@code [from, to)}, in start time order. */
+  void exportSchedule(OffsetDateTime from, OffsetDateTime to, Consumer<ScheduleEntryDto> sink);
+}
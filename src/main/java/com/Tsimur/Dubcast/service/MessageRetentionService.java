@@ -0,0 +1,18 @@
+package com.Tsimur.Dubcast.service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/** Maintenance of the month-partitioned {@code messages} table. */
+public interface MessageRetentionService {
+
+  /** Creates partitions from the month of {@code now} up to the configured lookahead. */
+  List<String> ensureUpcomingPartitions(OffsetDateTime now);
+
+  /**
+   * Detaches or drops every partition whose month lies entirely before the retention window.
+   *
+   * @return names of the retired partitions
+   */
+  List<String> applyRetention(OffsetDateTime now);
+}
@@ -10,5 +10,9 @@ public interface MessageService {
 
   List<ChatMessageDto> getMessagesPage(int page, int size);
 
+  /**
+   * Single ingest path for chat (REST and STOMP): persists the message and schedules exactly one
+   * broadcast to {@code /topic/chat} once the transaction commits.
+   */
   ChatMessageDto saveMessageAndPublish(String text, String userEmail);
 }
@@ -1,6 +1,7 @@
 package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.SoundcloudOEmbedResponse;
 import java.util.List;
 
 public interface ParserService {
@@ -11,4 +12,7 @@ public interface ParserService {
   List<TrackDto> parsePlaylistByUrl(String playlistUrl);
 
   String fetchOEmbedHtml(String soundcloudUrl);
+
+  /** Full oEmbed of a track (player HTML, thumbnail, title); cached per normalized URL. */
+  SoundcloudOEmbedResponse fetchOEmbed(String soundcloudUrl);
 }
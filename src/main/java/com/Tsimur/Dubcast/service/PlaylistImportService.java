@@ -0,0 +1,15 @@
+package com.Tsimur.Dubcast.service;
+
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+import java.util.UUID;
+
+/**
+ * Background playlist import: {@link #submit} returns immediately, the scrape and the inserts run
+ * on a worker and report progress on {@code /topic/playlist-imports/{jobId}}.
+ */
+public interface PlaylistImportService {
+
+  PlaylistImportJobDto submit(String playlistUrl);
+
+  PlaylistImportJobDto getJob(UUID jobId);
+}
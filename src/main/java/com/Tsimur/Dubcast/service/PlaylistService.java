@@ -2,6 +2,8 @@ package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.PlaylistDto;
 import com.Tsimur.Dubcast.dto.PlaylistTrackDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import java.util.List;
 
 public interface PlaylistService {
@@ -12,6 +14,12 @@ public interface PlaylistService {
 
   List<PlaylistDto> getAll();
 
+  /**
+   * Page of {@code size} playlists in id order after {@code after} ({@code null} for the first
+   * page).
+   */
+  KeysetPageResponse<PlaylistDto, Long> getPage(Long after, int size);
+
   void delete(Long id);
 
   List<PlaylistTrackDto> getTracks(Long playlistId);
@@ -21,4 +29,10 @@ public interface PlaylistService {
   //
 
   PlaylistDto importPlaylistFromUrl(String playlistUrl);
+
+  /**
+   * Stores parsed tracks (reusing existing ones by SoundCloud URL) and links them to the playlist
+   * at {@code startPosition}, {@code startPosition + 1}, ... One call is one chunk of an import.
+   */
+  void appendImportedTracks(Long playlistId, List<TrackDto> tracks, int startPosition);
 }
@@ -2,6 +2,7 @@ package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.AdminDaySlotsResponse;
 import com.Tsimur.Dubcast.dto.response.PlaylistScheduleResponse;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -23,6 +24,12 @@ public interface RadioProgrammingService { // orchestrator
 
   Page<AdminScheduleSlotDto> getDaySchedule(LocalDate date, Pageable pageable);
 
+  /**
+   * Up to {@code size} slots of the day starting after {@code after} (from the start of the day if
+   * {@code null}), in one query and without a count.
+   */
+  AdminDaySlotsResponse getDaySlots(LocalDate date, OffsetDateTime after, int size);
+
   void deleteSlotAndRebuildDay(Long slotId);
 
   AdminScheduleSlotDto insertTrackIntoDay(LocalDate date, Long trackId, int position);
@@ -32,4 +39,16 @@ public interface RadioProgrammingService { // orchestrator
   void reorderDay(LocalDate date, List<Long> orderedIds);
 
   boolean ensureAutofillIfNeeded(OffsetDateTime now);
+
+  /**
+   * Tops the schedule up to {@code radio.autofill.lookahead.horizon-ms} ahead of {@code now} once
+   * less than {@code refill-below-ms} is scheduled. Returns how many slots were added.
+   */
+  int fillAhead(OffsetDateTime now);
+
+  /**
+   * Fills holes between scheduled slots inside {@code [from, to]} with autofill tracks sized to
+   * each hole. Returns how many slots were added.
+   */
+  int fillGaps(OffsetDateTime from, OffsetDateTime to);
 }
@@ -1,6 +1,8 @@
 package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
+import com.Tsimur.Dubcast.radio.autofill.ScheduleGap;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -16,6 +18,11 @@ public interface ScheduleEntryService {
 
   List<ScheduleEntryDto> getAll();
 
+  /**
+   * Page of {@code size} slots in id order after {@code after} ({@code null} for the first page).
+   */
+  KeysetPageResponse<ScheduleEntryDto, Long> getPage(Long after, int size);
+
   ScheduleEntryDto update(Long id, ScheduleEntryDto dto);
 
   void delete(Long id);
@@ -34,8 +41,33 @@ public interface ScheduleEntryService {
 
   Page<ScheduleEntryDto> getDayPage(LocalDate date, Pageable pageable);
 
+  /** Appends after the last slot; pending autofill slots are dropped first. */
   ScheduleEntryDto appendTrackToTail(Long id);
 
+  /** End of the last scheduled slot, or {@code now} if the schedule ends before it. */
+  OffsetDateTime getTailEnd(OffsetDateTime now);
+
+  /**
+   * Schedules the tracks back to back after the tail, in order, until {@code until} is covered;
+   * tracks without a valid duration and the ones past {@code until} are skipped. One insert for all
+   * slots. Returns how many slots were added.
+   */
+  int appendAutofillToTail(List<Long> trackIds, OffsetDateTime until);
+
+  /**
+   * Holes of at least {@code minSeconds} inside {@code [from, to]} that are followed by a scheduled
+   * slot; the open end after the last slot is not a hole. A hole running past {@code to} is cut
+   * there.
+   */
+  List<ScheduleGap> findGaps(OffsetDateTime from, OffsetDateTime to, int minSeconds);
+
+  /**
+   * Schedules the tracks back to back from {@code gapStart}, skipping the ones that would run past
+   * {@code gapEnd}. Nothing is inserted if the hole has been taken meanwhile. Returns how many
+   * slots were added.
+   */
+  int fillGapWithAutofill(OffsetDateTime gapStart, OffsetDateTime gapEnd, List<Long> trackIds);
+
   void deleteSlotAndRebuildDay(Long slotId);
 
   ScheduleEntryDto insertTrackIntoDay(LocalDate date, Long trackId, int position);
@@ -44,5 +76,6 @@ public interface ScheduleEntryService {
 
   void reorderDay(LocalDate date, List<Long> orderedIds);
 
+  /** Appends after the last slot; pending autofill slots are dropped first. */
   List<ScheduleEntryDto> appendPlaylistToTail(Long playlistId);
 }
@@ -1,9 +1,17 @@
 package com.Tsimur.Dubcast.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collection;
+import java.util.List;
 
 public interface SoundcloudApiClient {
   JsonNode getTrack(long trackId);
 
+  /**
+   * Fetches several tracks in one {@code /tracks?ids=} call. Unknown, private or removed ids are
+   * silently missing from the result, and the order is whatever SoundCloud returns.
+   */
+  List<JsonNode> getTracks(Collection<Long> trackIds);
+
   JsonNode resolveByUrl(String url);
 }
@@ -1,7 +1,18 @@
 package com.Tsimur.Dubcast.service;
 
 public interface SoundcloudClientIdProvider {
+
+  /**
+   * Current client_id. Served from memory (seeded with {@code soundcloud.client-id}); waits only
+   * when no id is known at all, e.g. right after {@link #invalidate()}.
+   */
   String getClientId();
 
   void invalidate();
+
+  /**
+   * Called after SoundCloud rejected {@code rejectedClientId} with 401/403: drops it and waits for
+   * a fresh one. Concurrent callers share a single resolution.
+   */
+  String refreshAfterRejection(String rejectedClientId);
 }
@@ -1,6 +1,7 @@
 package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,9 +13,27 @@ public interface TrackService {
 
   List<TrackDto> getAll();
 
+  /**
+   * Page of {@code size} tracks in id order after {@code after} ({@code null} for the first page).
+   */
+  KeysetPageResponse<TrackDto, Long> getPage(Long after, int size);
+
   TrackDto update(Long id, TrackDto dto);
 
   void delete(Long id);
 
+  /** Random track with a known duration, picked from the in-memory autofill index. */
   Optional<TrackDto> getRandomTrack();
+
+  /**
+   * Stored oEmbed player HTML of the track; fetched and stored on first request if missing. Throws
+   * {@code NotFoundException} if SoundCloud returns none.
+   */
+  String getEmbedCode(Long trackId);
+
+  /**
+   * Fetches and stores oEmbed HTML for tracks of the playlist that have none yet. Failures are
+   * logged and skipped. Returns how many tracks were updated.
+   */
+  int storeMissingEmbedCodes(Long playlistId);
 }
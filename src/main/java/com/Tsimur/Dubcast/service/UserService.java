@@ -1,6 +1,7 @@
 package com.Tsimur.Dubcast.service;
 
 import com.Tsimur.Dubcast.dto.UserDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.dto.response.UserProfileResponse;
 import java.util.List;
 import java.util.UUID;
@@ -13,6 +14,11 @@ public interface UserService {
 
   List<UserDto> getAll();
 
+  /**
+   * Page of {@code size} users in id order after {@code after} ({@code null} for the first page).
+   */
+  KeysetPageResponse<UserDto, UUID> getPage(UUID after, int size);
+
   UserDto update(UUID id, UserDto dto);
 
   void delete(UUID id);
@@ -0,0 +1,81 @@
+package com.Tsimur.Dubcast.service.impl;
+
+import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.UserDto;
+import com.Tsimur.Dubcast.mapper.PlaylistMapper;
+import com.Tsimur.Dubcast.mapper.ScheduleEntryMapper;
+import com.Tsimur.Dubcast.mapper.TrackMapper;
+import com.Tsimur.Dubcast.mapper.UserMapper;
+import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.repository.UserRepository;
+import com.Tsimur.Dubcast.service.ExportService;
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportServiceImpl implements ExportService {
+
+  /** Matches the fetch size hint of the streaming repository queries. */
+  static final int DETACH_EVERY = 500;
+
+  private final TrackRepository trackRepository;
+  private final UserRepository userRepository;
+  private final PlaylistRepository playlistRepository;
+  private final ScheduleEntryRepository scheduleEntryRepository;
+  private final TrackMapper trackMapper;
+  private final UserMapper userMapper;
+  private final PlaylistMapper playlistMapper;
+  private final ScheduleEntryMapper scheduleEntryMapper;
+  private final EntityManager entityManager;
+
+  @Override
+  public void exportTracks(Consumer<TrackDto> sink) {
+    drain(trackRepository.streamAllOrderById(), trackMapper::toDto, sink);
+  }
+
+  @Override
+  public void exportUsers(Consumer<UserDto> sink) {
+    drain(userRepository.streamAllOrderById(), userMapper::toDto, sink);
+  }
+
+  @Override
+  public void exportPlaylists(Consumer<PlaylistDto> sink) {
+    drain(playlistRepository.streamAllOrderById(), playlistMapper::toDto, sink);
+  }
+
+  @Override
+  public void exportSchedule(
+      OffsetDateTime from, OffsetDateTime to, Consumer<ScheduleEntryDto> sink) {
+    if (from == null || to == null || !from.isBefore(to)) {
+      throw new IllegalArgumentException("'from' must be before 'to'");
+    }
+    drain(
+        scheduleEntryRepository.streamByStartTimeRange(from, to), scheduleEntryMapper::toDto, sink);
+  }
+
+  private <E, D> void drain(Stream<E> rows, Function<E, D> toDto, Consumer<D> sink) {
+    try (rows) {
+      int[] read = {0};
+      rows.forEach(
+          row -> {
+            sink.accept(toDto.apply(row));
+            // иначе все прочитанные сущности копятся в persistence context до конца выгрузки
+            if (++read[0] % DETACH_EVERY == 0) {
+              entityManager.clear();
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.Tsimur.Dubcast.service.impl;
+
+import com.Tsimur.Dubcast.repository.MessageRepository;
+import com.Tsimur.Dubcast.service.MessageRetentionService;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class MessageRetentionServiceImpl implements MessageRetentionService {
+
+  public enum Mode {
+    /** Partition is detached and kept as a standalone table (for archiving). */
+    DETACH,
+    /** Partition is detached and dropped. */
+    DROP
+  }
+
+  static final String PARTITION_PREFIX = "messages_p";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+  private final MessageRepository messageRepository;
+
+  @Value("${chat.retention.enabled:true}")
+  private boolean retentionEnabled;
+
+  @Value("${chat.retention.keep-months:12}")
+  private int keepMonths;
+
+  @Value("${chat.retention.mode:DETACH}")
+  private Mode mode;
+
+  @Value("${chat.retention.premake-months:3}")
+  private int premakeMonths;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    ensureUpcomingPartitions(OffsetDateTime.now(ZoneOffset.UTC));
+  }
+
+  @Scheduled(cron = "${chat.retention.cron:0 15 3 * * *}", zone = "UTC")
+  public void runMaintenance() {
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    ensureUpcomingPartitions(now);
+    applyRetention(now);
+  }
+
+  @Override
+  public List<String> ensureUpcomingPartitions(OffsetDateTime now) {
+    YearMonth current = YearMonth.from(now.withOffsetSameInstant(ZoneOffset.UTC));
+    List<String> ensured = new ArrayList<>();
+    for (int i = 0; i <= premakeMonths; i++) {
+      ensured.add(messageRepository.ensurePartition(current.plusMonths(i).atDay(1)));
+    }
+    log.debug("[CHAT-RETENTION] Ensured partitions {}", ensured);
+    return ensured;
+  }
+
+  @Override
+  public List<String> applyRetention(OffsetDateTime now) {
+    if (!retentionEnabled) {
+      return List.of();
+    }
+
+    // keepMonths = 12 → храним текущий месяц и 11 предыдущих
+    YearMonth oldestKept =
+        YearMonth.from(now.withOffsetSameInstant(ZoneOffset.UTC))
+            .minusMonths(Math.max(keepMonths, 1) - 1L);
+
+    List<String> retired = new ArrayList<>();
+    for (String name : messageRepository.findPartitionNames()) {
+      YearMonth month = parsePartitionMonth(name);
+      if (month == null || !month.isBefore(oldestKept)) {
+        continue;
+      }
+      if (messageRepository.retirePartition(name, mode == Mode.DROP)) {
+        retired.add(name);
+      }
+    }
+
+    if (!retired.isEmpty()) {
+      log.info("[CHAT-RETENTION] {} partitions older than {}: {}", mode, oldestKept, retired);
+    }
+    return retired;
+  }
+
+  static YearMonth parsePartitionMonth(String partitionName) {
+    if (partitionName == null || !partitionName.startsWith(PARTITION_PREFIX)) {
+      return null;
+    }
+    try {
+      return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -81,8 +81,9 @@ public class MessageServiceImpl implements MessageService {
 
   @Override
   public ChatMessageDto saveMessageAndPublish(String text, String userEmail) {
+    long acceptedAt = System.nanoTime();
     ChatMessageDto saved = saveMessage(text, userEmail);
-    eventPublisher.publishEvent(new ChatMessageCreatedEvent(saved));
+    eventPublisher.publishEvent(new ChatMessageCreatedEvent(saved, acceptedAt));
     return saved;
   }
 }
@@ -2,20 +2,36 @@ package com.Tsimur.Dubcast.service.impl;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
 import com.Tsimur.Dubcast.dto.response.SoundcloudOEmbedResponse;
+import com.Tsimur.Dubcast.exception.type.SoundcloudUnavailableException;
+import com.Tsimur.Dubcast.scraper.DurationPageScanner;
+import com.Tsimur.Dubcast.scraper.PageScraping;
+import com.Tsimur.Dubcast.scraper.PlaylistHydrationReader;
+import com.Tsimur.Dubcast.scraper.PlaylistHydrationReader.ScrapedTrack;
+import com.Tsimur.Dubcast.scraper.PlaywrightBrowserPool;
 import com.Tsimur.Dubcast.service.ParserService;
 import com.Tsimur.Dubcast.service.SoundcloudApiClient;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudLookupCache;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudResilience;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.LoadState;
-import java.time.Duration;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
@@ -27,31 +43,38 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Slf4j
 public class ParserScServiceImpl implements ParserService {
 
+  @Qualifier("soundcloudRestTemplate")
   private final RestTemplate restTemplate;
+
   private final ObjectMapper objectMapper;
   private final SoundcloudApiClient soundcloudApiClient;
+  private final PlaywrightBrowserPool browserPool;
+  private final SoundcloudLookupCache lookupCache;
+  private final SoundcloudResilience resilience;
+
+  /** Shared by all imports, so it also caps api-v2 requests of parallel imports together. */
+  @Qualifier("soundcloudStubFetchExecutor")
+  private final ExecutorService stubFetchExecutor;
+
+  private static final String HYDRATION_READY = "() => Array.isArray(window.__sc_hydration)";
+  private static final double HYDRATION_TIMEOUT_MS = 15_000;
+
+  /** Upper bound of ids per {@code /tracks?ids=} request accepted by api-v2. */
+  private static final int STUB_BATCH_SIZE = 50;
 
   @Value("${external.soundcloud.oembed-url:https://soundcloud.com/oembed}")
   private String oEmbedBaseUrl;
 
-  @Override
-  public TrackDto parseTracksByUrl(String url) {
-    String oEmbedUrl =
-        UriComponentsBuilder.fromHttpUrl(oEmbedBaseUrl)
-            .queryParam("format", "json")
-            .queryParam("url", url)
-            .toUriString();
+  @Value("${scraper.duration-scrape.timeout-ms:5000}")
+  private int durationScrapeTimeoutMs = 5000;
 
-    SoundcloudOEmbedResponse response;
-    try {
-      response = restTemplate.getForObject(oEmbedUrl, SoundcloudOEmbedResponse.class);
-    } catch (RestClientException ex) {
-      throw new RuntimeException("Failed to call SoundCloud oEmbed API: " + oEmbedUrl, ex);
-    }
+  /** Abort images/media/fonts and stop at hydration instead of waiting for network idle. */
+  @Value("${scraper.lightweight:true}")
+  private boolean lightweightScraping = true;
 
-    if (response == null) {
-      throw new RuntimeException("Empty response from SoundCloud oEmbed API for url: " + url);
-    }
+  @Override
+  public TrackDto parseTracksByUrl(String url) {
+    SoundcloudOEmbedResponse response = fetchOEmbed(url);
 
     Integer duration = getDurationSecondsByUrl(url);
 
@@ -80,6 +103,9 @@ public class ParserScServiceImpl implements ParserService {
         return durationMs / 1000;
       }
       log.warn("resolveByUrl ok, but duration is 0 or missing. url={}", cleanUrl);
+    } catch (SoundcloudUnavailableException e) {
+      // SoundCloud лежит или перегружен — скрейп страницы только добавит ожидания
+      throw e;
     } catch (Exception e) {
       log.warn("resolveByUrl failed, fallback to HTML scraping. url={}", cleanUrl, e);
     }
@@ -99,68 +125,55 @@ public class ParserScServiceImpl implements ParserService {
   public List<TrackDto> parsePlaylistByUrl(String playlistUrl) {
     List<TrackDto> result = new ArrayList<>();
 
-    try (Playwright playwright = Playwright.create()) {
-      Browser browser =
-          playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
-
-      BrowserContext context =
-          browser.newContext(
-              new Browser.NewContextOptions()
-                  .setUserAgent(
-                      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
-                          + "AppleWebKit/537.36 (KHTML, like Gecko) "
-                          + "Chrome/120.0.0.0 Safari/537.36"));
-
-      Page page = context.newPage();
-      page.setDefaultTimeout(30_000);
-
-      System.out.println("[SCRAPER] goto " + playlistUrl);
-      page.navigate(playlistUrl);
-      page.waitForLoadState(LoadState.NETWORKIDLE);
-
-      String hydrationJson =
-          page.evaluate("() => JSON.stringify(window.__sc_hydration || [])").toString();
-
-      JsonNode hydration = objectMapper.readTree(hydrationJson);
-
-      JsonNode playlistData = null;
-      if (hydration.isArray()) {
-        for (JsonNode node : hydration) {
-          String hydratable = node.path("hydratable").asText(null);
-          if ("playlist".equals(hydratable)) {
-            playlistData = node.path("data");
-            break;
-          }
-        }
-      }
+    try {
+      // браузер из пула: платим только за навигацию, страница закрывается сразу после evaluate
+      Object playlistData =
+          browserPool.withPage(
+              page -> {
+                log.info("[SCRAPER] goto {}", playlistUrl);
+                if (lightweightScraping) {
+                  // картинки/шрифты/медиа не нужны: ждём только появления __sc_hydration
+                  PageScraping.blockHeavyResources(page);
+                  PageScraping.navigateUntil(
+                      page, playlistUrl, HYDRATION_READY, HYDRATION_TIMEOUT_MS);
+                } else {
+                  page.navigate(playlistUrl);
+                  page.waitForLoadState(LoadState.NETWORKIDLE);
+                }
+                // весь __sc_hydration через мост не гоняем — только data плейлиста
+                return page.evaluate(PlaylistHydrationReader.EXTRACT_PLAYLIST_DATA);
+              });
 
       if (playlistData == null) {
         log.error("[SCRAPER] playlist data not found in __sc_hydration");
-        browser.close();
         return result;
       }
 
-      JsonNode tracks = playlistData.path("tracks");
-      if (!tracks.isArray()) {
-        log.info("[SCRAPER] playlist tracks is not array");
-        browser.close();
-        return result;
-      }
+      List<ScrapedTrack> tracks =
+          PlaylistHydrationReader.readTracks(objectMapper.getFactory(), playlistData.toString());
 
       log.info("[SCRAPER] playlist.tracks size = {}", tracks.size());
 
-      int index = 0;
-      for (JsonNode t : tracks) {
-        long id = t.path("id").asLong(0);
-        boolean hasUrl = t.hasNonNull("permalink_url");
-        boolean hasTitle = t.hasNonNull("title");
-        boolean hasDuration = t.has("duration") && t.get("duration").asInt(0) > 0;
+      // сначала разом дотягиваем все stub-треки, потом собираем DTO в исходном порядке
+      List<Long> stubIds = new ArrayList<>();
+      for (ScrapedTrack t : tracks) {
+        if (t.id() != 0 && !t.hasEnoughData()) {
+          stubIds.add(t.id());
+        }
+      }
+      Map<Long, JsonNode> fetched = fetchStubTracks(stubIds);
 
+      int index = 0;
+      for (ScrapedTrack t : tracks) {
         log.info(
-            "[SCRAPER] track[%d] id=%d hasUrl=%s hasTitle=%s hasDuration=%s%n",
-            new Object[] {index++, id, hasUrl, hasTitle, hasDuration});
-
-        TrackDto dto = buildTrackFromNodeOrFetch(t);
+            "[SCRAPER] track[{}] id={} hasUrl={} hasTitle={} hasDuration={}",
+            index++,
+            t.id(),
+            t.permalinkUrl() != null,
+            t.title() != null,
+            t.durationMs() > 0);
+
+        TrackDto dto = buildTrackFromNode(t, fetched.get(t.id()));
         if (dto != null) {
           log.info("[SCRAPER]   => OK: {}", dto.getTitle());
           result.add(dto);
@@ -168,8 +181,6 @@ public class ParserScServiceImpl implements ParserService {
           log.warn("[SCRAPER]   => SKIPPED");
         }
       }
-
-      browser.close();
     } catch (Exception e) {
       e.printStackTrace();
       throw new RuntimeException("Failed to parse playlist via Playwright", e);
@@ -179,38 +190,96 @@ public class ParserScServiceImpl implements ParserService {
     return result;
   }
 
-  private TrackDto buildTrackFromNodeOrFetch(JsonNode t) {
-    long id = t.path("id").asLong(0);
+  /**
+   * Resolves stub tracks through api-v2: first in {@code /tracks?ids=} batches, then one by one for
+   * ids a batch did not return. At most {@code scraper.stub-fetch.concurrency} requests run at the
+   * same time; a failed request only loses its own tracks.
+   */
+  private Map<Long, JsonNode> fetchStubTracks(List<Long> ids) {
+    Map<Long, JsonNode> resolved = new ConcurrentHashMap<>();
+    if (ids.isEmpty()) {
+      return resolved;
+    }
+    log.info("[SCRAPER] resolving {} stub tracks via api-v2", ids.size());
+
+    List<Callable<Void>> batchCalls = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += STUB_BATCH_SIZE) {
+      List<Long> batch = ids.subList(from, Math.min(from + STUB_BATCH_SIZE, ids.size()));
+      batchCalls.add(
+          () -> {
+            try {
+              for (JsonNode full : soundcloudApiClient.getTracks(batch)) {
+                long id = full.path("id").asLong(0);
+                if (id != 0) {
+                  resolved.put(id, full);
+                }
+              }
+            } catch (Exception e) {
+              log.warn(
+                  "[SCRAPER]   batch of {} stub tracks failed: {}", batch.size(), e.getMessage());
+            }
+            return null;
+          });
+    }
+    runBounded(batchCalls);
 
-    String url = t.path("permalink_url").asText(null);
-    String title = t.path("title").asText(null);
-    int durationMs = t.path("duration").asInt(0);
+    List<Callable<Void>> singleCalls = new ArrayList<>();
+    for (Long id : ids) {
+      if (resolved.containsKey(id)) {
+        continue;
+      }
+      singleCalls.add(
+          () -> {
+            log.info("[SCRAPER]   stub track id={} -> fetching full JSON via api-v2...", id);
+            try {
+              resolved.put(id, soundcloudApiClient.getTrack(id));
+            } catch (Exception e) {
+              log.error("[SCRAPER]   exception while fetching track id={}: {}", id, e.getMessage());
+            }
+            return null;
+          });
+    }
+    runBounded(singleCalls);
 
-    String artwork = t.path("artwork_url").asText(null);
+    log.info("[SCRAPER] resolved {}/{} stub tracks", resolved.size(), ids.size());
+    return resolved;
+  }
 
-    boolean hasEnough = url != null && title != null && durationMs > 0;
+  private void runBounded(List<Callable<Void>> calls) {
+    if (calls.isEmpty()) {
+      return;
+    }
+    try {
+      stubFetchExecutor.invokeAll(calls);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while resolving stub tracks", e);
+    }
+  }
 
-    if (!hasEnough && id != 0) {
-      log.info("[SCRAPER]   stub track id={} -> fetching full JSON via api-v2...", id);
-      try {
-        JsonNode full = soundcloudApiClient.getTrack(id);
+  private TrackDto buildTrackFromNode(ScrapedTrack t, JsonNode full) {
+    long id = t.id();
 
-        if (url == null) url = full.path("permalink_url").asText(null);
-        if (title == null) title = full.path("title").asText(null);
-        if (durationMs <= 0) durationMs = full.path("duration").asInt(0);
+    String url = t.permalinkUrl();
+    String title = t.title();
+    int durationMs = t.durationMs();
 
-        if (artwork == null || artwork.isBlank()) {
-          artwork = full.path("artwork_url").asText(null);
-        }
+    String artwork = t.artworkUrl();
 
-        hasEnough = url != null && title != null && durationMs > 0;
-        if (!hasEnough) {
-          log.error("[SCRAPER]   still not enough data for id={} -> skip", id);
-          return null;
-        }
+    boolean hasEnough = url != null && title != null && durationMs > 0;
+
+    if (!hasEnough && full != null) {
+      if (url == null) url = full.path("permalink_url").asText(null);
+      if (title == null) title = full.path("title").asText(null);
+      if (durationMs <= 0) durationMs = full.path("duration").asInt(0);
 
-      } catch (Exception e) {
-        log.error("[SCRAPER]   exception while fetching track id={}: {}", id, e.getMessage());
+      if (artwork == null || artwork.isBlank()) {
+        artwork = full.path("artwork_url").asText(null);
+      }
+
+      hasEnough = url != null && title != null && durationMs > 0;
+      if (!hasEnough) {
+        log.error("[SCRAPER]   still not enough data for id={} -> skip", id);
         return null;
       }
     }
@@ -235,99 +304,83 @@ public class ParserScServiceImpl implements ParserService {
 
   @Override
   public String fetchOEmbedHtml(String url) {
-    String oEmbedUrl =
-        UriComponentsBuilder.fromHttpUrl(oEmbedBaseUrl)
-            .queryParam("format", "json")
-            .queryParam("url", url)
-            .toUriString();
-
-    SoundcloudOEmbedResponse response;
-    try {
-      response = restTemplate.getForObject(oEmbedUrl, SoundcloudOEmbedResponse.class);
-    } catch (RestClientException ex) {
-      throw new RuntimeException("Failed to call SoundCloud oEmbed API: " + oEmbedUrl, ex);
-    }
-
-    if (response == null) {
-      throw new RuntimeException("Empty response from SoundCloud oEmbed API for url: " + url);
-    }
+    SoundcloudOEmbedResponse response = fetchOEmbed(url);
 
     log.info("ParserScServiceImpl embed -----> {}", response.getHtml());
     return response.getHtml();
   }
 
-  // --- старый HTML-скрейпер длительности (fallback) ----------------------
-  @Deprecated
-  private Integer extractDurationSecondsByScraping(String trackUrl) {
-    try {
-      Document doc =
-          Jsoup.connect(trackUrl)
-              .userAgent(
-                  "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
-                      + "AppleWebKit/537.36 (KHTML, like Gecko) "
-                      + "Chrome/120.0.0.0 Safari/537.36")
-              .referrer("https://soundcloud.com/")
-              .timeout(15000)
-              .get();
-
-      Element durationMeta = doc.selectFirst("noscript article meta[itemprop=duration]");
-      if (durationMeta != null) {
-        Integer seconds = parseIsoDurationToSeconds(durationMeta.attr("content"));
-        if (seconds != null) {
-          return seconds;
-        }
-      }
-
-      // 2) перебор <script> с поиском "duration": <millis>
-      for (Element script : doc.select("script")) {
-        String data = script.data();
-        if (data == null || data.isEmpty()) {
-          continue;
-        }
-
-        int idx = data.indexOf("\"duration\":");
-        if (idx == -1) continue;
-
-        int pos = idx + "\"duration\":".length();
-        while (pos < data.length() && Character.isWhitespace(data.charAt(pos))) {
-          pos++;
-        }
-        int start = pos;
-        while (pos < data.length() && Character.isDigit(data.charAt(pos))) {
-          pos++;
-        }
-        if (start == pos) continue;
+  @Override
+  public SoundcloudOEmbedResponse fetchOEmbed(String url) {
+    JsonNode node =
+        lookupCache.get(
+            SoundcloudLookupCache.Region.OEMBED,
+            url,
+            () -> {
+              String oEmbedUrl =
+                  UriComponentsBuilder.fromHttpUrl(oEmbedBaseUrl)
+                      .queryParam("format", "json")
+                      .queryParam("url", url)
+                      .toUriString();
+
+              SoundcloudOEmbedResponse response;
+              try {
+                response =
+                    resilience.call(
+                        "oembed",
+                        () -> restTemplate.getForObject(oEmbedUrl, SoundcloudOEmbedResponse.class));
+              } catch (RestClientException ex) {
+                throw new RuntimeException(
+                    "Failed to call SoundCloud oEmbed API: " + oEmbedUrl, ex);
+              }
+
+              if (response == null) {
+                throw new RuntimeException(
+                    "Empty response from SoundCloud oEmbed API for url: " + url);
+              }
+              return objectMapper.valueToTree(response);
+            });
+    return objectMapper.convertValue(node, SoundcloudOEmbedResponse.class);
+  }
 
-        String millisStr = data.substring(start, pos);
-        long millis = Long.parseLong(millisStr);
-        long seconds = millis / 1000L;
+  // --- HTML-скрейпер длительности (fallback) -----------------------------
 
-        if (seconds > 0 && seconds < 8 * 60 * 60) {
-          return (int) seconds;
-        }
-      }
-      return null;
+  /**
+   * Streams the track page through {@link DurationPageScanner}: no DOM is built and the download
+   * stops at the first duration found.
+   */
+  private Integer extractDurationSecondsByScraping(String trackUrl) {
+    try {
+      return resilience.call(
+          "page-scrape",
+          () -> {
+            try {
+              Connection.Response response =
+                  Jsoup.connect(trackUrl)
+                      .userAgent(PlaywrightBrowserPool.USER_AGENT)
+                      .referrer("https://soundcloud.com/")
+                      .timeout(durationScrapeTimeoutMs)
+                      .maxBodySize(0)
+                      .execute();
+              Charset charset =
+                  response.charset() == null
+                      ? StandardCharsets.UTF_8
+                      : Charset.forName(response.charset());
+              try (Reader body = new InputStreamReader(response.bodyStream(), charset)) {
+                return DurationPageScanner.scan(body);
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (SoundcloudUnavailableException e) {
+      throw e;
     } catch (Exception e) {
       log.warn("HTML duration scrape failed for url={}", trackUrl, e);
       return null;
     }
   }
 
-  private Integer parseIsoDurationToSeconds(String iso) {
-    if (iso == null || iso.isBlank()) {
-      return null;
-    }
-    try {
-      Duration d = Duration.parse(iso);
-      long seconds = d.getSeconds();
-      if (seconds > 0 && seconds < 8 * 60 * 60) {
-        return (int) seconds;
-      }
-    } catch (Exception ignored) {
-    }
-    return null;
-  }
-
   private String toArtworkSize(String url, String size) {
     if (url == null) return null;
     // size примеры: "t500x500", "t300x300", "large", "t67x67"
@@ -0,0 +1,340 @@
+package com.Tsimur.Dubcast.service.impl;
+
+import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.exception.type.NotFoundException;
+import com.Tsimur.Dubcast.mapper.PlaylistImportJobMapper;
+import com.Tsimur.Dubcast.model.Playlist;
+import com.Tsimur.Dubcast.model.PlaylistImportJob;
+import com.Tsimur.Dubcast.model.PlaylistImportStatus;
+import com.Tsimur.Dubcast.repository.PlaylistImportJobRepository;
+import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.service.ParserService;
+import com.Tsimur.Dubcast.service.PlaylistImportService;
+import com.Tsimur.Dubcast.service.PlaylistService;
+import com.Tsimur.Dubcast.service.TrackService;
+import com.Tsimur.Dubcast.websocket.PlaylistImportProgressEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs imports on a small worker pool. Steps, each in its own transaction:
+ *
+ * <ol>
+ *   <li>scrape the playlist and store the parsed tracks together with the new playlist;
+ *   <li>insert tracks in chunks of {@code playlist.import.chunk-size}, advancing {@code
+ *       processedTracks} in the same transaction;
+ *   <li>mark the job completed.
+ * </ol>
+ *
+ * <p>After completion the oEmbed player HTML of the imported tracks is fetched and stored
+ * (best-effort; whatever is missed is fetched on first request).
+ *
+ * <p>Unfinished jobs are picked up again on startup and continue from the last committed chunk; a
+ * shutdown leaves the running ones in their active status instead of failing them. Submitting the
+ * URL of a failed job again retries it against the playlist it already created. Meant for a single
+ * application instance: two instances would both resume the same job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaylistImportServiceImpl implements PlaylistImportService {
+
+  private static final Set<PlaylistImportStatus> ACTIVE =
+      EnumSet.of(
+          PlaylistImportStatus.QUEUED,
+          PlaylistImportStatus.SCRAPING,
+          PlaylistImportStatus.IMPORTING);
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final PlaylistImportJobRepository jobRepository;
+  private final PlaylistRepository playlistRepository;
+  private final PlaylistService playlistService;
+  private final ParserService parserService;
+  private final TrackService trackService;
+  private final PlaylistImportJobMapper jobMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${playlist.import.workers:1}")
+  private int workers = 1;
+
+  @Value("${playlist.import.chunk-size:100}")
+  private int chunkSize = 100;
+
+  private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+  private ExecutorService executor;
+  private volatile boolean stopping;
+
+  /** Fired inside {@link #submit}; the job is handed to a worker only after that commit. */
+  public record JobSubmittedEvent(UUID jobId) {}
+
+  @PostConstruct
+  public void start() {
+    AtomicInteger counter = new AtomicInteger();
+    executor =
+        Executors.newFixedThreadPool(
+            Math.max(workers, 1),
+            r -> {
+              Thread t = new Thread(r, "playlist-import-" + counter.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    // незавершённые job'ы останутся в БД и продолжатся после рестарта
+    stopping = true;
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Override
+  @Transactional
+  public PlaylistImportJobDto submit(String playlistUrl) {
+    Optional<Playlist> existing = playlistRepository.findByScPlaylistUrl(playlistUrl);
+    if (existing.isPresent()) {
+      // плейлист мог остаться от упавшего импорта — тогда догружаем в него же
+      Long playlistId = existing.get().getId();
+      return retry(
+          jobRepository
+              .findFirstByPlaylistUrlAndStatusOrderByCreatedAtDesc(
+                  playlistUrl, PlaylistImportStatus.FAILED)
+              .filter(job -> playlistId != null && playlistId.equals(job.getPlaylistId()))
+              .orElseThrow(
+                  () -> new IllegalArgumentException("Playlist already exists: " + playlistUrl)));
+    }
+    if (jobRepository.existsByPlaylistUrlAndStatusIn(playlistUrl, ACTIVE)) {
+      throw new IllegalArgumentException("Playlist import already in progress: " + playlistUrl);
+    }
+
+    PlaylistImportJob job =
+        jobRepository.save(
+            PlaylistImportJob.builder()
+                .id(UUID.randomUUID())
+                .playlistUrl(playlistUrl)
+                .status(PlaylistImportStatus.QUEUED)
+                .build());
+
+    eventPublisher.publishEvent(new JobSubmittedEvent(job.getId()));
+    log.info("[IMPORT] job {} queued for {}", job.getId(), playlistUrl);
+    return jobMapper.toDto(job);
+  }
+
+  private PlaylistImportJobDto retry(PlaylistImportJob failed) {
+    // треки и прогресс оставляем: продолжим с последнего закоммиченного чанка
+    failed.setStatus(PlaylistImportStatus.QUEUED);
+    failed.setError(null);
+    PlaylistImportJob job = jobRepository.save(failed);
+
+    eventPublisher.publishEvent(new JobSubmittedEvent(job.getId()));
+    log.info(
+        "[IMPORT] job {} re-queued for {} from {}/{}",
+        job.getId(),
+        job.getPlaylistUrl(),
+        job.getProcessedTracks(),
+        job.getTotalTracks());
+    return jobMapper.toDto(job);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public PlaylistImportJobDto getJob(UUID jobId) {
+    return jobMapper.toDto(getJobOrThrow(jobId));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onJobSubmitted(JobSubmittedEvent event) {
+    dispatch(event.jobId());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeUnfinishedJobs() {
+    List<PlaylistImportJob> unfinished = jobRepository.findAllByStatusInOrderByCreatedAtAsc(ACTIVE);
+    if (!unfinished.isEmpty()) {
+      log.info("[IMPORT] resuming {} unfinished import job(s)", unfinished.size());
+    }
+    unfinished.forEach(job -> dispatch(job.getId()));
+  }
+
+  private void dispatch(UUID jobId) {
+    if (!running.add(jobId)) {
+      return;
+    }
+    try {
+      executor.execute(
+          () -> {
+            try {
+              runJob(jobId);
+            } finally {
+              running.remove(jobId);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      running.remove(jobId);
+      log.warn("[IMPORT] job {} not started, executor is shut down", jobId);
+    }
+  }
+
+  /** Drives one job to a final state. Public so it can be run synchronously. */
+  public void runJob(UUID jobId) {
+    PlaylistImportJob job = jobRepository.findById(jobId).orElse(null);
+    if (job == null || job.getStatus().isFinished()) {
+      return;
+    }
+
+    try {
+      if (job.getTracks() == null || job.getPlaylistId() == null) {
+        job = scrape(job);
+      }
+
+      List<TrackDto> tracks = job.getTracks();
+      int processed = job.getProcessedTracks();
+      while (processed < tracks.size()) {
+        if (Thread.currentThread().isInterrupted()) {
+          log.info("[IMPORT] job {} interrupted at {}/{}", jobId, processed, tracks.size());
+          return;
+        }
+        int from = processed;
+        int to = Math.min(from + Math.max(chunkSize, 1), tracks.size());
+        Long playlistId = job.getPlaylistId();
+
+        transactionTemplate.execute(
+            status -> {
+              playlistService.appendImportedTracks(playlistId, tracks.subList(from, to), from);
+              jobRepository.updateProgress(jobId, to, OffsetDateTime.now());
+              return null;
+            });
+        processed = to;
+        job.setProcessedTracks(processed);
+        publishProgress(job);
+      }
+
+      transactionTemplate.execute(
+          status ->
+              jobRepository.updateStatus(
+                  jobId, PlaylistImportStatus.COMPLETED, null, OffsetDateTime.now()));
+      job.setStatus(PlaylistImportStatus.COMPLETED);
+      publishProgress(job);
+      log.info("[IMPORT] job {} completed, {} tracks", jobId, tracks.size());
+      storeEmbedCodes(job);
+    } catch (Exception e) {
+      if (stopping || isInterruption(e)) {
+        // статус остаётся активным: после рестарта job продолжится с последнего чанка
+        log.info("[IMPORT] job {} stopped at {}, will resume", jobId, job.getStatus());
+        Thread.currentThread().interrupt();
+        return;
+      }
+      log.error("[IMPORT] job {} failed", jobId, e);
+      String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+      if (error.length() > MAX_ERROR_LENGTH) {
+        error = error.substring(0, MAX_ERROR_LENGTH);
+      }
+      String message = error;
+      transactionTemplate.execute(
+          status ->
+              jobRepository.updateStatus(
+                  jobId, PlaylistImportStatus.FAILED, message, OffsetDateTime.now()));
+      job.setStatus(PlaylistImportStatus.FAILED);
+      job.setError(message);
+      publishProgress(job);
+    }
+  }
+
+  private static boolean isInterruption(Throwable e) {
+    if (Thread.currentThread().isInterrupted()) {
+      return true;
+    }
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof InterruptedException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private PlaylistImportJob scrape(PlaylistImportJob job) {
+    UUID jobId = job.getId();
+    transactionTemplate.execute(
+        status ->
+            jobRepository.updateStatus(
+                jobId, PlaylistImportStatus.SCRAPING, null, OffsetDateTime.now()));
+    job.setStatus(PlaylistImportStatus.SCRAPING);
+    publishProgress(job);
+
+    // скрейп вне транзакции: соединение с БД не держим, пока работает браузер
+    List<TrackDto> parsed = parserService.parsePlaylistByUrl(job.getPlaylistUrl());
+    if (parsed == null || parsed.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Playlist is empty or cannot be parsed: " + job.getPlaylistUrl());
+    }
+
+    PlaylistImportJob saved =
+        transactionTemplate.execute(
+            status -> {
+              PlaylistImportJob fresh = getJobOrThrow(jobId);
+              if (fresh.getPlaylistId() == null) {
+                PlaylistDto playlist =
+                    playlistService.create(
+                        PlaylistDto.builder()
+                            .soundcloudUrl(fresh.getPlaylistUrl())
+                            .title(PlaylistServiceImpl.extractNameFromUrl(fresh.getPlaylistUrl()))
+                            .build());
+                fresh.setPlaylistId(playlist.getId());
+              }
+              fresh.setTracks(parsed);
+              fresh.setTotalTracks(parsed.size());
+              fresh.setProcessedTracks(0);
+              fresh.setStatus(PlaylistImportStatus.IMPORTING);
+              return jobRepository.save(fresh);
+            });
+    publishProgress(saved);
+    return saved;
+  }
+
+  private void storeEmbedCodes(PlaylistImportJob job) {
+    try {
+      int stored = trackService.storeMissingEmbedCodes(job.getPlaylistId());
+      log.info("[IMPORT] job {}: stored player html for {} tracks", job.getId(), stored);
+    } catch (RuntimeException e) {
+      // импорт уже завершён, плеер подтянется по первому запросу
+      log.warn("[IMPORT] job {}: storing player html failed", job.getId(), e);
+    }
+  }
+
+  private void publishProgress(PlaylistImportJob job) {
+    eventPublisher.publishEvent(new PlaylistImportProgressEvent(jobMapper.toDto(job)));
+  }
+
+  private PlaylistImportJob getJobOrThrow(UUID jobId) {
+    return jobRepository
+        .findById(jobId)
+        .orElseThrow(() -> new NotFoundException("Playlist import job not found: " + jobId));
+  }
+}
@@ -1,12 +1,14 @@
 package com.Tsimur.Dubcast.service.impl;
 
 import com.Tsimur.Dubcast.dto.*;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.PlaylistMapper;
 import com.Tsimur.Dubcast.mapper.PlaylistTrackMapper;
 import com.Tsimur.Dubcast.model.Playlist;
 import com.Tsimur.Dubcast.model.PlaylistTrack;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
 import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
 import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
@@ -16,6 +18,9 @@ import com.Tsimur.Dubcast.service.PlaylistService;
 import java.time.OffsetDateTime;
 import java.util.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +37,7 @@ public class PlaylistServiceImpl implements PlaylistService {
   private final PlaylistTrackMapper playlistTrackMapper;
   private final ParserService parserService;
   private final ScheduleEntryRepository scheduleEntryRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public PlaylistDto create(PlaylistDto dto) {
@@ -51,6 +57,19 @@ public class PlaylistServiceImpl implements PlaylistService {
     return playlistRepository.findAll().stream().map(playlistMapper::toDto).toList();
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public KeysetPageResponse<PlaylistDto, Long> getPage(Long after, int size) {
+    // на одну строку больше — так узнаём, есть ли следующая страница, без count
+    Pageable window = PageRequest.of(0, KeysetPageResponse.limit(size) + 1);
+    List<Playlist> rows =
+        after == null
+            ? playlistRepository.findAllByOrderByIdAsc(window)
+            : playlistRepository.findByIdGreaterThanOrderByIdAsc(after, window);
+    return KeysetPageResponse.of(
+        rows.stream().map(playlistMapper::toDto).toList(), size, PlaylistDto::getId);
+  }
+
   @Transactional
   public void delete(Long playlistId) {
     Playlist playlist = getPlaylistOrThrow(playlistId);
@@ -106,34 +125,94 @@ public class PlaylistServiceImpl implements PlaylistService {
 
     playlist = playlistRepository.save(playlist);
 
-    int position = 0;
-    for (TrackDto dto : parsedTracks) {
-
-      Track track =
-          trackRepository
-              .findByScUrl(dto.getSoundcloudUrl())
-              .orElseGet(
-                  () -> {
-                    Track t = new Track();
-                    t.setTitle(dto.getTitle());
-                    t.setScUrl(dto.getSoundcloudUrl());
-                    t.setDurationSeconds(dto.getDurationSeconds());
-                    t.setArtworkUrl(dto.getArtworkUrl());
-                    return trackRepository.save(t);
-                  });
-
-      PlaylistTrack pt =
-          PlaylistTrack.builder().playlist(playlist).track(track).position(position++).build();
-
-      playlistTrackRepository.save(pt);
-    }
+    appendTracks(playlist, parsedTracks, 0);
 
     Playlist reloaded = playlistRepository.findById(playlist.getId()).orElseThrow();
 
     return playlistMapper.toDto(reloaded);
   }
 
-  private String extractNameFromUrl(String url) {
+  @Override
+  public void appendImportedTracks(Long playlistId, List<TrackDto> tracks, int startPosition) {
+    appendTracks(getPlaylistOrThrow(playlistId), tracks, startPosition);
+  }
+
+  /**
+   * A fixed number of statements regardless of chunk size: one {@code sc_url IN (...)} lookup, one
+   * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING} for new tracks and one insert of all
+   * playlist_tracks rows.
+   */
+  private void appendTracks(Playlist playlist, List<TrackDto> tracks, int startPosition) {
+    if (tracks.isEmpty()) {
+      return;
+    }
+
+    Set<String> urls = new LinkedHashSet<>();
+    tracks.forEach(dto -> urls.add(dto.getSoundcloudUrl()));
+
+    Map<String, Long> idsByUrl = new HashMap<>();
+    trackRepository.findAllByScUrlIn(urls).forEach(t -> idsByUrl.put(t.getScUrl(), t.getId()));
+
+    List<TrackDto> missing = new ArrayList<>();
+    Set<String> queued = new HashSet<>();
+    for (TrackDto dto : tracks) {
+      String url = dto.getSoundcloudUrl();
+      if (!idsByUrl.containsKey(url) && queued.add(url)) {
+        missing.add(dto);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      int n = missing.size();
+      String[] scUrls = new String[n];
+      String[] titles = new String[n];
+      Integer[] durations = new Integer[n];
+      String[] artworkUrls = new String[n];
+      Map<String, Integer> durationByUrl = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        TrackDto dto = missing.get(i);
+        scUrls[i] = dto.getSoundcloudUrl();
+        titles[i] = dto.getTitle();
+        durations[i] = dto.getDurationSeconds();
+        artworkUrls[i] = dto.getArtworkUrl();
+        durationByUrl.put(scUrls[i], durations[i]);
+      }
+      Map<Long, TracksChangedEvent.Playable> playable = new HashMap<>();
+      for (Object[] row : trackRepository.insertMissing(scUrls, titles, durations, artworkUrls)) {
+        String url = (String) row[1];
+        Long id = ((Number) row[0]).longValue();
+        idsByUrl.put(url, id);
+        Integer duration = durationByUrl.get(url);
+        if (TracksChangedEvent.isPlayable(duration)) {
+          playable.put(id, new TracksChangedEvent.Playable(url, duration));
+        }
+      }
+      if (!playable.isEmpty()) {
+        eventPublisher.publishEvent(new TracksChangedEvent(playable, List.of()));
+      }
+
+      // строки, вставленные параллельным импортом между select и insert, дочитываем
+      List<String> raced = queued.stream().filter(url -> !idsByUrl.containsKey(url)).toList();
+      if (!raced.isEmpty()) {
+        trackRepository.findAllByScUrlIn(raced).forEach(t -> idsByUrl.put(t.getScUrl(), t.getId()));
+      }
+    }
+
+    Long[] trackIds = new Long[tracks.size()];
+    Integer[] positions = new Integer[tracks.size()];
+    for (int i = 0; i < tracks.size(); i++) {
+      String url = tracks.get(i).getSoundcloudUrl();
+      Long trackId = idsByUrl.get(url);
+      if (trackId == null) {
+        throw new IllegalStateException("Track was not stored: " + url);
+      }
+      trackIds[i] = trackId;
+      positions[i] = startPosition + i;
+    }
+    playlistTrackRepository.insertAll(playlist.getId(), trackIds, positions);
+  }
+
+  static String extractNameFromUrl(String url) {
     try {
       java.net.URI uri = java.net.URI.create(url);
       String path = uri.getPath();
@@ -2,6 +2,7 @@ package com.Tsimur.Dubcast.service.impl;
 
 import com.Tsimur.Dubcast.config.RadioTimeConfig;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.exception.type.SlotCurrentlyPlayingException;
 import com.Tsimur.Dubcast.mapper.ScheduleEntryMapper;
@@ -9,15 +10,20 @@ import com.Tsimur.Dubcast.model.Playlist;
 import com.Tsimur.Dubcast.model.PlaylistTrack;
 import com.Tsimur.Dubcast.model.ScheduleEntry;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.ScheduleTailCursor;
+import com.Tsimur.Dubcast.radio.autofill.ScheduleGap;
 import com.Tsimur.Dubcast.radio.events.ScheduleUpdatedEvent;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
 import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
 import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
 import com.Tsimur.Dubcast.repository.TrackRepository;
 import com.Tsimur.Dubcast.service.ScheduleEntryService;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +47,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
 
   private final PlaylistRepository playlistRepository; // <-- NEW
   private final PlaylistTrackRepository playlistTrackRepository; // <-- NEW
+  private final ScheduleTailCursor tailCursor;
 
   // ------------------------------------------------------------------------
   // CRUD
@@ -50,6 +57,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
     dto.setId(null);
     ScheduleEntry entity = scheduleEntryMapper.toEntity(dto);
     ScheduleEntry saved = scheduleEntryRepository.save(entity);
+    tailCursor.invalidate();
     return scheduleEntryMapper.toDto(saved);
   }
 
@@ -70,6 +78,19 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
     return scheduleEntryMapper.toDtoList(all);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public KeysetPageResponse<ScheduleEntryDto, Long> getPage(Long after, int size) {
+    // на одну строку больше — так узнаём, есть ли следующая страница, без count
+    Pageable window = PageRequest.of(0, KeysetPageResponse.limit(size) + 1);
+    List<ScheduleEntry> rows =
+        after == null
+            ? scheduleEntryRepository.findAllByOrderByIdAsc(window)
+            : scheduleEntryRepository.findByIdGreaterThanOrderByIdAsc(after, window);
+    return KeysetPageResponse.of(
+        scheduleEntryMapper.toDtoList(rows), size, ScheduleEntryDto::getId);
+  }
+
   @Override
   public ScheduleEntryDto update(Long id, ScheduleEntryDto dto) {
     ScheduleEntry existing =
@@ -78,6 +99,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
             .orElseThrow(() -> NotFoundException.of("Schedule", "id", id));
     scheduleEntryMapper.updateEntityFromDto(dto, existing);
     ScheduleEntry saved = scheduleEntryRepository.save(existing);
+    tailCursor.invalidate();
     return scheduleEntryMapper.toDto(saved);
   }
 
@@ -87,6 +109,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
       throw NotFoundException.of("Schedule", "id", id);
     }
     scheduleEntryRepository.deleteById(id);
+    tailCursor.invalidate();
   }
 
   // ------------------------------------------------------------------------
@@ -170,9 +193,8 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
     var zone = radioTimeConfig.getRadioZoneId();
     OffsetDateTime now = OffsetDateTime.now(zone);
 
-    OffsetDateTime maxEndTime = scheduleEntryRepository.findMaxEndTime();
-
-    OffsetDateTime startTime = (maxEndTime == null || maxEndTime.isBefore(now)) ? now : maxEndTime;
+    // параллельные добавления ждут друг друга здесь, а не падают на триггере пересечений
+    OffsetDateTime startTime = acquireTailDroppingAutofill(now);
 
     OffsetDateTime endTime = startTime.plusSeconds(duration);
 
@@ -185,6 +207,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
             .build();
 
     ScheduleEntry saved = scheduleEntryRepository.save(entry);
+    tailCursor.advance(endTime);
 
     // уведомляем RadioClock, что расписание обновилось
     eventPublisher.publishEvent(new ScheduleUpdatedEvent(saved.getStartTime()));
@@ -192,6 +215,127 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
     return scheduleEntryMapper.toDto(saved);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public OffsetDateTime getTailEnd(OffsetDateTime now) {
+    return tailCursor.peek(now);
+  }
+
+  @Override
+  public int appendAutofillToTail(List<Long> trackIds, OffsetDateTime until) {
+    if (trackIds.isEmpty()) {
+      return 0;
+    }
+    ZoneId zone = radioTimeConfig.getRadioZoneId();
+    OffsetDateTime tail = tailCursor.acquire(OffsetDateTime.now(zone));
+    return insertAutofill(tail, trackIds, until, null);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<ScheduleGap> findGaps(OffsetDateTime from, OffsetDateTime to, int minSeconds) {
+    List<ScheduleGap> gaps = new ArrayList<>();
+    OffsetDateTime cursor = from;
+    for (Object[] slot : scheduleEntryRepository.findSlotTimesBetween(from, to)) {
+      OffsetDateTime start = (OffsetDateTime) slot[0];
+      OffsetDateTime end = (OffsetDateTime) slot[1];
+      addGap(gaps, cursor, start, minSeconds);
+      if (end.isAfter(cursor)) {
+        cursor = end;
+      }
+    }
+    // хвост после последнего слота — не дыра, его заполняет lookahead
+    if (cursor.isBefore(to) && scheduleEntryRepository.existsByStartTimeGreaterThanEqual(to)) {
+      addGap(gaps, cursor, to, minSeconds);
+    }
+    return gaps;
+  }
+
+  @Override
+  public int fillGapWithAutofill(
+      OffsetDateTime gapStart, OffsetDateTime gapEnd, List<Long> trackIds) {
+    if (trackIds.isEmpty() || scheduleEntryRepository.existsOverlap(gapStart, gapEnd)) {
+      return 0;
+    }
+    return insertAutofill(gapStart, trackIds, gapEnd, gapEnd);
+  }
+
+  /**
+   * Locks the tail, then drops the autofill queued after the last programmed slot so a manual
+   * append takes its place. Deleting under the lock also catches autofill that a lookahead fill
+   * holding the cursor commits while we wait for it.
+   */
+  private OffsetDateTime acquireTailDroppingAutofill(OffsetDateTime now) {
+    OffsetDateTime tail = tailCursor.acquire(now);
+    if (scheduleEntryRepository.deleteTailAutofillStartingAfter(now) == 0) {
+      return tail;
+    }
+    tailCursor.invalidate();
+    return tailCursor.peek(now);
+  }
+
+  private static void addGap(
+      List<ScheduleGap> gaps, OffsetDateTime start, OffsetDateTime end, int minSeconds) {
+    if (Duration.between(start, end).getSeconds() >= Math.max(minSeconds, 1)) {
+      gaps.add(new ScheduleGap(start, end));
+    }
+  }
+
+  /**
+   * Inserts the tracks back to back from {@code from} while the next one starts before {@code
+   * until}; with {@code hardEnd} a track that would end after it is skipped. One insert and one
+   * {@link ScheduleUpdatedEvent}.
+   */
+  private int insertAutofill(
+      OffsetDateTime from, List<Long> trackIds, OffsetDateTime until, OffsetDateTime hardEnd) {
+    Map<Long, Integer> durations = new HashMap<>();
+    for (Object[] row : trackRepository.findDurationsByIdIn(new HashSet<>(trackIds))) {
+      durations.put(((Number) row[0]).longValue(), (Integer) row[1]);
+    }
+
+    ZoneId zone = radioTimeConfig.getRadioZoneId();
+    // вставляем с точностью до мс: округляем начало вверх, чтобы не залезть на предыдущий слот
+    Instant exact = from.toInstant();
+    Instant millis = exact.truncatedTo(ChronoUnit.MILLIS);
+    OffsetDateTime start =
+        OffsetDateTime.ofInstant(millis.equals(exact) ? exact : millis.plusMillis(1), zone);
+    long hardEndMillis = hardEnd == null ? Long.MAX_VALUE : hardEnd.toInstant().toEpochMilli();
+    OffsetDateTime firstStart = start;
+    List<Long> ids = new ArrayList<>();
+    List<Long> starts = new ArrayList<>();
+    List<Long> ends = new ArrayList<>();
+    for (Long trackId : trackIds) {
+      if (!start.isBefore(until)) {
+        break;
+      }
+      Integer duration = durations.get(trackId);
+      if (duration == null || duration <= 0) {
+        // трек удалён или без длительности с момента выбора
+        continue;
+      }
+      OffsetDateTime end = start.plusSeconds(duration);
+      if (end.toInstant().toEpochMilli() > hardEndMillis) {
+        continue;
+      }
+      ids.add(trackId);
+      starts.add(start.toInstant().toEpochMilli());
+      ends.add(end.toInstant().toEpochMilli());
+      start = end;
+    }
+    if (ids.isEmpty()) {
+      return 0;
+    }
+
+    scheduleEntryRepository.insertAutofill(
+        ids.toArray(Long[]::new), starts.toArray(Long[]::new), ends.toArray(Long[]::new));
+    if (hardEnd == null) {
+      // дыры заполняются до существующего слота, хвост двигает только добавление в конец
+      tailCursor.advance(start);
+    }
+    eventPublisher.publishEvent(new ScheduleUpdatedEvent(firstStart));
+    return ids.size();
+  }
+
   // ------------------------------------------------------------------------
   // Админские операции над днём: удалить / вставить / поменять / переупорядочить
   // ------------------------------------------------------------------------
@@ -326,9 +470,7 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
     // 2. Вычисляем, откуда начинать (хвост расписания или "прямо сейчас")
     var zone = radioTimeConfig.getRadioZoneId();
     OffsetDateTime now = OffsetDateTime.now(zone);
-    OffsetDateTime maxEndTime = scheduleEntryRepository.findMaxEndTime();
-
-    OffsetDateTime startTime = (maxEndTime == null || maxEndTime.isBefore(now)) ? now : maxEndTime;
+    OffsetDateTime startTime = acquireTailDroppingAutofill(now);
 
     // 3. Берём треки плейлиста в порядке позиций
     List<PlaylistTrack> pts =
@@ -365,8 +507,9 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
       startTime = endTime;
     }
 
-    // 4. Если что-то реально добавили — уведомляем радио-часы
+    // 4. Если что-то реально добавили — сдвигаем хвост и уведомляем радио-часы
     if (firstStartTime != null) {
+      tailCursor.advance(startTime);
       eventPublisher.publishEvent(new ScheduleUpdatedEvent(firstStartTime));
     }
 
@@ -377,6 +520,8 @@ public class ScheduleEntryServiceImpl implements ScheduleEntryService {
   // Общий помощник: пересчитать старт/конец внутри одного дня
   // ------------------------------------------------------------------------
   private void rebuildDaySchedule(LocalDate date, List<ScheduleEntry> entries) {
+    // день мог стать длиннее или короче — хвост пересчитаем по БД
+    tailCursor.invalidate();
     var zone = radioTimeConfig.getRadioZoneId();
     OffsetDateTime currentStart = date.atStartOfDay(zone).toOffsetDateTime();
 
@@ -4,36 +4,62 @@ import com.Tsimur.Dubcast.config.RadioTimeConfig;
 import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
 import com.Tsimur.Dubcast.dto.PlaylistDto;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.response.AdminDaySlotsResponse;
 import com.Tsimur.Dubcast.dto.response.PlaylistScheduleResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.PlaylistMapper;
 import com.Tsimur.Dubcast.model.Playlist;
 import com.Tsimur.Dubcast.radio.autofill.AutoFillStrategy;
+import com.Tsimur.Dubcast.radio.autofill.GapFillPlanner;
+import com.Tsimur.Dubcast.radio.autofill.ScheduleGap;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
 import com.Tsimur.Dubcast.service.RadioProgrammingService;
 import com.Tsimur.Dubcast.service.ScheduleEntryService;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class SoundCloudRadioProgrammingServiceImpl implements RadioProgrammingService {
 
+  // оценка длины трека для размера пачки — с запасом, лишнее за горизонтом отбрасывается
+  private static final int ESTIMATED_TRACK_SECONDS = 180;
+  private static final int MAX_BATCH = 500;
+  private static final int MAX_FILL_ROUNDS = 5;
+  private static final int MAX_DAY_SLOTS_PAGE = 500;
+
   private final PlaylistRepository playlistRepository;
+  private final ScheduleEntryRepository scheduleEntryRepository;
   private final PlaylistMapper playlistMapper;
 
   private final ScheduleEntryService scheduleEntryService;
 
   private final RadioTimeConfig radioTimeConfig;
   private final AutoFillStrategy autoFillStrategy;
+  private final GapFillPlanner gapFillPlanner;
+
+  @Value("${radio.autofill.lookahead.horizon-ms:21600000}")
+  private long lookaheadHorizonMs = 21_600_000L;
+
+  @Value("${radio.autofill.lookahead.refill-below-ms:10800000}")
+  private long refillBelowMs = 10_800_000L;
+
+  @Value("${radio.autofill.gaps.min-seconds:30}")
+  private int minGapSeconds = 30;
 
   @Override
   @Transactional
@@ -80,20 +106,36 @@ public class SoundCloudRadioProgrammingServiceImpl implements RadioProgrammingSe
   @Override
   @Transactional(readOnly = true)
   public Page<AdminScheduleSlotDto> getDaySchedule(LocalDate date, Pageable pageable) {
-    Page<ScheduleEntryDto> page = scheduleEntryService.getDayPage(date, pageable);
+    ZoneId zone = radioTimeConfig.getRadioZoneId();
+    OffsetDateTime from = date.atStartOfDay(zone).toOffsetDateTime();
+    // строки собирает сам запрос: трек и имя плейлиста приходят join'ом
+    return scheduleEntryRepository
+        .findAdminSlotPage(from, from.plusDays(1), pageable)
+        .map(slot -> inRadioZone(slot, zone));
+  }
 
-    // заранее вытаскиваем имена плейлистов, чтобы не делать N+1
-    Set<Long> playlistIds =
-        page.stream()
-            .map(ScheduleEntryDto::getPlaylistId)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
+  @Override
+  @Transactional(readOnly = true)
+  public AdminDaySlotsResponse getDaySlots(LocalDate date, OffsetDateTime after, int size) {
+    ZoneId zone = radioTimeConfig.getRadioZoneId();
+    OffsetDateTime from = date.atStartOfDay(zone).toOffsetDateTime();
+    OffsetDateTime to = from.plusDays(1);
+    int limit = Math.min(Math.max(size, 1), MAX_DAY_SLOTS_PAGE);
+    // на одну строку больше — так узнаём, есть ли следующая страница, без count
+    Pageable window = PageRequest.of(0, limit + 1);
 
-    Map<Long, String> playlistNames =
-        playlistRepository.findAllById(playlistIds).stream()
-            .collect(Collectors.toMap(Playlist::getId, Playlist::getName));
+    List<AdminScheduleSlotDto> rows =
+        after == null || after.isBefore(from)
+            ? scheduleEntryRepository.findAdminSlotsFrom(from, to, window)
+            : scheduleEntryRepository.findAdminSlotsAfter(after, to, window);
+    boolean hasMore = rows.size() > limit;
+    List<AdminScheduleSlotDto> slots = hasMore ? rows.subList(0, limit) : rows;
+    slots.forEach(slot -> inRadioZone(slot, zone));
 
-    return page.map(se -> toAdminSlotDto(se, playlistNames));
+    return AdminDaySlotsResponse.builder()
+        .slots(slots)
+        .nextAfter(hasMore ? slots.get(slots.size() - 1).getStartTime() : null)
+        .build();
   }
 
   @Override
@@ -106,14 +148,14 @@ public class SoundCloudRadioProgrammingServiceImpl implements RadioProgrammingSe
   @Transactional
   public AdminScheduleSlotDto insertTrackIntoDay(LocalDate date, Long trackId, int position) {
     ScheduleEntryDto se = scheduleEntryService.insertTrackIntoDay(date, trackId, position);
-    return toAdminSlotDto(se, null);
+    return toAdminSlotDto(se);
   }
 
   @Override
   @Transactional
   public AdminScheduleSlotDto changeTrackInSlot(Long slotId, Long newTrackId) {
     ScheduleEntryDto se = scheduleEntryService.changeTrackInSlot(slotId, newTrackId);
-    return toAdminSlotDto(se, null);
+    return toAdminSlotDto(se);
   }
 
   @Override
@@ -129,33 +171,70 @@ public class SoundCloudRadioProgrammingServiceImpl implements RadioProgrammingSe
       return false;
     }
 
-    if (scheduleEntryService.getNext(now).isPresent()) {
-      return false;
+    Optional<ScheduleEntryDto> next = scheduleEntryService.getNext(now);
+    if (next.isPresent()) {
+      // тишина до следующего слота — заполняем её по размеру
+      return fillGaps(now, OffsetDateTime.ofInstant(next.get().getStartTime(), now.getOffset()))
+          > 0;
     }
 
-    var trackIdOpt = autoFillStrategy.chooseTrackIdForAutofill(now);
-    if (trackIdOpt.isEmpty()) {
-      return false;
+    return fillAhead(now) > 0;
+  }
+
+  @Override
+  @Transactional
+  public int fillAhead(OffsetDateTime now) {
+    OffsetDateTime until = now.plus(Duration.ofMillis(lookaheadHorizonMs));
+    OffsetDateTime tail = scheduleEntryService.getTailEnd(now);
+    if (!tail.isBefore(now.plus(Duration.ofMillis(refillBelowMs)))) {
+      return 0;
+    }
+
+    int added = 0;
+    // обычно хватает одного раунда: пачка с запасом и одна вставка
+    for (int round = 0; round < MAX_FILL_ROUNDS && tail.isBefore(until); round++) {
+      long missingSeconds = Duration.between(tail, until).getSeconds();
+      int batch = (int) Math.min(missingSeconds / ESTIMATED_TRACK_SECONDS + 1, MAX_BATCH);
+      List<Long> trackIds = autoFillStrategy.chooseTrackIdsForAutofill(now, batch);
+      if (trackIds.isEmpty()) {
+        break;
+      }
+      int inserted = scheduleEntryService.appendAutofillToTail(trackIds, until);
+      if (inserted == 0) {
+        break;
+      }
+      added += inserted;
+      tail = scheduleEntryService.getTailEnd(now);
+    }
+    if (added > 0) {
+      log.info("[AUTOFILL] scheduled {} tracks, schedule now runs until {}", added, tail);
     }
+    return added;
+  }
 
-    scheduleEntryService.appendTrackToTail(trackIdOpt.get());
-    return true;
+  @Override
+  @Transactional
+  public int fillGaps(OffsetDateTime from, OffsetDateTime to) {
+    int added = 0;
+    for (ScheduleGap gap : scheduleEntryService.findGaps(from, to, minGapSeconds)) {
+      List<Long> trackIds = gapFillPlanner.plan(from, gap.seconds());
+      if (!trackIds.isEmpty()) {
+        added += scheduleEntryService.fillGapWithAutofill(gap.start(), gap.end(), trackIds);
+      }
+    }
+    if (added > 0) {
+      log.info("[AUTOFILL] filled holes between {} and {} with {} tracks", from, to, added);
+    }
+    return added;
   }
 
-  private AdminScheduleSlotDto toAdminSlotDto(
-      ScheduleEntryDto se, Map<Long, String> playlistNamesCache) {
+  private AdminScheduleSlotDto toAdminSlotDto(ScheduleEntryDto se) {
     var zone = radioTimeConfig.getRadioZoneId();
 
     Long playlistId = se.getPlaylistId();
-    String playlistName = null;
-
-    if (playlistId != null) {
-      if (playlistNamesCache != null && playlistNamesCache.containsKey(playlistId)) {
-        playlistName = playlistNamesCache.get(playlistId);
-      } else {
-        playlistName = playlistRepository.findById(playlistId).map(Playlist::getName).orElse(null);
-      }
-    }
+    // только имя, без загрузки плейлиста целиком
+    String playlistName =
+        playlistId == null ? null : playlistRepository.findNameById(playlistId).orElse(null);
 
     return AdminScheduleSlotDto.builder()
         .id(se.getId())
@@ -168,4 +247,10 @@ public class SoundCloudRadioProgrammingServiceImpl implements RadioProgrammingSe
         .endTime(OffsetDateTime.ofInstant(se.getEndTime(), zone))
         .build();
   }
+
+  private static AdminScheduleSlotDto inRadioZone(AdminScheduleSlotDto slot, ZoneId zone) {
+    slot.setStartTime(slot.getStartTime().atZoneSameInstant(zone).toOffsetDateTime());
+    slot.setEndTime(slot.getEndTime().atZoneSameInstant(zone).toOffsetDateTime());
+    return slot;
+  }
 }
@@ -1,12 +1,23 @@
 package com.Tsimur.Dubcast.service.impl;
 
+import com.Tsimur.Dubcast.exception.type.SoundcloudUnavailableException;
 import com.Tsimur.Dubcast.service.SoundcloudApiClient;
+import com.Tsimur.Dubcast.service.SoundcloudClientIdProvider;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudLookupCache;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudResilience;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -15,45 +26,107 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Slf4j
 public class SoundcloudApiClientImpl implements SoundcloudApiClient {
 
+  @Qualifier("soundcloudRestTemplate")
   private final RestTemplate restTemplate;
-  private final ObjectMapper objectMapper;
 
-  @Value("${soundcloud.client-id}")
-  private String clientId;
+  private final ObjectMapper objectMapper;
+  private final SoundcloudLookupCache lookupCache;
+  private final SoundcloudClientIdProvider clientIdProvider;
+  private final SoundcloudResilience resilience;
 
   @Value("${soundcloud.api-base-url}")
   private String apiBaseUrl;
 
   @Override
   public JsonNode getTrack(long id) {
-    String url =
-        UriComponentsBuilder.fromHttpUrl(apiBaseUrl + "/tracks/" + id)
-            .queryParam("client_id", clientId)
-            .toUriString();
+    UriComponentsBuilder url = UriComponentsBuilder.fromHttpUrl(apiBaseUrl + "/tracks/" + id);
 
     try {
-      String json = restTemplate.getForObject(url, String.class);
+      String json = getWithClientId("get-track", url);
       return objectMapper.readTree(json);
+    } catch (SoundcloudUnavailableException e) {
+      throw e;
     } catch (Exception e) {
       log.warn("Failed to call getTrack({})", id, e);
-      throw new RuntimeException("SoundCloud getTrack failed: " + url, e);
+      throw new RuntimeException("SoundCloud getTrack failed: " + url.toUriString(), e);
+    }
+  }
+
+  @Override
+  public List<JsonNode> getTracks(Collection<Long> ids) {
+    if (ids == null || ids.isEmpty()) {
+      return List.of();
+    }
+    String joined = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    UriComponentsBuilder url =
+        UriComponentsBuilder.fromHttpUrl(apiBaseUrl + "/tracks").queryParam("ids", joined);
+
+    try {
+      String json = getWithClientId("get-tracks", url);
+      JsonNode root = objectMapper.readTree(json);
+      List<JsonNode> tracks = new ArrayList<>();
+      if (root != null && root.isArray()) {
+        root.forEach(tracks::add);
+      }
+      return tracks;
+    } catch (SoundcloudUnavailableException e) {
+      throw e;
+    } catch (Exception e) {
+      log.warn("Failed to call getTracks({} ids)", ids.size(), e);
+      throw new RuntimeException("SoundCloud getTracks failed: " + url.toUriString(), e);
     }
   }
 
   @Override
   public JsonNode resolveByUrl(String trackUrl) {
-    String url =
-        UriComponentsBuilder.fromHttpUrl(apiBaseUrl + "/resolve")
-            .queryParam("url", trackUrl)
-            .queryParam("client_id", clientId)
-            .toUriString();
+    return lookupCache.get(
+        SoundcloudLookupCache.Region.RESOLVE, trackUrl, () -> fetchResolve(trackUrl));
+  }
+
+  private JsonNode fetchResolve(String trackUrl) {
+    UriComponentsBuilder url =
+        UriComponentsBuilder.fromHttpUrl(apiBaseUrl + "/resolve").queryParam("url", trackUrl);
 
     try {
-      String json = restTemplate.getForObject(url, String.class);
+      String json = getWithClientId("resolve", url);
       return objectMapper.readTree(json);
+    } catch (SoundcloudUnavailableException e) {
+      throw e;
     } catch (Exception e) {
       log.warn("Failed to resolve url={}", trackUrl, e);
-      throw new RuntimeException("SoundCloud resolve failed: " + url, e);
+      throw new RuntimeException("SoundCloud resolve failed: " + url.toUriString(), e);
+    }
+  }
+
+  /**
+   * GET with the current client_id appended. On 401/403 the id is reported as rejected and the
+   * request is retried once with the refreshed one. Each request goes through {@link
+   * SoundcloudResilience}.
+   */
+  private String getWithClientId(String operation, UriComponentsBuilder url) {
+    String clientId = clientIdProvider.getClientId();
+    try {
+      return get(operation, withClientId(url, clientId));
+    } catch (HttpClientErrorException e) {
+      if (!isAuthFailure(e)) {
+        throw e;
+      }
+      log.warn("SoundCloud rejected client_id ({}), retrying once", e.getStatusCode());
+      String refreshed = clientIdProvider.refreshAfterRejection(clientId);
+      return get(operation, withClientId(url, refreshed));
     }
   }
+
+  private String get(String operation, String url) {
+    return resilience.call(operation, () -> restTemplate.getForObject(url, String.class));
+  }
+
+  private static String withClientId(UriComponentsBuilder url, String clientId) {
+    return url.cloneBuilder().queryParam("client_id", clientId).toUriString();
+  }
+
+  private static boolean isAuthFailure(HttpClientErrorException e) {
+    int status = e.getStatusCode().value();
+    return status == HttpStatus.UNAUTHORIZED.value() || status == HttpStatus.FORBIDDEN.value();
+  }
 }
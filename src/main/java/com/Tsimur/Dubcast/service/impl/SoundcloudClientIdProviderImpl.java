@@ -1,20 +1,79 @@
 package com.Tsimur.Dubcast.service.impl;
 
+import com.Tsimur.Dubcast.scraper.PageScraping;
+import com.Tsimur.Dubcast.scraper.PlaywrightBrowserPool;
 import com.Tsimur.Dubcast.service.SoundcloudClientIdProvider;
-import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.LoadState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Keeps a SoundCloud client_id in memory. Starts from {@code soundcloud.client-id} and re-resolves
+ * it via Playwright in the background once it is older than {@code
+ * soundcloud.client-id-refresh.max-age-ms}, so API calls never wait for a browser launch. A
+ * rejected id is dropped and callers wait on one shared resolution instead of each launching a
+ * browser.
+ */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class SoundcloudClientIdProviderImpl implements SoundcloudClientIdProvider {
 
+  private final PlaywrightBrowserPool browserPool;
+
   private final AtomicReference<String> cachedClientId = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+  private final ExecutorService refreshExecutor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            Thread t = new Thread(r, "sc-client-id-refresh");
+            t.setDaemon(true);
+            return t;
+          });
+
+  private volatile long resolvedAtMillis;
+  private volatile long lastFailureMillis;
+
+  @Value("${soundcloud.client-id:}")
+  private String configuredClientId;
+
+  @Value("${soundcloud.client-id-refresh.max-age-ms:21600000}")
+  private long maxAgeMillis = 21_600_000;
+
+  @Value("${soundcloud.client-id-refresh.failure-backoff-ms:300000}")
+  private long failureBackoffMillis = 300_000;
+
+  @Value("${soundcloud.client-id-refresh.await-timeout-ms:60000}")
+  private long awaitTimeoutMillis = 60_000;
+
+  @PostConstruct
+  public void seed() {
+    if (configuredClientId != null && !configuredClientId.isBlank()) {
+      // resolvedAt = 0: настроенный id сразу считается устаревшим и перепроверяется в фоне
+      cachedClientId.compareAndSet(null, configuredClientId.trim());
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    refreshExecutor.shutdownNow();
+  }
 
   @Override
   public String getClientId() {
@@ -22,67 +81,125 @@ public class SoundcloudClientIdProviderImpl implements SoundcloudClientIdProvide
     if (existing != null) {
       return existing;
     }
+    return await(refreshAsync());
+  }
+
+  @Override
+  public void invalidate() {
+    cachedClientId.set(null);
+  }
 
-    synchronized (this) {
-      existing = cachedClientId.get();
-      if (existing != null) {
-        return existing;
+  @Override
+  public String refreshAfterRejection(String rejectedClientId) {
+    cachedClientId.compareAndSet(rejectedClientId, null);
+    String current = cachedClientId.get();
+    if (current != null) {
+      // другой поток уже успел получить новый id
+      return current;
+    }
+    log.warn("[SC-CLIENT-ID] client_id rejected by SoundCloud, resolving a new one");
+    return await(refreshAsync());
+  }
+
+  /** Proactive refresh: re-resolves a stale id in the background, backing off after failures. */
+  @Scheduled(
+      fixedDelayString = "${soundcloud.client-id-refresh.check-interval-ms:60000}",
+      initialDelayString = "${soundcloud.client-id-refresh.initial-delay-ms:10000}")
+  public void refreshIfStale() {
+    long now = System.currentTimeMillis();
+    if (inFlight.get() != null || now - lastFailureMillis < failureBackoffMillis) {
+      return;
+    }
+    if (cachedClientId.get() != null && now - resolvedAtMillis < maxAgeMillis) {
+      return;
+    }
+    refreshAsync();
+  }
+
+  /** Starts a resolution unless one is already running; all callers get the same future. */
+  CompletableFuture<String> refreshAsync() {
+    while (true) {
+      CompletableFuture<String> running = inFlight.get();
+      if (running != null) {
+        return running;
       }
+      CompletableFuture<String> future = new CompletableFuture<>();
+      if (!inFlight.compareAndSet(null, future)) {
+        continue;
+      }
+      try {
+        refreshExecutor.execute(() -> resolveInto(future));
+      } catch (RuntimeException e) {
+        inFlight.set(null);
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+  }
 
+  private void resolveInto(CompletableFuture<String> future) {
+    try {
       String resolved = resolveClientIdWithPlaywright();
       cachedClientId.set(resolved);
-      return resolved;
+      resolvedAtMillis = System.currentTimeMillis();
+      inFlight.set(null);
+      future.complete(resolved);
+    } catch (RuntimeException e) {
+      lastFailureMillis = System.currentTimeMillis();
+      inFlight.set(null);
+      future.completeExceptionally(e);
     }
   }
 
-  @Override
-  public void invalidate() {
-    cachedClientId.set(null);
+  private String await(CompletableFuture<String> future) {
+    try {
+      return future.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("Timed out waiting for SoundCloud client_id", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to resolve SoundCloud client_id", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for SoundCloud client_id", e);
+    }
   }
 
   private String resolveClientIdWithPlaywright() {
     log.info("[SC-CLIENT-ID] Resolving SoundCloud client_id via Playwright...");
 
-    try (Playwright playwright = Playwright.create()) {
-      Browser browser =
-          playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
-
-      BrowserContext context =
-          browser.newContext(
-              new Browser.NewContextOptions()
-                  .setUserAgent(
-                      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
-                          + "AppleWebKit/537.36 (KHTML, like Gecko) "
-                          + "Chrome/120.0.0.0 Safari/537.36"));
-
-      Page page = context.newPage();
-
-      final String[] foundClientId = {null};
-
-      page.onRequest(
-          request -> {
-            String url = request.url();
-            if (url.contains("api-v2.soundcloud.com") && url.contains("client_id=")) {
-              String clientId = extractClientIdFromUrl(url);
-              if (clientId != null) {
-                foundClientId[0] = clientId;
-                log.info("[SC-CLIENT-ID] Found client_id = {}", clientId);
-              }
-            }
-          });
-
-      page.navigate("https://soundcloud.com/discover");
-      page.waitForLoadState(LoadState.NETWORKIDLE);
-      page.waitForTimeout(5000); // даем странице время пострелять запросами
-
-      browser.close();
-
-      if (foundClientId[0] == null) {
+    try {
+      String clientId =
+          browserPool.withPage(
+              page -> {
+                final String[] foundClientId = {null};
+
+                page.onRequest(
+                    request -> {
+                      String url = request.url();
+                      if (url.contains("api-v2.soundcloud.com") && url.contains("client_id=")) {
+                        String id = extractClientIdFromUrl(url);
+                        if (id != null) {
+                          foundClientId[0] = id;
+                          log.info("[SC-CLIENT-ID] Found client_id = {}", id);
+                        }
+                      }
+                    });
+
+                // нужны только XHR к api-v2, тяжёлые ресурсы не грузим
+                PageScraping.blockHeavyResources(page);
+                page.navigate("https://soundcloud.com/discover");
+                page.waitForLoadState(LoadState.NETWORKIDLE);
+                page.waitForTimeout(5000); // даем странице время пострелять запросами
+
+                return foundClientId[0];
+              });
+
+      if (clientId == null) {
         throw new IllegalStateException(
             "Could not resolve SoundCloud client_id from network requests");
       }
 
-      return foundClientId[0];
+      return clientId;
     } catch (Exception e) {
       log.error("[SC-CLIENT-ID] Failed to resolve client_id", e);
       throw new RuntimeException("Failed to resolve SoundCloud client_id", e);
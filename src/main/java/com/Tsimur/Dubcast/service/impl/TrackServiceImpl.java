@@ -1,37 +1,68 @@
 package com.Tsimur.Dubcast.service.impl;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
+import com.Tsimur.Dubcast.dto.response.SoundcloudOEmbedResponse;
 import com.Tsimur.Dubcast.exception.type.DuplicateTrackException;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.TrackMapper;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.autofill.AutofillTrackIndex;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
 import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.service.ParserService;
 import com.Tsimur.Dubcast.service.TrackService;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.OptionalLong;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class TrackServiceImpl implements TrackService {
 
+  // сколько раз перевыбираем, если трек из индекса уже удалён на другом инстансе
+  private static final int RANDOM_PICK_ATTEMPTS = 3;
+
   private final TrackRepository trackRepository;
   private final TrackMapper trackMapper;
+  private final ParserService parserService;
+  private final AutofillTrackIndex autofillTrackIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
+  /**
+   * Runs without a surrounding transaction: the oEmbed request is a blocking HTTP call and must not
+   * hold a DB connection. The insert commits in the repository's own transaction.
+   */
   @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public TrackDto create(TrackDto dto) {
     Track entity = trackMapper.toEntity(dto);
     if (trackRepository.existsByScUrl(dto.getSoundcloudUrl())) {
       throw new DuplicateTrackException(
           "Track with url: " + dto.getSoundcloudUrl() + " already exists");
     }
+    // oEmbed обычно уже в кэше после парсинга трека в админке
+    SoundcloudOEmbedResponse oEmbed = tryFetchOEmbed(entity.getScUrl());
+    if (oEmbed != null) {
+      entity.setEmbedCode(oEmbed.getHtml());
+      if (entity.getArtworkUrl() == null) {
+        entity.setArtworkUrl(oEmbed.getThumbnail_url());
+      }
+    }
     Track saved = trackRepository.save(entity);
+    eventPublisher.publishEvent(
+        TracksChangedEvent.saved(saved.getId(), saved.getScUrl(), saved.getDurationSeconds()));
     return trackMapper.toDto(saved);
   }
 
@@ -49,14 +80,33 @@ public class TrackServiceImpl implements TrackService {
     return trackMapper.toDtoList(trackRepository.findAll());
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public KeysetPageResponse<TrackDto, Long> getPage(Long after, int size) {
+    // на одну строку больше — так узнаём, есть ли следующая страница, без count
+    Pageable window = PageRequest.of(0, KeysetPageResponse.limit(size) + 1);
+    List<Track> rows =
+        after == null
+            ? trackRepository.findAllByOrderByIdAsc(window)
+            : trackRepository.findByIdGreaterThanOrderByIdAsc(after, window);
+    return KeysetPageResponse.of(trackMapper.toDtoList(rows), size, TrackDto::getId);
+  }
+
   @Override
   public TrackDto update(Long id, TrackDto dto) {
     Track existing =
         trackRepository.findById(id).orElseThrow(() -> NotFoundException.of("Track", "id", id));
 
+    String oldUrl = existing.getScUrl();
     trackMapper.updateEntityFromDto(dto, existing);
+    if (!Objects.equals(oldUrl, existing.getScUrl())) {
+      // плеер старого трека больше не подходит, подтянется заново при запросе
+      existing.setEmbedCode(null);
+    }
 
     Track saved = trackRepository.save(existing);
+    eventPublisher.publishEvent(
+        TracksChangedEvent.saved(saved.getId(), saved.getScUrl(), saved.getDurationSeconds()));
     return trackMapper.toDto(saved);
   }
 
@@ -66,20 +116,67 @@ public class TrackServiceImpl implements TrackService {
       throw NotFoundException.of("Track", "id", id);
     }
     trackRepository.deleteById(id);
+    eventPublisher.publishEvent(TracksChangedEvent.deleted(id));
   }
 
   @Override
   @Transactional(readOnly = true)
   public Optional<TrackDto> getRandomTrack() {
-    long total = trackRepository.count();
-    if (total == 0) {
-      return Optional.empty();
+    for (int attempt = 0; attempt < RANDOM_PICK_ATTEMPTS; attempt++) {
+      OptionalLong id = autofillTrackIndex.sample();
+      if (id.isEmpty()) {
+        return Optional.empty();
+      }
+      Optional<Track> track = trackRepository.findById(id.getAsLong());
+      if (track.isPresent()) {
+        return track.map(trackMapper::toDto);
+      }
+      autofillTrackIndex.evict(id.getAsLong());
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public String getEmbedCode(Long trackId) {
+    Track track =
+        trackRepository
+            .findById(trackId)
+            .orElseThrow(() -> NotFoundException.of("Track", "id", trackId));
+    if (track.getEmbedCode() != null) {
+      return track.getEmbedCode();
     }
 
-    int index = ThreadLocalRandom.current().nextInt((int) total);
+    SoundcloudOEmbedResponse oEmbed = parserService.fetchOEmbed(track.getScUrl());
+    if (oEmbed == null || oEmbed.getHtml() == null) {
+      // пустой ответ не сохраняем: при следующем запросе попробуем ещё раз
+      throw new NotFoundException("Player HTML not available for track " + trackId);
+    }
+    trackRepository.updateEmbed(trackId, oEmbed.getHtml(), oEmbed.getThumbnail_url());
+    return oEmbed.getHtml();
+  }
 
-    Page<Track> page = trackRepository.findAll(PageRequest.of(index, 1));
+  @Override
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public int storeMissingEmbedCodes(Long playlistId) {
+    int stored = 0;
+    for (Track track : trackRepository.findAllWithoutEmbedCodeByPlaylistId(playlistId)) {
+      SoundcloudOEmbedResponse oEmbed = tryFetchOEmbed(track.getScUrl());
+      if (oEmbed != null && oEmbed.getHtml() != null) {
+        trackRepository.updateEmbed(track.getId(), oEmbed.getHtml(), oEmbed.getThumbnail_url());
+        stored++;
+      }
+    }
+    return stored;
+  }
 
-    return page.stream().findFirst().map(trackMapper::toDto);
+  private SoundcloudOEmbedResponse tryFetchOEmbed(String url) {
+    try {
+      return parserService.fetchOEmbed(url);
+    } catch (RuntimeException e) {
+      log.warn(
+          "[TRACK] oEmbed fetch failed, player html will be fetched on demand. url={}", url, e);
+      return null;
+    }
   }
 }
@@ -1,15 +1,22 @@
 package com.Tsimur.Dubcast.service.impl;
 
 import com.Tsimur.Dubcast.dto.UserDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.dto.response.UserProfileResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.UserMapper;
+import com.Tsimur.Dubcast.model.Role;
 import com.Tsimur.Dubcast.model.User;
 import com.Tsimur.Dubcast.repository.UserRepository;
+import com.Tsimur.Dubcast.security.jwt.UserAuthChangedEvent;
 import com.Tsimur.Dubcast.service.UserService;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,6 +30,7 @@ public class UserServiceImpl implements UserService {
   private final UserRepository userRepository;
   private final UserMapper userMapper;
   private final PasswordEncoder passwordEncoder;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Override
   public UserDto create(UserDto dto, String rawPassword) {
@@ -53,6 +61,18 @@ public class UserServiceImpl implements UserService {
     return userMapper.toDtoList(userRepository.findAll());
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public KeysetPageResponse<UserDto, UUID> getPage(UUID after, int size) {
+    // на одну строку больше — так узнаём, есть ли следующая страница, без count
+    Pageable window = PageRequest.of(0, KeysetPageResponse.limit(size) + 1);
+    List<User> rows =
+        after == null
+            ? userRepository.findAllByOrderByIdAsc(window)
+            : userRepository.findByIdGreaterThanOrderByIdAsc(after, window);
+    return KeysetPageResponse.of(userMapper.toDtoList(rows), size, UserDto::getId);
+  }
+
   @Override
   public UserDto update(UUID id, UserDto dto) {
     User existing =
@@ -64,9 +84,15 @@ public class UserServiceImpl implements UserService {
       throw new IllegalArgumentException("User with email " + dto.getEmail() + " already exists");
     }
 
+    String oldEmail = existing.getEmail();
+    Role oldRole = existing.getRole();
     userMapper.updateEntityFromDto(dto, existing);
 
     User saved = userRepository.save(existing);
+    // токен несёт email и роль: правка имени или bio живые токены не отзывает
+    if (!Objects.equals(oldEmail, existing.getEmail()) || oldRole != existing.getRole()) {
+      eventPublisher.publishEvent(new UserAuthChangedEvent(id));
+    }
     return userMapper.toDto(saved);
   }
 
@@ -76,6 +102,7 @@ public class UserServiceImpl implements UserService {
       throw NotFoundException.of("User", "id", id);
     }
     userRepository.deleteById(id);
+    eventPublisher.publishEvent(new UserAuthChangedEvent(id));
   }
 
   @Override
@@ -85,6 +112,7 @@ public class UserServiceImpl implements UserService {
 
     user.setPassword(passwordEncoder.encode(rawPassword));
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserAuthChangedEvent(id));
   }
 
   @Override
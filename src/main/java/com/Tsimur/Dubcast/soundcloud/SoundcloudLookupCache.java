@@ -0,0 +1,270 @@
+package com.Tsimur.Dubcast.soundcloud;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Bounded LRU + TTL cache of SoundCloud lookups ({@code /resolve}, oEmbed) keyed by the normalized
+ * track URL, so repeated parse/duration requests from the admin UI do not go back to SoundCloud.
+ *
+ * <p>Client errors (404 of a private or deleted track and the like) are remembered for {@code
+ * soundcloud.cache.negative-ttl-ms} and rethrown without a request; timeouts, 5xx, 401/403 (stale
+ * client_id) and 429 are not cached. With {@code soundcloud.cache.disk-path} set, live entries are
+ * written to that file on shutdown and loaded back on startup.
+ */
+@Component
+@Slf4j
+public class SoundcloudLookupCache {
+
+  public enum Region {
+    RESOLVE,
+    OEMBED
+  }
+
+  private record Entry(JsonNode value, String failure, long expiresAtMillis) {}
+
+  record DiskEntry(String key, JsonNode value, long expiresAtMillis) {}
+
+  private final Map<String, Entry> entries;
+  private final ObjectMapper objectMapper;
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+  private final Path diskPath;
+
+  private final Map<Region, Counter> hits = new EnumMap<>(Region.class);
+  private final Map<Region, Counter> negativeHits = new EnumMap<>(Region.class);
+  private final Map<Region, Counter> misses = new EnumMap<>(Region.class);
+
+  public SoundcloudLookupCache(
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${soundcloud.cache.max-size:2000}") int maxSize,
+      @Value("${soundcloud.cache.ttl-ms:21600000}") long ttlMillis,
+      @Value("${soundcloud.cache.negative-ttl-ms:60000}") long negativeTtlMillis,
+      @Value("${soundcloud.cache.disk-path:}") String diskPath) {
+    this.objectMapper = objectMapper;
+    this.ttlMillis = ttlMillis;
+    this.negativeTtlMillis = negativeTtlMillis;
+    this.diskPath = diskPath == null || diskPath.isBlank() ? null : Path.of(diskPath);
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+          }
+        };
+
+    for (Region region : Region.values()) {
+      String tag = region.name().toLowerCase(Locale.ROOT);
+      hits.put(region, counter(meterRegistry, tag, "hit"));
+      negativeHits.put(region, counter(meterRegistry, tag, "negative_hit"));
+      misses.put(region, counter(meterRegistry, tag, "miss"));
+    }
+    Gauge.builder("soundcloud.cache.size", this, SoundcloudLookupCache::size)
+        .description("Entries in the SoundCloud resolve/oEmbed cache")
+        .register(meterRegistry);
+  }
+
+  private static Counter counter(MeterRegistry registry, String region, String result) {
+    return Counter.builder("soundcloud.cache.requests")
+        .description("SoundCloud resolve/oEmbed cache lookups")
+        .tag("region", region)
+        .tag("result", result)
+        .register(registry);
+  }
+
+  /**
+   * Returns the cached value for {@code url} or calls {@code loader}. A remembered client error is
+   * rethrown as a {@link RuntimeException} with the original message.
+   */
+  public JsonNode get(Region region, String url, Supplier<JsonNode> loader) {
+    String key = region.name() + "|" + normalizeUrl(url);
+    Entry cached = lookup(key);
+    if (cached != null) {
+      if (cached.value() == null) {
+        negativeHits.get(region).increment();
+        throw new RuntimeException(cached.failure());
+      }
+      hits.get(region).increment();
+      return cached.value();
+    }
+
+    misses.get(region).increment();
+    try {
+      JsonNode value = loader.get();
+      if (value != null) {
+        store(key, new Entry(value, null, System.currentTimeMillis() + ttlMillis));
+      }
+      return value;
+    } catch (RuntimeException e) {
+      if (negativeTtlMillis > 0 && isPermanentFailure(e)) {
+        store(key, new Entry(null, e.getMessage(), System.currentTimeMillis() + negativeTtlMillis));
+      }
+      throw e;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * {@code https://soundcloud.com/<path>} without query, fragment, trailing slash and {@code
+   * www.}/{@code m.} prefixes, lower-cased (SoundCloud permalinks are case-insensitive).
+   */
+  public static String normalizeUrl(String url) {
+    if (url == null) {
+      return "";
+    }
+    String s = url.trim();
+    int cut = s.length();
+    for (char c : new char[] {'?', '#'}) {
+      int idx = s.indexOf(c);
+      if (idx >= 0 && idx < cut) {
+        cut = idx;
+      }
+    }
+    s = s.substring(0, cut);
+    try {
+      URI uri = URI.create(s);
+      String host = uri.getHost();
+      if (host == null) {
+        return s.toLowerCase(Locale.ROOT);
+      }
+      host = host.toLowerCase(Locale.ROOT);
+      if (host.startsWith("www.")) {
+        host = host.substring(4);
+      } else if (host.startsWith("m.")) {
+        host = host.substring(2);
+      }
+      String path = uri.getPath() == null ? "" : uri.getPath();
+      while (path.endsWith("/")) {
+        path = path.substring(0, path.length() - 1);
+      }
+      return "https://" + host + path.toLowerCase(Locale.ROOT);
+    } catch (IllegalArgumentException e) {
+      return s.toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private static boolean isPermanentFailure(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof HttpClientErrorException http) {
+        // 401/403 — протухший client_id, а не проблема конкретного URL
+        HttpStatus status = HttpStatus.resolve(http.getStatusCode().value());
+        return status != HttpStatus.UNAUTHORIZED
+            && status != HttpStatus.FORBIDDEN
+            && status != HttpStatus.TOO_MANY_REQUESTS;
+      }
+    }
+    return false;
+  }
+
+  private Entry lookup(String key) {
+    long now = System.currentTimeMillis();
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAtMillis() <= now) {
+        entries.remove(key);
+        return null;
+      }
+      return entry;
+    }
+  }
+
+  private void store(String key, Entry entry) {
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+  }
+
+  // --- disk tier -----------------------------------------------------------
+
+  @PostConstruct
+  public void loadFromDisk() {
+    if (diskPath == null || !Files.isReadable(diskPath)) {
+      return;
+    }
+    try {
+      List<DiskEntry> saved =
+          objectMapper.readValue(diskPath.toFile(), new TypeReference<List<DiskEntry>>() {});
+      long now = System.currentTimeMillis();
+      int loaded = 0;
+      synchronized (entries) {
+        for (DiskEntry e : saved) {
+          if (e.expiresAtMillis() > now && e.value() != null) {
+            entries.put(e.key(), new Entry(e.value(), null, e.expiresAtMillis()));
+            loaded++;
+          }
+        }
+      }
+      log.info("[SC-CACHE] loaded {} entries from {}", loaded, diskPath);
+    } catch (IOException | RuntimeException e) {
+      log.warn("[SC-CACHE] cannot read {}, starting cold", diskPath, e);
+    }
+  }
+
+  @PreDestroy
+  public void saveToDisk() {
+    if (diskPath == null) {
+      return;
+    }
+    List<DiskEntry> snapshot = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    synchronized (entries) {
+      entries.forEach(
+          (key, e) -> {
+            // отрицательные записи короткие — на диск не пишем
+            if (e.value() != null && e.expiresAtMillis() > now) {
+              snapshot.add(new DiskEntry(key, e.value(), e.expiresAtMillis()));
+            }
+          });
+    }
+    try {
+      if (diskPath.getParent() != null) {
+        Files.createDirectories(diskPath.getParent());
+      }
+      Path tmp = diskPath.resolveSibling(diskPath.getFileName() + ".tmp");
+      objectMapper.writeValue(tmp.toFile(), snapshot);
+      Files.move(
+          tmp, diskPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.info("[SC-CACHE] saved {} entries to {}", snapshot.size(), diskPath);
+    } catch (IOException | RuntimeException e) {
+      log.warn("[SC-CACHE] cannot write {}", diskPath, e);
+    }
+  }
+}
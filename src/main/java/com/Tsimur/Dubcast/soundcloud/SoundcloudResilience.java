@@ -0,0 +1,268 @@
+package com.Tsimur.Dubcast.soundcloud;
+
+import com.Tsimur.Dubcast.exception.type.SoundcloudUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Guards every outbound SoundCloud call (api-v2, oEmbed, page scrape):
+ *
+ * <ul>
+ *   <li>bulkhead: at most {@code max-concurrent-calls} in flight, a caller waits at most {@code
+ *       max-wait-ms} for a slot;
+ *   <li>retry: transient failures (I/O, timeouts, 5xx, 429) are retried up to {@code max-attempts}
+ *       times with exponential backoff and full jitter;
+ *   <li>circuit breaker: opens when {@code failure-rate-percent} of the last {@code window-size}
+ *       calls failed transiently, rejects everything for {@code open-ms}, then lets one trial call
+ *       through.
+ * </ul>
+ *
+ * <p>Rejected calls fail fast with {@link SoundcloudUnavailableException}. Other client errors
+ * (404, 401, ...) are passed through untouched and count as successes: SoundCloud did answer.
+ */
+@Component
+@Slf4j
+public class SoundcloudResilience {
+
+  public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final Semaphore bulkhead;
+  private final long maxWaitMillis;
+  private final int maxAttempts;
+  private final long backoffBaseMillis;
+  private final long backoffMaxMillis;
+  private final int minimumCalls;
+  private final int failureRatePercent;
+  private final long openMillis;
+
+  // кольцо последних исходов, true = транзиентная ошибка; всё под this
+  private final boolean[] window;
+  private int windowPos;
+  private int windowCount;
+  private int windowFailures;
+  private CircuitState state = CircuitState.CLOSED;
+  private long openedAtMillis;
+  private boolean trialInFlight;
+
+  public SoundcloudResilience(
+      MeterRegistry meterRegistry,
+      @Value("${soundcloud.resilience.max-concurrent-calls:16}") int maxConcurrentCalls,
+      @Value("${soundcloud.resilience.max-wait-ms:200}") long maxWaitMillis,
+      @Value("${soundcloud.resilience.max-attempts:3}") int maxAttempts,
+      @Value("${soundcloud.resilience.backoff-base-ms:200}") long backoffBaseMillis,
+      @Value("${soundcloud.resilience.backoff-max-ms:2000}") long backoffMaxMillis,
+      @Value("${soundcloud.resilience.window-size:20}") int windowSize,
+      @Value("${soundcloud.resilience.minimum-calls:10}") int minimumCalls,
+      @Value("${soundcloud.resilience.failure-rate-percent:50}") int failureRatePercent,
+      @Value("${soundcloud.resilience.open-ms:30000}") long openMillis) {
+    this.meterRegistry = meterRegistry;
+    this.bulkhead = new Semaphore(Math.max(maxConcurrentCalls, 1), true);
+    this.maxWaitMillis = maxWaitMillis;
+    this.maxAttempts = Math.max(maxAttempts, 1);
+    this.backoffBaseMillis = backoffBaseMillis;
+    this.backoffMaxMillis = backoffMaxMillis;
+    this.window = new boolean[Math.max(windowSize, 1)];
+    this.minimumCalls = Math.max(Math.min(minimumCalls, window.length), 1);
+    this.failureRatePercent = failureRatePercent;
+    this.openMillis = openMillis;
+
+    Gauge.builder("soundcloud.resilience.circuit.state", this, r -> r.getState().ordinal())
+        .description("SoundCloud circuit breaker: 0 closed, 1 open, 2 half-open")
+        .register(meterRegistry);
+    Gauge.builder("soundcloud.resilience.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .description("Free slots for concurrent SoundCloud calls")
+        .register(meterRegistry);
+  }
+
+  /** Runs {@code action} under the bulkhead, retry and circuit breaker. */
+  public <T> T call(String operation, Supplier<T> action) {
+    for (int attempt = 1; ; attempt++) {
+      boolean trial = acquirePermission(operation);
+      if (!enterBulkhead()) {
+        releaseTrial(trial);
+        count(operation, "rejected");
+        throw new SoundcloudUnavailableException(
+            "Too many concurrent SoundCloud calls, rejected " + operation);
+      }
+
+      RuntimeException failure;
+      try {
+        T result = action.get();
+        onResult(false, trial);
+        count(operation, "success");
+        return result;
+      } catch (RuntimeException e) {
+        failure = e;
+      } finally {
+        bulkhead.release();
+      }
+
+      if (!isTransient(failure)) {
+        onResult(false, trial);
+        count(operation, "client_error");
+        throw failure;
+      }
+      onResult(true, trial);
+      count(operation, "failure");
+      if (attempt >= maxAttempts || !sleepBeforeRetry(attempt)) {
+        throw failure;
+      }
+      meterRegistry.counter("soundcloud.resilience.retries", "operation", operation).increment();
+      log.debug("[SC-RESILIENCE] retrying {} (attempt {})", operation, attempt + 1);
+    }
+  }
+
+  public synchronized CircuitState getState() {
+    return state;
+  }
+
+  /** I/O errors, timeouts, 5xx and 429; everything else is an answer from SoundCloud. */
+  static boolean isTransient(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof HttpServerErrorException) {
+        return true;
+      }
+      if (t instanceof HttpClientErrorException http) {
+        return http.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+      }
+      if (t instanceof HttpStatusException http) {
+        return http.getStatusCode() >= 500
+            || http.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value();
+      }
+      if (t instanceof ResourceAccessException
+          || t instanceof UncheckedIOException
+          || t instanceof IOException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // --- circuit breaker -----------------------------------------------------
+
+  private synchronized boolean acquirePermission(String operation) {
+    if (state == CircuitState.OPEN) {
+      if (System.currentTimeMillis() - openedAtMillis < openMillis) {
+        count(operation, "short_circuited");
+        throw new SoundcloudUnavailableException(
+            "SoundCloud circuit is open, skipped " + operation);
+      }
+      state = CircuitState.HALF_OPEN;
+      trialInFlight = false;
+    }
+    if (state == CircuitState.HALF_OPEN) {
+      if (trialInFlight) {
+        count(operation, "short_circuited");
+        throw new SoundcloudUnavailableException(
+            "SoundCloud circuit is half-open, skipped " + operation);
+      }
+      trialInFlight = true;
+      return true;
+    }
+    return false;
+  }
+
+  private synchronized void releaseTrial(boolean trial) {
+    if (trial) {
+      trialInFlight = false;
+    }
+  }
+
+  private synchronized void onResult(boolean failed, boolean trial) {
+    if (trial) {
+      trialInFlight = false;
+      if (failed) {
+        open("half-open trial call failed");
+      } else {
+        state = CircuitState.CLOSED;
+        resetWindow();
+        log.info("[SC-RESILIENCE] circuit closed");
+      }
+      return;
+    }
+    if (state != CircuitState.CLOSED) {
+      // поздний ответ вызова, начатого до открытия
+      return;
+    }
+    if (windowCount == window.length) {
+      if (window[windowPos]) {
+        windowFailures--;
+      }
+    } else {
+      windowCount++;
+    }
+    window[windowPos] = failed;
+    if (failed) {
+      windowFailures++;
+    }
+    windowPos = (windowPos + 1) % window.length;
+
+    if (windowCount >= minimumCalls && windowFailures * 100 >= failureRatePercent * windowCount) {
+      open(windowFailures + " of last " + windowCount + " calls failed");
+    }
+  }
+
+  private void open(String reason) {
+    state = CircuitState.OPEN;
+    openedAtMillis = System.currentTimeMillis();
+    log.warn("[SC-RESILIENCE] circuit opened ({}), fast-failing for {} ms", reason, openMillis);
+    resetWindow();
+  }
+
+  private void resetWindow() {
+    windowPos = 0;
+    windowCount = 0;
+    windowFailures = 0;
+  }
+
+  // --- bulkhead / retry ----------------------------------------------------
+
+  private boolean enterBulkhead() {
+    try {
+      return bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private boolean sleepBeforeRetry(int attempt) {
+    long cap = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt - 1, 20));
+    if (cap <= 0) {
+      return true;
+    }
+    try {
+      // full jitter: повторы разных потоков не приходят пачкой
+      Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void count(String operation, String outcome) {
+    meterRegistry
+        .counter("soundcloud.resilience.calls", "operation", operation, "outcome", outcome)
+        .increment();
+  }
+}
@@ -1,19 +1,41 @@
 package com.Tsimur.Dubcast.websocket;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * The only place chat messages are pushed to {@code /topic/chat}. Runs after the insert is
+ * committed, so subscribers never see a message that could still be rolled back.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class ChatMessageBroadcastListener {
 
+  public static final String CHAT_TOPIC = "/topic/chat";
+
   private final SimpMessagingTemplate messagingTemplate;
+  private final Timer sendToBroadcastTimer;
+
+  public ChatMessageBroadcastListener(
+      SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+    this.messagingTemplate = messagingTemplate;
+    this.sendToBroadcastTimer =
+        Timer.builder("chat.message.broadcast.latency")
+            .description("Time from accepting a chat message to broadcasting it after commit")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+  }
 
   @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
   public void onChatMessageCreated(ChatMessageCreatedEvent event) {
-    messagingTemplate.convertAndSend("/topic/chat", event.message());
+    messagingTemplate.convertAndSend(CHAT_TOPIC, event.message());
+    sendToBroadcastTimer.record(System.nanoTime() - event.acceptedAtNanos(), TimeUnit.NANOSECONDS);
+    log.debug("[WS] Broadcast chat message id={}", event.message().getId());
   }
 }
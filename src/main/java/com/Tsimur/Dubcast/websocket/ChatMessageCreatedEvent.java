@@ -2,4 +2,11 @@ package com.Tsimur.Dubcast.websocket;
 
 import com.Tsimur.Dubcast.dto.ChatMessageDto;
 
-public record ChatMessageCreatedEvent(ChatMessageDto message) {}
+/**
+ * Published once per persisted chat message, from both REST and STOMP ingest.
+ *
+ * @param message the saved message as it will be broadcast
+ * @param acceptedAtNanos {@link System#nanoTime()} when the send was accepted, used for the
+ *     send-to-broadcast latency metric
+ */
+public record ChatMessageCreatedEvent(ChatMessageDto message, long acceptedAtNanos) {}
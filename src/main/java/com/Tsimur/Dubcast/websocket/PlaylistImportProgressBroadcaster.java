@@ -0,0 +1,30 @@
+package com.Tsimur.Dubcast.websocket;
+
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PlaylistImportProgressBroadcaster {
+
+  public static final String TOPIC_PREFIX = "/topic/playlist-imports/";
+
+  private final SimpMessagingTemplate messagingTemplate;
+
+  @EventListener
+  public void onProgress(PlaylistImportProgressEvent event) {
+    PlaylistImportJobDto job = event.job();
+    log.debug(
+        "[WS] import job {} {} {}/{}",
+        job.getId(),
+        job.getStatus(),
+        job.getProcessedTracks(),
+        job.getTotalTracks());
+    messagingTemplate.convertAndSend(TOPIC_PREFIX + job.getId(), job);
+  }
+}
@@ -0,0 +1,6 @@
+package com.Tsimur.Dubcast.websocket;
+
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+
+/** Published after every committed step of a playlist import job. */
+public record PlaylistImportProgressEvent(PlaylistImportJobDto job) {}
@@ -0,0 +1,212 @@
+package com.Tsimur.Dubcast.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/** The SoundCloud client against a local HTTP server standing in for api-v2. */
+class SoundcloudHttpClientConfigTest {
+
+  private static final int MAX_PER_ROUTE = 4;
+
+  private final SoundcloudHttpClientConfig config = new SoundcloudHttpClientConfig();
+
+  private HttpServer server;
+  private String baseUrl;
+  private PoolingHttpClientConnectionManager connectionManager;
+  private CloseableHttpClient httpClient;
+  private RestTemplate restTemplate;
+
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicBoolean servedGzip = new AtomicBoolean();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext(
+        "/tracks/",
+        exchange -> {
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          try {
+            sleep(20);
+            respond(exchange, "{\"id\":1}".getBytes(StandardCharsets.UTF_8), false);
+          } finally {
+            inFlight.decrementAndGet();
+          }
+        });
+    server.createContext(
+        "/gzip",
+        exchange -> {
+          String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+          boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+          servedGzip.set(gzip);
+          respond(exchange, "{\"compressed\":true}".getBytes(StandardCharsets.UTF_8), gzip);
+        });
+    server.createContext(
+        "/slow",
+        exchange -> {
+          sleep(1_000);
+          respond(exchange, "{}".getBytes(StandardCharsets.UTF_8), false);
+        });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    connectionManager = config.soundcloudConnectionManager(8, MAX_PER_ROUTE, 1_000, 300);
+    httpClient = config.soundcloudHttpClient(connectionManager, 5_000, 300);
+    restTemplate = config.soundcloudRestTemplate(new RestTemplateBuilder(), httpClient);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    httpClient.close();
+    server.stop(0);
+  }
+
+  @Test
+  void concurrentRequests_reuseAtMostPoolSizeConnections() throws Exception {
+    ExecutorService callers = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        int id = i;
+        results.add(
+            callers.submit(
+                () -> restTemplate.getForObject(baseUrl + "/tracks/" + id, String.class)));
+      }
+      for (Future<String> result : results) {
+        assertEquals("{\"id\":1}", result.get());
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    assertTrue(maxInFlight.get() <= MAX_PER_ROUTE, "in flight: " + maxInFlight.get());
+    assertTrue(clientPorts.size() <= MAX_PER_ROUTE, "connections opened: " + clientPorts.size());
+  }
+
+  @Test
+  void gzipResponse_isAdvertisedAndDecoded() {
+    assertEquals(
+        "{\"compressed\":true}", restTemplate.getForObject(baseUrl + "/gzip", String.class));
+    assertTrue(servedGzip.get(), "client should send Accept-Encoding: gzip");
+  }
+
+  @Test
+  void slowResponse_failsOnReadTimeout() {
+    assertThrows(
+        ResourceAccessException.class,
+        () -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+  }
+
+  @Test
+  void stubFetchExecutor_capsThreadsAndIsShutDownWithContext() {
+    AtomicReference<ExecutorService> executor = new AtomicReference<>();
+    new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+        .withBean(RestTemplateBuilder.class, RestTemplateBuilder::new)
+        .withBean(SimpleMeterRegistry.class)
+        .withUserConfiguration(SoundcloudHttpClientConfig.class)
+        .withPropertyValues("scraper.stub-fetch.concurrency=2")
+        .run(
+            ctx -> {
+              assertTrue(ctx.containsBean("applicationTaskExecutor"));
+              executor.set(ctx.getBean("soundcloudStubFetchExecutor", ExecutorService.class));
+              List<Callable<String>> calls = new ArrayList<>();
+              for (int i = 0; i < 8; i++) {
+                calls.add(
+                    () -> {
+                      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                      Thread.sleep(20);
+                      inFlight.decrementAndGet();
+                      return Thread.currentThread().getName();
+                    });
+              }
+              for (Future<String> f : executor.get().invokeAll(calls)) {
+                assertTrue(f.get().startsWith("sc-stub-fetch-"));
+              }
+            });
+
+    assertEquals(2, maxInFlight.get());
+    assertTrue(executor.get().isShutdown());
+  }
+
+  @Test
+  void poolMetrics_areBoundWithSoundcloudTag() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    config.soundcloudConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+    restTemplate.getForObject(baseUrl + "/tracks/1", String.class);
+
+    assertEquals(
+        8.0,
+        registry
+            .get("httpcomponents.httpclient.pool.total.max")
+            .tag("httpclient", SoundcloudHttpClientConfig.POOL_NAME)
+            .gauge()
+            .value());
+    assertEquals(
+        1.0,
+        registry
+            .get("httpcomponents.httpclient.pool.total.connections")
+            .tag("httpclient", SoundcloudHttpClientConfig.POOL_NAME)
+            .tag("state", "available")
+            .gauge()
+            .value());
+  }
+
+  private static void respond(HttpExchange exchange, byte[] body, boolean gzip) throws IOException {
+    if (gzip) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+        out.write(body);
+      }
+      body = buffer.toByteArray();
+      exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+    }
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
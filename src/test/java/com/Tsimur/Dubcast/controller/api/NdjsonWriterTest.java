@@ -0,0 +1,73 @@
+package com.Tsimur.Dubcast.controller.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class NdjsonWriterTest {
+
+  record Row(long id, String title, OffsetDateTime at) {}
+
+  private final NdjsonWriter writer =
+      new NdjsonWriter(
+          new ObjectMapper()
+              .registerModule(new JavaTimeModule())
+              .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+  @Test
+  void write_emitsOneObjectPerLine() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    OffsetDateTime at = OffsetDateTime.of(2025, 12, 8, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    writer.<Row>write(
+        response,
+        "tracks",
+        sink -> {
+          sink.accept(new Row(1, "a", at));
+          sink.accept(new Row(2, "b \"quoted\"\nline", at));
+        });
+
+    assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+    assertEquals(
+        "attachment; filename=\"tracks.ndjson\"",
+        response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    assertEquals(
+        """
+        {"id":1,"title":"a","at":"2025-12-08T10:00:00Z"}
+        {"id":2,"title":"b \\"quoted\\"\\nline","at":"2025-12-08T10:00:00Z"}
+        """,
+        response.getContentAsString());
+  }
+
+  @Test
+  void write_noRows_isAnEmptyNdjsonBody() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    writer.<Row>write(response, "users", sink -> {});
+
+    assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+    assertEquals("", response.getContentAsString());
+  }
+
+  @Test
+  void write_failureBeforeFirstRow_leavesResponseToErrorHandlers() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    Consumer<Consumer<Row>> failing =
+        sink -> {
+          throw new IllegalArgumentException("'from' must be before 'to'");
+        };
+
+    assertThrows(IllegalArgumentException.class, () -> writer.write(response, "schedule", failing));
+    assertFalse(response.isCommitted());
+    assertNull(response.getContentType());
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+}
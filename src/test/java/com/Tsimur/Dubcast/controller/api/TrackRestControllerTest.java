@@ -0,0 +1,67 @@
+package com.Tsimur.Dubcast.controller.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.dto.response.OembedHtmlResponse;
+import com.Tsimur.Dubcast.service.ExportService;
+import com.Tsimur.Dubcast.service.TrackService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class TrackRestControllerTest {
+
+  private final TrackService trackService = mock(TrackService.class);
+
+  private final TrackRestController controller =
+      new TrackRestController(trackService, mock(ExportService.class), mock(NdjsonWriter.class));
+
+  private static ServletWebRequest request(String ifNoneMatch) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tracks/42/embed");
+    if (ifNoneMatch != null) {
+      request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+    return new ServletWebRequest(request, new MockHttpServletResponse());
+  }
+
+  @Test
+  void getEmbed_isCachedBrieflyAndMustBeRevalidated() {
+    when(trackService.getEmbedCode(42L)).thenReturn("<iframe/>");
+
+    ResponseEntity<OembedHtmlResponse> response = controller.getEmbed(42L, request(null));
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("<iframe/>", response.getBody().getCode());
+    assertNotNull(response.getHeaders().getETag());
+    assertEquals("max-age=300, must-revalidate, public", response.getHeaders().getCacheControl());
+  }
+
+  @Test
+  void getEmbed_matchingEtag_returnsNotModified() {
+    when(trackService.getEmbedCode(42L)).thenReturn("<iframe/>");
+    String etag = controller.getEmbed(42L, request(null)).getHeaders().getETag();
+
+    ResponseEntity<OembedHtmlResponse> response = controller.getEmbed(42L, request(etag));
+
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertNull(response.getBody());
+  }
+
+  @Test
+  void getEmbed_changedPlayer_getsNewEtag() {
+    when(trackService.getEmbedCode(42L)).thenReturn("<iframe src=old/>");
+    String oldEtag = controller.getEmbed(42L, request(null)).getHeaders().getETag();
+    // url трека поменяли — плеер тоже
+    when(trackService.getEmbedCode(42L)).thenReturn("<iframe src=new/>");
+
+    ResponseEntity<OembedHtmlResponse> response = controller.getEmbed(42L, request(oldEtag));
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotEquals(oldEtag, response.getHeaders().getETag());
+  }
+}
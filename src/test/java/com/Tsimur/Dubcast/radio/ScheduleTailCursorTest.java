@@ -0,0 +1,192 @@
+package com.Tsimur.Dubcast.radio;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class ScheduleTailCursorTest {
+
+  private static final OffsetDateTime NOW = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+
+  private ScheduleEntryRepository repository;
+  private ScheduleTailCursor cursor;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(ScheduleEntryRepository.class);
+    cursor = new ScheduleTailCursor(repository);
+  }
+
+  /** Runs {@code body} as if inside a transaction that ends with {@code commit}. */
+  private static <T> T inTransaction(boolean commit, Supplier<T> body) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      T result = body.get();
+      List<TransactionSynchronization> syncs =
+          TransactionSynchronizationManager.getSynchronizations();
+      if (commit) {
+        TransactionSynchronizationUtils.invokeAfterCommit(syncs);
+      }
+      TransactionSynchronizationUtils.invokeAfterCompletion(
+          syncs,
+          commit
+              ? TransactionSynchronization.STATUS_COMMITTED
+              : TransactionSynchronization.STATUS_ROLLED_BACK);
+      return result;
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void peek_readsDbOnceThenServesFromMemory() {
+    when(repository.findMaxEndTime()).thenReturn(NOW.plusHours(1));
+
+    assertEquals(NOW.plusHours(1), cursor.peek(NOW));
+    assertEquals(NOW.plusHours(1), cursor.peek(NOW));
+    assertEquals(NOW.plusHours(2), cursor.peek(NOW.plusHours(2)));
+
+    verify(repository, times(1)).findMaxEndTime();
+  }
+
+  @Test
+  void peek_emptySchedule_returnsNow() {
+    assertEquals(NOW, cursor.peek(NOW));
+  }
+
+  /** What a thread outside the current transaction sees. */
+  private OffsetDateTime peekFromOtherThread() throws Exception {
+    ExecutorService other = Executors.newSingleThreadExecutor();
+    try {
+      return other.submit(() -> cursor.peek(NOW)).get();
+    } finally {
+      other.shutdownNow();
+    }
+  }
+
+  @Test
+  void advance_isVisibleToOwnTransactionAtOnceAndToOthersAfterCommit() {
+    when(repository.findMaxEndTime()).thenReturn(NOW.plusMinutes(5));
+
+    inTransaction(
+        true,
+        () -> {
+          OffsetDateTime start = cursor.acquire(NOW);
+          cursor.advance(start.plusMinutes(3));
+          assertEquals(NOW.plusMinutes(8).toInstant(), cursor.peek(NOW).toInstant());
+          try {
+            assertEquals(NOW.plusMinutes(5).toInstant(), peekFromOtherThread().toInstant());
+          } catch (Exception e) {
+            throw new AssertionError(e);
+          }
+          return null;
+        });
+
+    assertEquals(NOW.plusMinutes(8).toInstant(), cursor.peek(NOW).toInstant());
+    verify(repository).acquireTailLock(ScheduleTailCursor.ADVISORY_LOCK_KEY);
+    verify(repository, times(1)).findMaxEndTime();
+  }
+
+  @Test
+  void secondAcquireInSameTransaction_continuesFromFirstAdvance() {
+    when(repository.findMaxEndTime()).thenReturn(NOW.plusMinutes(5));
+
+    List<OffsetDateTime> starts =
+        inTransaction(
+            true,
+            () -> {
+              OffsetDateTime first = cursor.acquire(NOW);
+              cursor.advance(first.plusMinutes(3));
+              OffsetDateTime second = cursor.acquire(NOW);
+              cursor.advance(second.plusMinutes(2));
+              return List.of(first, second);
+            });
+
+    assertEquals(NOW.plusMinutes(5).toInstant(), starts.get(0).toInstant());
+    assertEquals(NOW.plusMinutes(8).toInstant(), starts.get(1).toInstant());
+    assertEquals(NOW.plusMinutes(10).toInstant(), cursor.peek(NOW).toInstant());
+  }
+
+  @Test
+  void rollback_forgetsTail() {
+    when(repository.findMaxEndTime()).thenReturn(NOW.plusMinutes(5));
+
+    inTransaction(
+        false,
+        () -> {
+          cursor.advance(cursor.acquire(NOW).plusMinutes(3));
+          return null;
+        });
+
+    assertEquals(NOW.plusMinutes(5), cursor.peek(NOW));
+    verify(repository, times(2)).findMaxEndTime();
+  }
+
+  @Test
+  void invalidate_makesNextReadGoToDb() {
+    when(repository.findMaxEndTime()).thenReturn(NOW.plusMinutes(5), NOW.plusMinutes(2));
+    cursor.peek(NOW);
+
+    cursor.invalidate();
+
+    assertEquals(NOW.plusMinutes(2), cursor.peek(NOW));
+  }
+
+  @Test
+  void concurrentAppends_getBackToBackStartsInsteadOfTheSameOne() throws Exception {
+    when(repository.findMaxEndTime()).thenReturn(NOW);
+    int appenders = 8;
+    List<OffsetDateTime> starts = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch go = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(appenders);
+    try {
+      List<Future<?>> done = new ArrayList<>();
+      for (int i = 0; i < appenders; i++) {
+        done.add(
+            pool.submit(
+                () -> {
+                  go.await();
+                  return inTransaction(
+                      true,
+                      () -> {
+                        OffsetDateTime start = cursor.acquire(NOW);
+                        starts.add(start);
+                        cursor.advance(start.plusMinutes(1));
+                        return null;
+                      });
+                }));
+      }
+      go.countDown();
+      for (Future<?> f : done) {
+        f.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    List<OffsetDateTime> sorted =
+        starts.stream()
+            .map(OffsetDateTime::toInstant)
+            .sorted()
+            .map(i -> OffsetDateTime.ofInstant(i, NOW.getOffset()))
+            .toList();
+    for (int i = 0; i < appenders; i++) {
+      assertEquals(NOW.plusMinutes(i), sorted.get(i));
+    }
+  }
+}
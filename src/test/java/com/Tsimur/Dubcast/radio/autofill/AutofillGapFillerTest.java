@@ -0,0 +1,113 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.radio.events.ScheduleUpdatedEvent;
+import com.Tsimur.Dubcast.service.RadioProgrammingService;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class AutofillGapFillerTest {
+
+  private RadioProgrammingService radioProgrammingService;
+  private AutofillGapFiller filler;
+
+  @BeforeEach
+  void setUp() {
+    radioProgrammingService = mock(RadioProgrammingService.class);
+    filler = new AutofillGapFiller(radioProgrammingService, Duration.ofHours(6).toMillis());
+  }
+
+  @Test
+  void firstRun_scansFromNow_thenIdlesUntilScheduleChanges() {
+    filler.fillDirtyWindow();
+    filler.fillDirtyWindow();
+
+    verify(radioProgrammingService, times(1)).fillGaps(any(), any());
+  }
+
+  @Test
+  void burstOfUpdates_scansOnceFromEarliestChange() {
+    filler.fillDirtyWindow();
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    filler.onScheduleUpdated(new ScheduleUpdatedEvent(now.plusHours(3)));
+    filler.onScheduleUpdated(new ScheduleUpdatedEvent(now.plusHours(1)));
+    filler.onScheduleUpdated(new ScheduleUpdatedEvent(now.plusHours(2)));
+
+    filler.fillDirtyWindow();
+
+    ArgumentCaptor<OffsetDateTime> from = ArgumentCaptor.forClass(OffsetDateTime.class);
+    verify(radioProgrammingService, times(2)).fillGaps(from.capture(), any());
+    assertEquals(now.plusHours(1).toInstant(), from.getValue().toInstant());
+  }
+
+  @Test
+  void changeBeyondHorizon_isIgnored() {
+    filler.fillDirtyWindow();
+    filler.onScheduleUpdated(
+        new ScheduleUpdatedEvent(OffsetDateTime.now(ZoneOffset.UTC).plusHours(7)));
+
+    filler.fillDirtyWindow();
+
+    verify(radioProgrammingService, times(1)).fillGaps(any(), any());
+  }
+
+  @Test
+  void changeInOpenTransaction_isScannedOnlyAfterCommit() {
+    OffsetDateTime changed = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1);
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+      context.registerBean(TransactionalEventListenerFactory.class);
+      context.registerBean(AutofillGapFiller.class, () -> filler);
+      context.refresh();
+      filler.fillDirtyWindow();
+
+      TransactionSynchronizationManager.initSynchronization();
+      TransactionSynchronizationManager.setActualTransactionActive(true);
+      try {
+        context.publishEvent(new ScheduleUpdatedEvent(changed));
+        // транзакция ещё не закоммичена — проход видел бы старое расписание
+        filler.fillDirtyWindow();
+        verify(radioProgrammingService, times(1)).fillGaps(any(), any());
+
+        List<TransactionSynchronization> syncs =
+            TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCommit(syncs);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+            syncs, TransactionSynchronization.STATUS_COMMITTED);
+      } finally {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.clearSynchronization();
+      }
+      filler.fillDirtyWindow();
+    }
+
+    ArgumentCaptor<OffsetDateTime> from = ArgumentCaptor.forClass(OffsetDateTime.class);
+    verify(radioProgrammingService, times(2)).fillGaps(from.capture(), any());
+    assertEquals(changed.toInstant(), from.getValue().toInstant());
+  }
+
+  @Test
+  void failedScan_isRetriedOnNextRun() {
+    when(radioProgrammingService.fillGaps(any(), any()))
+        .thenThrow(new IllegalStateException("db down"))
+        .thenReturn(0);
+
+    filler.fillDirtyWindow();
+    filler.fillDirtyWindow();
+    filler.fillDirtyWindow();
+
+    verify(radioProgrammingService, times(2)).fillGaps(any(), any());
+  }
+}
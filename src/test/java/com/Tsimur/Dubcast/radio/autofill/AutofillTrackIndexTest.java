@@ -0,0 +1,158 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent.Playable;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AutofillTrackIndexTest {
+
+  private TrackRepository trackRepository;
+  private AutofillTrackIndex index;
+
+  @BeforeEach
+  void setUp() {
+    trackRepository = mock(TrackRepository.class);
+    index = new AutofillTrackIndex(trackRepository);
+  }
+
+  private static Object[] row(long id, String artist) {
+    return row(id, artist, 180);
+  }
+
+  private static Object[] row(long id, String artist, int durationSeconds) {
+    return new Object[] {id, "https://soundcloud.com/" + artist + "/track-" + id, durationSeconds};
+  }
+
+  private void load(Object[]... rows) {
+    when(trackRepository.findAllPlayable()).thenReturn(List.of(rows));
+    index.reload();
+  }
+
+  @Test
+  void sample_emptyIndex_returnsEmpty() {
+    assertTrue(index.sample().isEmpty());
+  }
+
+  @Test
+  void reload_loadsPlayableIdsAndSamplesOnlyThem() {
+    load(row(30, "a"), row(10, "b"), row(20, "a"));
+
+    assertEquals(3, index.size());
+    Set<Long> seen = new HashSet<>();
+    for (int i = 0; i < 200; i++) {
+      seen.add(index.sample().getAsLong());
+    }
+    assertEquals(Set.of(10L, 20L, 30L), seen);
+  }
+
+  @Test
+  void artistOf_groupsTracksByUploader() {
+    load(row(1, "dj-one"), row(2, "DJ-One"), row(3, "other"));
+
+    assertEquals(index.artistOf(1), index.artistOf(2));
+    assertNotEquals(index.artistOf(1), index.artistOf(3));
+    assertEquals(-1, index.artistOf(99));
+  }
+
+  @Test
+  void onTracksChanged_addsPlayableAndRemovesDeletedOrUnplayable() {
+    load(row(1, "a"), row(2, "a"), row(3, "b"));
+
+    index.onTracksChanged(TracksChangedEvent.saved(5L, "https://soundcloud.com/c/x", 120));
+    index.onTracksChanged(TracksChangedEvent.saved(2L, "https://soundcloud.com/a/y", 0));
+    index.onTracksChanged(TracksChangedEvent.saved(4L, "https://soundcloud.com/a/z", null));
+    index.onTracksChanged(TracksChangedEvent.deleted(3L));
+    index.onTracksChanged(TracksChangedEvent.saved(1L, "https://soundcloud.com/c/w", 90));
+
+    assertEquals(2, index.size());
+    assertTrue(index.contains(1L));
+    assertTrue(index.contains(5L));
+    assertFalse(index.contains(2L));
+    assertFalse(index.contains(4L));
+    // трек 1 перепривязан к другому исполнителю
+    assertEquals(index.artistOf(5), index.artistOf(1));
+  }
+
+  @Test
+  void onTracksChanged_bulkImport_mergesWithoutDuplicates() {
+    load(LongStream.range(0, 1000).mapToObj(i -> row(i * 2, "a")).toArray(Object[][]::new));
+
+    index.onTracksChanged(
+        new TracksChangedEvent(
+            Map.of(
+                7L, new Playable("https://soundcloud.com/b/7", 100),
+                3L, new Playable("https://soundcloud.com/b/3", 100),
+                4L, new Playable("https://soundcloud.com/b/4", 100),
+                5000L, new Playable("https://soundcloud.com/b/5000", 100)),
+            List.of(10L)));
+
+    assertEquals(1000 + 3 - 1, index.size());
+    assertTrue(index.contains(3L));
+    assertTrue(index.contains(4L));
+    assertTrue(index.contains(7L));
+    assertTrue(index.contains(5000L));
+    assertFalse(index.contains(10L));
+    assertEquals(index.artistOf(3), index.artistOf(4));
+    assertEquals(index.artistOf(0), index.artistOf(1998));
+  }
+
+  @Test
+  void evict_dropsSingleId() {
+    load(row(1, "a"), row(2, "a"));
+
+    index.evict(1L);
+    index.evict(99L);
+
+    assertEquals(1, index.size());
+    assertEquals(2L, index.sample().getAsLong());
+  }
+
+  @Test
+  void sampleByDuration_picksOnlyTracksInRange() {
+    load(row(1, "a", 60), row(2, "a", 200), row(3, "b", 240), row(4, "b", 600));
+
+    Set<Long> seen = new HashSet<>();
+    for (int i = 0; i < 200; i++) {
+      seen.add(index.sample(200, 300).getAsLong());
+    }
+    assertEquals(Set.of(2L, 3L), seen);
+    assertEquals(1L, index.sample(0, 60).getAsLong());
+    assertTrue(index.sample(61, 199).isEmpty());
+    assertTrue(index.sample(300, 200).isEmpty());
+    assertEquals(4L, index.sample(600, Integer.MAX_VALUE).getAsLong());
+    assertEquals(60, index.shortestDuration());
+    assertEquals(240, index.durationOf(3));
+    assertEquals(-1, index.durationOf(99));
+  }
+
+  @Test
+  void sampleByDuration_followsChanges() {
+    load(row(1, "a", 60), row(2, "a", 200));
+
+    index.onTracksChanged(TracksChangedEvent.saved(1L, "https://soundcloud.com/a/x", 250));
+    index.onTracksChanged(TracksChangedEvent.saved(5L, "https://soundcloud.com/a/y", 30));
+
+    assertEquals(30, index.shortestDuration());
+    assertEquals(5L, index.sample(0, 100).getAsLong());
+    assertEquals(1L, index.sample(201, 300).getAsLong());
+    assertTrue(new AutofillTrackIndex(trackRepository).sample(0, 1000).isEmpty());
+    assertEquals(-1, new AutofillTrackIndex(trackRepository).shortestDuration());
+  }
+
+  @Test
+  void artistKey_isFirstPathSegment() {
+    assertEquals(
+        "artist", AutofillTrackIndex.artistKey("https://soundcloud.com/Artist/track?si=1"));
+    assertEquals("no-path", AutofillTrackIndex.artistKey("no-path"));
+  }
+}
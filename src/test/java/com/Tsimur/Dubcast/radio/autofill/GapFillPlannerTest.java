@@ -0,0 +1,77 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GapFillPlannerTest {
+
+  private static final OffsetDateTime NOW = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+
+  private TrackRepository trackRepository;
+  private AutofillTrackIndex index;
+  private GapFillPlanner planner;
+
+  @BeforeEach
+  void setUp() {
+    trackRepository = mock(TrackRepository.class);
+    index = new AutofillTrackIndex(trackRepository);
+    RotationAutoFillStrategy strategy =
+        new RotationAutoFillStrategy(index, mock(PlaylistTrackRepository.class), 0, 0, 1, "", 16);
+    planner = new GapFillPlanner(strategy, index, 30);
+  }
+
+  /** One track per duration, ids equal to the duration. */
+  private void catalog(int... durations) {
+    List<Object[]> rows = new ArrayList<>();
+    for (int d : durations) {
+      rows.add(new Object[] {(long) d, "https://soundcloud.com/a/t" + d, d});
+    }
+    when(trackRepository.findAllPlayable()).thenReturn(rows);
+    index.reload();
+  }
+
+  private int total(List<Long> ids) {
+    return ids.stream().mapToInt(id -> index.durationOf(id)).sum();
+  }
+
+  @Test
+  void plan_holeMatchingOneTrack_picksThatTrack() {
+    catalog(120, 200, 600);
+
+    assertEquals(List.of(200L), planner.plan(NOW, 210));
+  }
+
+  @Test
+  void plan_longHole_endsWithinToleranceAndNeverOverruns() {
+    // 1..10 мин с шагом 10 с: в любом окне допуска есть трек
+    catalog(IntStream.rangeClosed(6, 60).map(i -> i * 10).toArray());
+
+    for (int gap : new int[] {75, 600, 1003, 1800, 3600}) {
+      List<Long> ids = planner.plan(NOW, gap);
+      int total = total(ids);
+      assertTrue(total <= gap, "overran " + gap + ": " + total);
+      assertTrue(total >= gap - 30, "left too much of " + gap + ": " + total);
+    }
+  }
+
+  @Test
+  void plan_holeShorterThanAnyTrack_returnsNothing() {
+    catalog(180, 240);
+
+    assertTrue(planner.plan(NOW, 179).isEmpty());
+  }
+
+  @Test
+  void plan_emptyCatalog_returnsNothing() {
+    assertTrue(planner.plan(NOW, 3600).isEmpty());
+  }
+}
@@ -0,0 +1,206 @@
+package com.Tsimur.Dubcast.radio.autofill;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.radio.events.NowPlayingChangedEvent;
+import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.service.TrackService;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class RotationAutoFillStrategyTest {
+
+  private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-10-19T12:00:00Z");
+
+  private TrackRepository trackRepository;
+  private PlaylistTrackRepository playlistTrackRepository;
+  private AutofillTrackIndex index;
+
+  @BeforeEach
+  void setUp() {
+    trackRepository = mock(TrackRepository.class);
+    playlistTrackRepository = mock(PlaylistTrackRepository.class);
+    index = new AutofillTrackIndex(trackRepository);
+  }
+
+  /** Tracks 1..count lasting 100 + id seconds, uploaded by {@code artists} artists in turn. */
+  private void catalog(int count, int artists) {
+    List<Object[]> rows = new ArrayList<>();
+    for (long id = 1; id <= count; id++) {
+      rows.add(
+          new Object[] {
+            id, "https://soundcloud.com/artist-" + (id % artists) + "/t" + id, (int) (100 + id)
+          });
+    }
+    when(trackRepository.findAllPlayable()).thenReturn(rows);
+    index.reload();
+  }
+
+  private RotationAutoFillStrategy strategy(int trackWindow, int artistWindow, String weights) {
+    return new RotationAutoFillStrategy(
+        index, playlistTrackRepository, trackWindow, artistWindow, 1, weights, 64);
+  }
+
+  private long pick(RotationAutoFillStrategy strategy) {
+    return strategy.chooseTrackIdForAutofill(NOW).orElseThrow();
+  }
+
+  @Test
+  void emptyCatalog_returnsEmpty() {
+    assertTrue(strategy(10, 2, "").chooseTrackIdForAutofill(NOW).isEmpty());
+  }
+
+  @Test
+  void neverRepeatsTrackInsideWindow() {
+    catalog(40, 40);
+    RotationAutoFillStrategy strategy = strategy(20, 0, "");
+
+    List<Long> picks = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      picks.add(pick(strategy));
+    }
+    for (int i = 0; i < picks.size(); i++) {
+      for (int j = Math.max(0, i - 20); j < i; j++) {
+        assertNotEquals(picks.get(j), picks.get(i), "repeat at " + i);
+      }
+    }
+  }
+
+  @Test
+  void neverSameArtistTwiceInARow() {
+    catalog(30, 3);
+    RotationAutoFillStrategy strategy = strategy(0, 2, "");
+
+    long previous = pick(strategy);
+    for (int i = 0; i < 300; i++) {
+      long next = pick(strategy);
+      assertNotEquals(index.artistOf(previous), index.artistOf(next));
+      previous = next;
+    }
+  }
+
+  @Test
+  void catalogSmallerThanWindow_stillPlays() {
+    catalog(1, 1);
+    RotationAutoFillStrategy strategy = strategy(50, 3, "");
+
+    assertEquals(1L, pick(strategy));
+    assertEquals(1L, pick(strategy));
+  }
+
+  @Test
+  void nowPlaying_isNotPickedNext() {
+    catalog(2, 2);
+    RotationAutoFillStrategy strategy = strategy(1, 0, "");
+
+    strategy.onNowPlayingChanged(
+        new NowPlayingChangedEvent(
+            ScheduleEntryDto.builder().track(TrackDto.builder().id(1L).build()).build()));
+    strategy.onNowPlayingChanged(new NowPlayingChangedEvent(null));
+
+    assertEquals(2L, pick(strategy));
+  }
+
+  @Test
+  void playlistWeights_biasRotationTowardsPlaylist() {
+    catalog(1000, 1000);
+    List<Object[]> playlist = new ArrayList<>();
+    for (long id = 1; id <= 10; id++) {
+      playlist.add(new Object[] {7L, id});
+    }
+    playlist.add(new Object[] {7L, 5000L}); // уже не в индексе
+    when(playlistTrackRepository.findTrackIdsByPlaylistIdIn(anyCollection())).thenReturn(playlist);
+    RotationAutoFillStrategy strategy = strategy(0, 0, "7:9");
+    strategy.reloadPlaylists();
+
+    int fromPlaylist = 0;
+    for (int i = 0; i < 1000; i++) {
+      long id = pick(strategy);
+      assertNotEquals(5000L, id);
+      if (id <= 10) {
+        fromPlaylist++;
+      }
+    }
+    // ожидаем ~90%
+    assertTrue(fromPlaylist > 800, "from playlist: " + fromPlaylist);
+  }
+
+  @Test
+  void parseWeights_skipsZeroAndRejectsGarbage() {
+    assertEquals(
+        Map.of(12L, 3, 15L, 1), RotationAutoFillStrategy.parseWeights(" 12:3, 15:1 ,20:0"));
+    assertTrue(RotationAutoFillStrategy.parseWeights("").isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> RotationAutoFillStrategy.parseWeights("12"));
+  }
+
+  @Test
+  void noRepeatWindow_evictsOldestKey() {
+    NoRepeatWindow window = new NoRepeatWindow(2);
+    window.add(1);
+    window.add(2);
+    window.add(2);
+    window.add(3);
+    window.add(Long.MAX_VALUE);
+
+    assertFalse(window.contains(1));
+    assertFalse(window.contains(2));
+    assertTrue(window.contains(3));
+    assertTrue(window.contains(Long.MAX_VALUE));
+    assertEquals(2, window.size());
+  }
+
+  @Test
+  void rangePick_staysInRangeAndKeepsNoRepeatWindow() {
+    // длительности 101..140
+    catalog(40, 40);
+    RotationAutoFillStrategy strategy = strategy(5, 0, "");
+
+    List<Long> picked = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      picked.add(strategy.chooseTrackIdForAutofill(NOW, 111, 120).orElseThrow());
+    }
+
+    assertTrue(picked.stream().allMatch(id -> id >= 11 && id <= 20), picked.toString());
+    assertEquals(5, picked.stream().distinct().count());
+    assertTrue(strategy.chooseTrackIdForAutofill(NOW, 200, 300).isEmpty());
+  }
+
+  // ---------- выбор стратегии ----------
+
+  private ApplicationContextRunner strategies() {
+    return new ApplicationContextRunner()
+        .withBean(TrackService.class, () -> mock(TrackService.class))
+        .withBean(AutofillTrackIndex.class, () -> index)
+        .withBean(PlaylistTrackRepository.class, () -> playlistTrackRepository)
+        .withUserConfiguration(RandomTrackAutoFillStrategy.class, RotationAutoFillStrategy.class);
+  }
+
+  @Test
+  void strategy_defaultsToRandom() {
+    strategies()
+        .run(
+            ctx ->
+                assertInstanceOf(
+                    RandomTrackAutoFillStrategy.class, ctx.getBean(AutoFillStrategy.class)));
+  }
+
+  @Test
+  void strategy_rotationIsOptIn() {
+    strategies()
+        .withPropertyValues("radio.autofill.strategy=rotation")
+        .run(
+            ctx ->
+                assertInstanceOf(
+                    RotationAutoFillStrategy.class, ctx.getBean(AutoFillStrategy.class)));
+  }
+}
@@ -0,0 +1,102 @@
+package com.Tsimur.Dubcast.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Tsimur.Dubcast.model.ScheduleEntry;
+import com.Tsimur.Dubcast.model.Track;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/** JPQL of {@link ScheduleEntryRepository} on the embedded H2 of the {@code h2} profile. */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ScheduleEntryRepositoryTest {
+
+  private static final OffsetDateTime NOW =
+      OffsetDateTime.of(2099, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired private ScheduleEntryRepository scheduleEntryRepository;
+  @Autowired private TrackRepository trackRepository;
+  @Autowired private EntityManager entityManager;
+
+  private Track track;
+
+  @BeforeEach
+  void setUp() {
+    track =
+        trackRepository.save(
+            Track.builder()
+                .scUrl("https://soundcloud.com/repo-test/t-" + System.nanoTime())
+                .title("T")
+                .durationSeconds(180)
+                .build());
+  }
+
+  /** Slot of 3 minutes starting {@code minutes} after {@link #NOW}. */
+  private ScheduleEntry slot(int minutes, boolean autofill) {
+    OffsetDateTime start = NOW.plusMinutes(minutes);
+    return scheduleEntryRepository.save(
+        ScheduleEntry.builder()
+            .track(track)
+            .startTime(start)
+            .endTime(start.plusMinutes(3))
+            .autofill(autofill)
+            .build());
+  }
+
+  private List<Integer> remainingStartMinutes() {
+    entityManager.flush();
+    entityManager.clear();
+    return scheduleEntryRepository.findAll().stream()
+        .map(e -> (int) Duration.between(NOW, e.getStartTime()).toMinutes())
+        .sorted()
+        .toList();
+  }
+
+  @Test
+  void deleteTailAutofill_keepsHoleFillsAndStartedSlots() {
+    slot(-2, true); // уже играет
+    slot(1, false); // программа
+    slot(4, true); // дыра между программой
+    slot(7, false); // программа
+    slot(10, true); // хвост
+    slot(13, true); // хвост
+    entityManager.flush();
+
+    int deleted = scheduleEntryRepository.deleteTailAutofillStartingAfter(NOW);
+
+    assertEquals(2, deleted);
+    assertEquals(List.of(-2, 1, 4, 7), remainingStartMinutes());
+  }
+
+  @Test
+  void deleteTailAutofill_withoutProgrammedSlots_dropsAllPendingAutofill() {
+    slot(-2, true);
+    slot(1, true);
+    slot(4, true);
+    entityManager.flush();
+
+    assertEquals(2, scheduleEntryRepository.deleteTailAutofillStartingAfter(NOW));
+    assertEquals(List.of(-2), remainingStartMinutes());
+  }
+
+  @Test
+  void deleteTailAutofill_programmedSlotAtTheEnd_deletesNothing() {
+    slot(1, true);
+    slot(4, false);
+    entityManager.flush();
+
+    assertEquals(0, scheduleEntryRepository.deleteTailAutofillStartingAfter(NOW));
+    assertEquals(List.of(1, 4), remainingStartMinutes());
+  }
+}
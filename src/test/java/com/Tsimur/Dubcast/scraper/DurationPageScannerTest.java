@@ -0,0 +1,116 @@
+package com.Tsimur.Dubcast.scraper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class DurationPageScannerTest {
+
+  private static final String META = "<meta itemprop=\"duration\" content=\"PT00H03M05S\" />";
+
+  private String fixture(String name) throws Exception {
+    try (InputStream in = getClass().getResourceAsStream("/fixtures/soundcloud/" + name)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /** Hands out at most {@code chunk} chars per read and counts how much was consumed. */
+  private static final class ChunkedReader extends Reader {
+    private final String text;
+    private final int chunk;
+    private int pos;
+
+    ChunkedReader(String text, int chunk) {
+      this.text = text;
+      this.chunk = chunk;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (pos >= text.length()) {
+        return -1;
+      }
+      int n = Math.min(Math.min(len, chunk), text.length() - pos);
+      text.getChars(pos, pos + n, cbuf, off);
+      pos += n;
+      return n;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  @Test
+  void scan_recordedTrackPage_stopsAtDurationMeta() throws Exception {
+    String page = fixture("track-page.html");
+    ChunkedReader reader = new ChunkedReader(page, 4096);
+
+    assertEquals(185, DurationPageScanner.scan(reader));
+    assertTrue(reader.pos < page.length() / 2, "read " + reader.pos + " of " + page.length());
+  }
+
+  @Test
+  void scan_pageWithoutMeta_usesHydrationDuration() throws Exception {
+    String page = fixture("track-page.html").replace(META, "");
+    assertFalse(page.contains("itemprop=\"duration\""));
+
+    assertEquals(185, DurationPageScanner.scan(new StringReader(page)));
+  }
+
+  @Test
+  void scan_pageWithoutDuration_returnsNull() throws Exception {
+    String page = fixture("track-page.html").replace(META, "").replace("\"duration\":", "\"d\":");
+
+    assertNull(DurationPageScanner.scan(new ChunkedReader(page, 1000)));
+  }
+
+  @Test
+  void scan_tokensSplitAcrossWindowBoundary_areFound() throws IOException {
+    int window = DurationPageScanner.BUFFER_CHARS;
+    for (int shift = -20; shift <= 20; shift++) {
+      String padding = "x".repeat(window + shift);
+      assertEquals(
+          120,
+          DurationPageScanner.scan(new ChunkedReader(padding + "{\"duration\": 120000}", 7)),
+          "json, shift " + shift);
+      assertEquals(
+          125,
+          DurationPageScanner.scan(
+              new ChunkedReader(padding + "<meta content=\"PT2M5S\" itemprop=\"duration\"><p>", 7)),
+          "meta, shift " + shift);
+    }
+  }
+
+  @Test
+  void scan_implausibleValues_areSkipped() throws IOException {
+    String html =
+        "<meta itemprop=\"duration\" content=\"PT0S\">"
+            + "{\"duration\":0,\"duration\":99999999999,\"duration\":\"x\",\"duration\":240000}";
+
+    assertEquals(240, DurationPageScanner.scan(new StringReader(html)));
+  }
+
+  @Test
+  void scan_hugeTagWithoutEnd_doesNotLoopOrGrowBuffer() throws IOException {
+    String html =
+        "<meta itemprop=\"duration\" "
+            + "a".repeat(DurationPageScanner.BUFFER_CHARS * 2)
+            + "{\"duration\":61000}";
+
+    assertEquals(61, DurationPageScanner.scan(new ChunkedReader(html, 512)));
+  }
+
+  @Test
+  void parseIsoDuration_handlesSoundcloudFormat() {
+    assertEquals(185, DurationPageScanner.parseIsoDuration("PT00H03M05S"));
+    assertEquals(3600, DurationPageScanner.parseIsoDuration("PT1H"));
+    assertNull(DurationPageScanner.parseIsoDuration("PT9H"));
+    assertNull(DurationPageScanner.parseIsoDuration("garbage"));
+    assertNull(DurationPageScanner.parseIsoDuration(" "));
+  }
+}
@@ -0,0 +1,86 @@
+package com.Tsimur.Dubcast.scraper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Tsimur.Dubcast.scraper.PlaylistHydrationReader.ScrapedTrack;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PlaylistHydrationReaderTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final JsonFactory factory = objectMapper.getFactory();
+
+  private String fixture(String name) throws Exception {
+    try (InputStream in = getClass().getResourceAsStream("/fixtures/soundcloud/" + name)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void readTracks_recordedPlaylist_readsTopLevelTrackFieldsOnly() throws Exception {
+    List<ScrapedTrack> tracks =
+        PlaylistHydrationReader.readTracks(factory, fixture("playlist-data.json"));
+
+    assertEquals(4, tracks.size());
+    ScrapedTrack full = tracks.get(0);
+    assertEquals(1, full.id());
+    // вложенные user.permalink_url / media.duration не должны перетирать поля трека
+    assertEquals("https://soundcloud.com/artist/full-track", full.permalinkUrl());
+    assertEquals("Full track", full.title());
+    assertEquals(185000, full.durationMs());
+    assertEquals("https://i1.sndcdn.com/artworks-1-large.jpg", full.artworkUrl());
+    assertTrue(full.hasEnoughData());
+
+    assertEquals(new ScrapedTrack(2, null, null, 0, null), tracks.get(1));
+    assertFalse(tracks.get(1).hasEnoughData());
+    assertEquals(0, tracks.get(3).id());
+  }
+
+  @Test
+  void readTracks_matchesTreeBasedExtractionOnLargePlaylist() throws Exception {
+    StringBuilder json = new StringBuilder("{\"id\":1,\"tracks\":[");
+    for (int i = 1; i <= 2_000; i++) {
+      json.append(i > 1 ? "," : "");
+      if (i % 3 == 0) {
+        json.append("{\"id\":").append(i).append(",\"kind\":\"track\"}");
+      } else {
+        json.append(
+            """
+            {"id":%d,"permalink_url":"https://soundcloud.com/a/t%d","title":"T \\"%d\\"",
+             "duration":%d,"artwork_url":null,"user":{"id":5,"title":"u"},
+             "media":{"transcodings":[{"duration":1},{"duration":2}]}}"""
+                .formatted(i, i, i, i * 1000));
+      }
+    }
+    json.append("]}");
+
+    List<ScrapedTrack> streamed = PlaylistHydrationReader.readTracks(factory, json.toString());
+
+    JsonNode tree = objectMapper.readTree(json.toString()).path("tracks");
+    assertEquals(tree.size(), streamed.size());
+    for (int i = 0; i < tree.size(); i++) {
+      JsonNode t = tree.get(i);
+      ScrapedTrack s = streamed.get(i);
+      assertEquals(t.path("id").asLong(0), s.id());
+      assertEquals(t.path("permalink_url").asText(null), s.permalinkUrl());
+      assertEquals(t.path("title").asText(null), s.title());
+      assertEquals(t.path("duration").asInt(0), s.durationMs());
+      assertEquals(t.path("artwork_url").asText(null), s.artworkUrl());
+    }
+  }
+
+  @Test
+  void readTracks_missingOrMalformedTracks_returnsEmptyList() throws Exception {
+    assertTrue(PlaylistHydrationReader.readTracks(factory, null).isEmpty());
+    assertTrue(PlaylistHydrationReader.readTracks(factory, "{\"id\":1}").isEmpty());
+    assertTrue(PlaylistHydrationReader.readTracks(factory, "{\"tracks\":{}}").isEmpty());
+    assertEquals(
+        1, PlaylistHydrationReader.readTracks(factory, "{\"tracks\":[1,null,{\"id\":7}]}").size());
+  }
+}
@@ -0,0 +1,192 @@
+package com.Tsimur.Dubcast.scraper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.sun.net.httpserver.HttpServer;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Runs a real headless Chromium against fixture pages served from localhost.
+ *
+ * <p>Needs Playwright browsers, so it is opt-in: {@code mvn test -Dplaywright.it=true}.
+ */
+@EnabledIfSystemProperty(named = "playwright.it", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlaywrightBrowserPoolTest {
+
+  private HttpServer server;
+  private String baseUrl;
+  private PlaywrightBrowserPool pool;
+  private final AtomicInteger slowHits = new AtomicInteger();
+
+  @BeforeAll
+  void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    // "тяжёлые" ресурсы отвечают через 3 секунды и считаются
+    server.createContext(
+        "/slow/",
+        exchange -> {
+          slowHits.incrementAndGet();
+          try {
+            Thread.sleep(3_000);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          exchange.sendResponseHeaders(200, 0);
+          exchange.close();
+        });
+    server.createContext(
+        "/",
+        exchange -> {
+          String name = exchange.getRequestURI().getPath().substring(1);
+          try (InputStream in = getClass().getResourceAsStream("/fixtures/soundcloud/" + name)) {
+            if (in == null) {
+              exchange.sendResponseHeaders(404, -1);
+              exchange.close();
+              return;
+            }
+            byte[] body = in.readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+          }
+          exchange.close();
+        });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+    // 2 воркера, контекст пересоздаётся каждые 2 страницы
+    pool = new PlaywrightBrowserPool(2, 2, 60_000, false);
+  }
+
+  @AfterAll
+  void stop() {
+    pool.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  void withPage_readsHydrationFromFixturePage() {
+    String json =
+        pool.withPage(
+            page -> {
+              page.navigate(baseUrl + "playlist-page.html");
+              return page.evaluate("() => JSON.stringify(window.__sc_hydration || [])").toString();
+            });
+
+    assertTrue(json.contains("\"hydratable\":\"playlist\""));
+    assertTrue(json.contains("Full track"));
+  }
+
+  @Test
+  void extractPlaylistData_sendsOnlyPlaylistEntryOverTheBridge() throws Exception {
+    String data =
+        pool.withPage(
+            page -> {
+              page.navigate(baseUrl + "playlist-page.html");
+              return (String) page.evaluate(PlaylistHydrationReader.EXTRACT_PLAYLIST_DATA);
+            });
+
+    assertFalse(data.contains("anonymousId"));
+    var tracks = PlaylistHydrationReader.readTracks(new JsonFactory(), data);
+    assertEquals(1, tracks.size());
+    assertEquals("Full track", tracks.get(0).title());
+    assertEquals(185000, tracks.get(0).durationMs());
+  }
+
+  @Test
+  void withPage_reusesBrowsersAcrossConcurrentCallsAndRecyclesContexts() throws Exception {
+    ExecutorService callers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(
+            callers.submit(
+                () ->
+                    pool.withPage(
+                        page -> {
+                          page.navigate(baseUrl + "playlist-page.html");
+                          return Thread.currentThread().getName()
+                              + "|"
+                              + page.context().browser().version();
+                        })));
+      }
+
+      Set<String> threads = new HashSet<>();
+      for (Future<String> f : results) {
+        threads.add(f.get().split("\\|")[0]);
+      }
+      // всё выполнилось на потоках пула, а не на вызывающих
+      assertTrue(threads.stream().allMatch(t -> t.startsWith("playwright-")));
+      assertTrue(threads.size() <= 2);
+    } finally {
+      callers.shutdownNow();
+    }
+  }
+
+  @Test
+  void withPage_missingPage_doesNotBreakPool() {
+    Integer status = pool.withPage(page -> page.navigate(baseUrl + "does-not-exist.html").status());
+    assertEquals(404, status);
+
+    String title =
+        pool.withPage(
+            page -> {
+              page.navigate(baseUrl + "playlist-page.html");
+              return page.title();
+            });
+    assertEquals("Fixture playlist page", title);
+  }
+
+  @Test
+  void lightweightNavigation_abortsHeavyAssetsAndStopsAtHydration() {
+    int hitsBefore = slowHits.get();
+    long started = System.nanoTime();
+
+    String json =
+        pool.withPage(
+            page -> {
+              PageScraping.blockHeavyResources(page);
+              PageScraping.navigateUntil(
+                  page,
+                  baseUrl + "playlist-page-heavy.html",
+                  "() => Array.isArray(window.__sc_hydration)",
+                  10_000);
+              return page.evaluate("() => JSON.stringify(window.__sc_hydration)").toString();
+            });
+
+    long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+    assertTrue(json.contains("Full track"));
+    assertEquals(hitsBefore, slowHits.get(), "heavy assets must never reach the server");
+    assertTrue(elapsedMs < 3_000, "should not wait for heavy assets, took " + elapsedMs + " ms");
+  }
+
+  @Test
+  void fullNavigation_waitsForHeavyAssets() {
+    int hitsBefore = slowHits.get();
+
+    pool.withPage(
+        page -> {
+          page.navigate(baseUrl + "playlist-page-heavy.html");
+          return null;
+        });
+
+    assertTrue(slowHits.get() > hitsBefore);
+  }
+}
@@ -0,0 +1,266 @@
+package com.Tsimur.Dubcast.scraper;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.PlaywrightException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Worker, recycling and shutdown logic of {@link PlaywrightBrowserPool} against a fake Playwright:
+ * no Chromium needed, so it runs in the default suite.
+ */
+class PlaywrightBrowserPoolWorkerTest {
+
+  /** Records everything the pool creates and the threads it touches them from. */
+  private static final class FakePlaywright {
+
+    final List<Playwright> playwrights = new CopyOnWriteArrayList<>();
+    final List<Browser> browsers = new CopyOnWriteArrayList<>();
+    final List<BrowserContext> contexts = new CopyOnWriteArrayList<>();
+    final List<Page> pages = new CopyOnWriteArrayList<>();
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    Playwright create() {
+      threads.add(Thread.currentThread().getName());
+      Playwright playwright = mock(Playwright.class);
+      BrowserType chromium = mock(BrowserType.class);
+      when(playwright.chromium()).thenReturn(chromium);
+      when(chromium.launch(any()))
+          .thenAnswer(
+              inv -> {
+                Browser browser = mock(Browser.class);
+                when(browser.isConnected()).thenReturn(true);
+                when(browser.version()).thenReturn("fake");
+                when(browser.newContext(any())).thenAnswer(i -> newContext());
+                browsers.add(browser);
+                return browser;
+              });
+      playwrights.add(playwright);
+      return playwright;
+    }
+
+    private BrowserContext newContext() {
+      threads.add(Thread.currentThread().getName());
+      BrowserContext context = mock(BrowserContext.class);
+      when(context.newPage())
+          .thenAnswer(
+              i -> {
+                Page page = mock(Page.class);
+                pages.add(page);
+                return page;
+              });
+      contexts.add(context);
+      return context;
+    }
+  }
+
+  private final FakePlaywright fake = new FakePlaywright();
+  private final List<PlaywrightBrowserPool> pools = new ArrayList<>();
+
+  private PlaywrightBrowserPool pool(int size, int pagesPerContext, long acquireTimeoutMs) {
+    PlaywrightBrowserPool pool =
+        new PlaywrightBrowserPool(size, pagesPerContext, acquireTimeoutMs, false, fake::create);
+    pools.add(pool);
+    return pool;
+  }
+
+  @AfterEach
+  void tearDown() {
+    pools.forEach(PlaywrightBrowserPool::shutdown);
+  }
+
+  @Test
+  void withPage_runsActionOnWorkerThreadAndClosesPage() {
+    PlaywrightBrowserPool pool = pool(1, 10, 1_000);
+
+    String thread = pool.withPage(page -> Thread.currentThread().getName());
+
+    assertEquals("playwright-0", thread);
+    assertEquals(Set.of("playwright-0"), fake.threads);
+    verify(fake.pages.get(0)).close();
+    verify(fake.pages.get(0)).setDefaultTimeout(anyDouble());
+  }
+
+  @Test
+  void withPage_reusesBrowserAndRecyclesContextAfterPagesPerContext() {
+    PlaywrightBrowserPool pool = pool(1, 2, 1_000);
+
+    for (int i = 0; i < 5; i++) {
+      pool.withPage(page -> null);
+    }
+
+    assertEquals(1, fake.playwrights.size());
+    assertEquals(1, fake.browsers.size());
+    // 5 страниц по 2 на контекст → 3 контекста, первые два закрыты
+    assertEquals(3, fake.contexts.size());
+    verify(fake.contexts.get(0)).close();
+    verify(fake.contexts.get(1)).close();
+    verify(fake.contexts.get(2), never()).close();
+  }
+
+  @Test
+  void withPage_concurrentCallers_neverExceedPoolSizeAndStayOnOwnThreads() throws Exception {
+    PlaywrightBrowserPool pool = pool(2, 10, 5_000);
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    ExecutorService callers = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        results.add(
+            callers.submit(
+                () ->
+                    pool.withPage(
+                        page -> {
+                          maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                          sleep(20);
+                          active.decrementAndGet();
+                          return Thread.currentThread().getName();
+                        })));
+      }
+      for (Future<String> f : results) {
+        assertTrue(f.get(5, TimeUnit.SECONDS).startsWith("playwright-"));
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    assertTrue(maxActive.get() <= 2);
+    // у каждого воркера свой Playwright, созданный на его потоке
+    assertTrue(fake.playwrights.size() <= 2);
+    assertTrue(fake.threads.stream().allMatch(t -> t.startsWith("playwright-")));
+  }
+
+  @Test
+  void withPage_allWorkersBusy_failsAfterAcquireTimeout() throws Exception {
+    PlaywrightBrowserPool pool = pool(1, 10, 100);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService caller = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> busy =
+          caller.submit(
+              () ->
+                  pool.withPage(
+                      page -> {
+                        started.countDown();
+                        await(release);
+                        return null;
+                      }));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      IllegalStateException e =
+          assertThrows(IllegalStateException.class, () -> pool.withPage(page -> null));
+      assertTrue(e.getMessage().contains("No browser available"));
+
+      release.countDown();
+      busy.get(5, TimeUnit.SECONDS);
+      // воркер вернулся в пул
+      assertNull(pool.withPage(page -> null));
+    } finally {
+      release.countDown();
+      caller.shutdownNow();
+    }
+  }
+
+  @Test
+  void withPage_playwrightError_recreatesContextOnNextUse() {
+    PlaywrightBrowserPool pool = pool(1, 10, 1_000);
+
+    assertThrows(
+        PlaywrightException.class,
+        () ->
+            pool.withPage(
+                page -> {
+                  throw new PlaywrightException("Target closed");
+                }));
+    pool.withPage(page -> null);
+
+    assertEquals(2, fake.contexts.size());
+    verify(fake.contexts.get(0)).close();
+    verify(fake.pages.get(0)).close();
+    assertEquals(1, fake.browsers.size());
+  }
+
+  @Test
+  void withPage_disconnectedBrowser_isRelaunched() {
+    PlaywrightBrowserPool pool = pool(1, 10, 1_000);
+    pool.withPage(page -> null);
+    Browser first = fake.browsers.get(0);
+    when(first.isConnected()).thenReturn(false);
+
+    pool.withPage(page -> null);
+
+    assertEquals(2, fake.playwrights.size());
+    assertEquals(2, fake.browsers.size());
+    verify(first).close();
+    verify(fake.playwrights.get(0)).close();
+  }
+
+  @Test
+  void withPage_otherRuntimeError_keepsContextButClosesPage() {
+    PlaywrightBrowserPool pool = pool(1, 10, 1_000);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            pool.withPage(
+                page -> {
+                  throw new IllegalArgumentException("bad data");
+                }));
+    pool.withPage(page -> null);
+
+    assertEquals(1, fake.contexts.size());
+    verify(fake.pages.get(0)).close();
+  }
+
+  @Test
+  void shutdown_closesEverythingOnWorkerThreadsAndRejectsNewWork() {
+    PlaywrightBrowserPool pool = pool(2, 10, 1_000);
+    pool.withPage(page -> null);
+
+    pool.shutdown();
+
+    verify(fake.contexts.get(0)).close();
+    verify(fake.browsers.get(0)).close();
+    verify(fake.playwrights.get(0)).close();
+    assertThrows(IllegalStateException.class, () -> pool.withPage(page -> null));
+    // повторный вызов (например, из @PreDestroy после ручного) ничего не ломает
+    assertDoesNotThrow(pool::shutdown);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.model.Role;
+import com.Tsimur.Dubcast.model.User;
+import com.Tsimur.Dubcast.repository.UserRepository;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class JwtAuthenticationFilterTest {
+
+  static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+  static final long EXPIRATION = 3_600_000L;
+
+  private JwtService jwtService;
+  private UserRepository userRepository;
+  private JwtPrincipalCache principalCache;
+  private JwtRevocationRegistry revocationRegistry;
+  private JwtAuthenticationFilter filter;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    jwtService = spy(new JwtService(SECRET, EXPIRATION));
+    userRepository = mock(UserRepository.class);
+    principalCache = new JwtPrincipalCache(100, EXPIRATION);
+    revocationRegistry = mock(JwtRevocationRegistry.class);
+    filter = filter(false);
+
+    user =
+        User.builder()
+            .id(UUID.randomUUID())
+            .email("user@example.com")
+            .password("x")
+            .role(Role.ROLE_USER)
+            .build();
+    when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+  }
+
+  private JwtAuthenticationFilter filter(boolean stateless) {
+    return new JwtAuthenticationFilter(
+        jwtService,
+        userRepository,
+        principalCache,
+        stateless ? Optional.of(revocationRegistry) : Optional.empty());
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private Authentication doFilter(String authorization) throws Exception {
+    SecurityContextHolder.clearContext();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tracks");
+    request.setServletPath("/api/tracks");
+    if (authorization != null) {
+      request.addHeader("Authorization", authorization);
+    }
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // цепочка продолжается в любом случае
+    assertNotNull(chain.getRequest());
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  private static String role(Authentication auth) {
+    return auth.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Test
+  void noBearerHeader_passesThroughUnauthenticated() throws Exception {
+    assertNull(doFilter(null));
+    assertNull(doFilter("Basic abc"));
+
+    verifyNoInteractions(userRepository);
+    verify(jwtService, never()).verify(anyString());
+  }
+
+  @Test
+  void validToken_authenticatesWithRoleFromUsersTable() throws Exception {
+    String token = jwtService.generateToken(user);
+
+    Authentication auth = doFilter("Bearer " + token);
+
+    assertNotNull(auth);
+    assertEquals("user@example.com", auth.getPrincipal());
+    assertEquals("ROLE_USER", role(auth));
+  }
+
+  @Test
+  void repeatedToken_isServedFromCacheWithoutParsingOrDbLookup() throws Exception {
+    String token = jwtService.generateToken(user);
+
+    doFilter("Bearer " + token);
+    Authentication second = doFilter("Bearer " + token);
+
+    assertNotNull(second);
+    verify(jwtService, times(1)).verify(token);
+    verify(userRepository, times(1)).findByEmail("user@example.com");
+  }
+
+  @Test
+  void userAuthChanged_dropsCachedPrincipal_nextRequestSeesNewRole() throws Exception {
+    String token = jwtService.generateToken(user);
+    doFilter("Bearer " + token);
+
+    user.setRole(Role.ROLE_ADMIN);
+    principalCache.onUserAuthChanged(new UserAuthChangedEvent(user.getId()));
+    Authentication auth = doFilter("Bearer " + token);
+
+    assertEquals("ROLE_ADMIN", role(auth));
+    verify(userRepository, times(2)).findByEmail("user@example.com");
+  }
+
+  @Test
+  void invalidToken_passesThroughUnauthenticatedAndIsNotCached() throws Exception {
+    assertNull(doFilter("Bearer not-a-jwt"));
+    assertNull(doFilter("Bearer not-a-jwt"));
+
+    verify(jwtService, times(2)).verify("not-a-jwt");
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void expiredToken_passesThroughUnauthenticated() throws Exception {
+    String expired = new JwtService(SECRET, -1_000L).generateToken(user);
+
+    assertNull(doFilter("Bearer " + expired));
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void unknownUser_passesThroughUnauthenticated() throws Exception {
+    when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
+
+    assertNull(doFilter("Bearer " + jwtService.generateToken(user)));
+  }
+
+  @Test
+  void statefulMode_doesNotConsultRevocationRegistry() throws Exception {
+    doFilter("Bearer " + jwtService.generateToken(user));
+
+    verifyNoInteractions(revocationRegistry);
+  }
+
+  // ---------- stateless ----------
+
+  @Test
+  void stateless_takesUserIdAndRoleFromClaimsWithoutDbLookup() throws Exception {
+    filter = filter(true);
+
+    Authentication auth = doFilter("Bearer " + jwtService.generateToken(user));
+
+    assertEquals("user@example.com", auth.getPrincipal());
+    assertEquals("ROLE_USER", role(auth));
+    verifyNoInteractions(userRepository);
+    verify(revocationRegistry).isRevoked(eq(user.getId()), anyLong());
+  }
+
+  @Test
+  void stateless_tokenWithoutClaims_fallsBackToUsersTable() throws Exception {
+    filter = filter(true);
+    // токен старого формата: без uid
+    User legacy = User.builder().email("user@example.com").role(Role.ROLE_USER).build();
+
+    Authentication auth = doFilter("Bearer " + jwtService.generateToken(legacy));
+
+    assertEquals("ROLE_USER", role(auth));
+    verify(userRepository).findByEmail("user@example.com");
+  }
+
+  @Test
+  void stateless_revokedToken_isRejectedEvenWhenCached() throws Exception {
+    filter = filter(true);
+    String token = jwtService.generateToken(user);
+    assertNotNull(doFilter("Bearer " + token));
+
+    when(revocationRegistry.isRevoked(eq(user.getId()), anyLong())).thenReturn(true);
+
+    assertNull(doFilter("Bearer " + token));
+    verify(jwtService, times(1)).verify(token);
+  }
+}
@@ -0,0 +1,108 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Tsimur.Dubcast.security.jwt.JwtPrincipalCache.CachedPrincipal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class JwtPrincipalCacheTest {
+
+  private static final long HOUR = 3_600_000L;
+
+  private static CachedPrincipal principal(UUID userId, long tokenExpiresAtMillis) {
+    return new CachedPrincipal(
+        userId,
+        "user@example.com",
+        List.of(new SimpleGrantedAuthority("ROLE_USER")),
+        System.currentTimeMillis(),
+        tokenExpiresAtMillis);
+  }
+
+  private static CachedPrincipal principal(UUID userId) {
+    return principal(userId, System.currentTimeMillis() + HOUR);
+  }
+
+  @Test
+  void get_returnsPutPrincipal() {
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, HOUR);
+    CachedPrincipal p = principal(UUID.randomUUID());
+
+    cache.put("token", p);
+
+    assertSame(p, cache.get("token"));
+    assertNull(cache.get("other"));
+  }
+
+  @Test
+  void get_dropsEntryAfterTtl() throws Exception {
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, 50);
+    cache.put("token", principal(UUID.randomUUID()));
+
+    Thread.sleep(100);
+
+    assertNull(cache.get("token"));
+  }
+
+  @Test
+  void get_neverOutlivesTokenExpiration() throws Exception {
+    // TTL кэша час, а токен истекает через 50 мс
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, HOUR);
+    cache.put("token", principal(UUID.randomUUID(), System.currentTimeMillis() + 50));
+
+    Thread.sleep(100);
+
+    assertNull(cache.get("token"));
+  }
+
+  @Test
+  void put_alreadyExpiredToken_isNeverReturned() {
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, HOUR);
+    cache.put("token", principal(UUID.randomUUID(), System.currentTimeMillis() - 1));
+
+    assertNull(cache.get("token"));
+  }
+
+  @Test
+  void put_overMaxSize_evictsLeastRecentlyUsed() {
+    JwtPrincipalCache cache = new JwtPrincipalCache(2, HOUR);
+    cache.put("a", principal(UUID.randomUUID()));
+    cache.put("b", principal(UUID.randomUUID()));
+
+    // "a" становится самым свежим, вытеснен должен быть "b"
+    assertNotNull(cache.get("a"));
+    cache.put("c", principal(UUID.randomUUID()));
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+  }
+
+  @Test
+  void onUserAuthChanged_dropsAllTokensOfThatUserOnly() {
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, HOUR);
+    UUID changed = UUID.randomUUID();
+    UUID other = UUID.randomUUID();
+    cache.put("changed-1", principal(changed));
+    cache.put("changed-2", principal(changed));
+    cache.put("other", principal(other));
+
+    cache.onUserAuthChanged(new UserAuthChangedEvent(changed));
+
+    assertNull(cache.get("changed-1"));
+    assertNull(cache.get("changed-2"));
+    assertNotNull(cache.get("other"));
+  }
+
+  @Test
+  void clear_dropsEverything() {
+    JwtPrincipalCache cache = new JwtPrincipalCache(10, HOUR);
+    cache.put("a", principal(UUID.randomUUID()));
+
+    cache.clear();
+
+    assertNull(cache.get("a"));
+  }
+}
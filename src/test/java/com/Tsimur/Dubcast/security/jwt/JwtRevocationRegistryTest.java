@@ -0,0 +1,110 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.model.JwtRevocation;
+import com.Tsimur.Dubcast.repository.JwtRevocationRepository;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class JwtRevocationRegistryTest {
+
+  private static final long EXPIRATION = 3_600_000L;
+
+  @Mock private JwtRevocationRepository revocationRepository;
+
+  @InjectMocks private JwtRevocationRegistry registry;
+
+  private final UUID userId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(registry, "expiration", EXPIRATION);
+  }
+
+  private void loadRevocation(OffsetDateTime revokedBefore) {
+    when(revocationRepository.findAllByRevokedBeforeAfter(any()))
+        .thenReturn(List.of(new JwtRevocation(userId, revokedBefore)));
+    registry.refresh();
+  }
+
+  @Test
+  void isRevoked_onlyTokensIssuedBeforeCutoff() {
+    OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    long cutoffMillis = cutoff.toInstant().toEpochMilli();
+    loadRevocation(cutoff);
+
+    assertTrue(registry.isRevoked(userId, cutoffMillis - 1_000));
+    // токен, выданный в ту же секунду после отзыва, остаётся валидным
+    assertFalse(registry.isRevoked(userId, cutoffMillis));
+    assertFalse(registry.isRevoked(userId, cutoffMillis + 1_000));
+    assertFalse(registry.isRevoked(UUID.randomUUID(), cutoffMillis - 1_000));
+  }
+
+  @Test
+  void isRevoked_falseBeforeFirstLoad() {
+    assertFalse(registry.isRevoked(userId, 0L));
+  }
+
+  @Test
+  void refresh_purgesRowsOlderThanTokenLifetime() {
+    OffsetDateTime before = OffsetDateTime.now(ZoneOffset.UTC).minus(EXPIRATION, ChronoUnit.MILLIS);
+
+    registry.refresh();
+
+    ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+    verify(revocationRepository).deleteAllRevokedBeforeOrAt(cutoff.capture());
+    assertFalse(cutoff.getValue().isBefore(before));
+    assertTrue(cutoff.getValue().isBefore(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(59)));
+  }
+
+  @Test
+  void persistRevocation_savesCutoffTruncatedToSeconds() {
+    registry.persistRevocation(new UserAuthChangedEvent(userId));
+
+    ArgumentCaptor<JwtRevocation> saved = ArgumentCaptor.forClass(JwtRevocation.class);
+    verify(revocationRepository).save(saved.capture());
+    assertEquals(userId, saved.getValue().getUserId());
+    assertEquals(0, saved.getValue().getRevokedBefore().getNano());
+  }
+
+  @Test
+  void onRevocationCommitted_reloadsFromDb() {
+    OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).withNano(0);
+    when(revocationRepository.findAllByRevokedBeforeAfter(any()))
+        .thenReturn(List.of(new JwtRevocation(userId, cutoff)));
+
+    registry.onRevocationCommitted(new UserAuthChangedEvent(userId));
+
+    assertTrue(registry.isRevoked(userId, cutoff.toInstant().toEpochMilli() - 1));
+  }
+
+  @Test
+  void bean_existsOnlyInStatelessMode() {
+    ApplicationContextRunner runner =
+        new ApplicationContextRunner()
+            .withBean(JwtRevocationRepository.class, () -> revocationRepository)
+            .withPropertyValues("security.jwt.expiration=" + EXPIRATION)
+            .withUserConfiguration(JwtRevocationRegistry.class);
+
+    runner.run(ctx -> assertTrue(ctx.getBeansOfType(JwtRevocationRegistry.class).isEmpty()));
+    runner
+        .withPropertyValues("security.jwt.stateless=true")
+        .run(ctx -> assertNotNull(ctx.getBean(JwtRevocationRegistry.class)));
+  }
+}
@@ -0,0 +1,88 @@
+package com.Tsimur.Dubcast.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.model.Role;
+import com.Tsimur.Dubcast.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import java.util.Base64;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class JwtServiceTest {
+
+  private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+  private static final long EXPIRATION = 3_600_000L;
+
+  private final JwtService jwtService = new JwtService(SECRET, EXPIRATION);
+
+  private final User user =
+      User.builder()
+          .id(UUID.randomUUID())
+          .email("user@example.com")
+          .password("x")
+          .role(Role.ROLE_ADMIN)
+          .build();
+
+  @Test
+  void verify_returnsAllClaimsOfValidToken() {
+    Claims claims = jwtService.verify(jwtService.generateToken(user));
+
+    assertEquals("user@example.com", claims.getSubject());
+    assertEquals("ROLE_ADMIN", claims.get(JwtService.ROLE_CLAIM, String.class));
+    assertEquals(user.getId().toString(), claims.get(JwtService.USER_ID_CLAIM, String.class));
+    assertNotNull(claims.getIssuedAt());
+    assertTrue(claims.getExpiration().after(claims.getIssuedAt()));
+  }
+
+  @Test
+  void isValid_parsesTokenOnce() {
+    JwtService spy = spy(jwtService);
+    String token = jwtService.generateToken(user);
+
+    assertTrue(spy.isValid(token, user));
+
+    verify(spy, times(1)).verify(token);
+  }
+
+  @Test
+  void verify_rejectsExpiredToken() {
+    String expired = new JwtService(SECRET, -1_000L).generateToken(user);
+
+    assertThrows(ExpiredJwtException.class, () -> jwtService.verify(expired));
+  }
+
+  @Test
+  void verify_rejectsTamperedPayload() {
+    String[] parts = jwtService.generateToken(user).split("\\.");
+    // подменяем роль, подпись остаётся старой
+    String payload =
+        new String(Base64.getUrlDecoder().decode(parts[1])).replace("ROLE_ADMIN", "ROLE_USER");
+    String tampered =
+        parts[0]
+            + "."
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes())
+            + "."
+            + parts[2];
+
+    assertThrows(SignatureException.class, () -> jwtService.verify(tampered));
+  }
+
+  @Test
+  void verify_rejectsTokenSignedWithOtherKey() {
+    String foreign =
+        new JwtService("other-secret-other-secret-other-secret-0123", EXPIRATION)
+            .generateToken(user);
+
+    assertThrows(SignatureException.class, () -> jwtService.verify(foreign));
+  }
+
+  @Test
+  void verify_rejectsGarbage() {
+    assertThrows(JwtException.class, () -> jwtService.verify("not-a-jwt"));
+  }
+}
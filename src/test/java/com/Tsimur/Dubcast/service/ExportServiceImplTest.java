@@ -0,0 +1,143 @@
+package com.Tsimur.Dubcast.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.UserDto;
+import com.Tsimur.Dubcast.mapper.PlaylistMapper;
+import com.Tsimur.Dubcast.mapper.ScheduleEntryMapper;
+import com.Tsimur.Dubcast.mapper.TrackMapper;
+import com.Tsimur.Dubcast.mapper.UserMapper;
+import com.Tsimur.Dubcast.model.Playlist;
+import com.Tsimur.Dubcast.model.ScheduleEntry;
+import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.model.User;
+import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.repository.UserRepository;
+import com.Tsimur.Dubcast.service.impl.ExportServiceImpl;
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceImplTest {
+
+  private static final OffsetDateTime FROM =
+      OffsetDateTime.of(2025, 12, 8, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Mock private TrackRepository trackRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private PlaylistRepository playlistRepository;
+  @Mock private ScheduleEntryRepository scheduleEntryRepository;
+  @Mock private TrackMapper trackMapper;
+  @Mock private UserMapper userMapper;
+  @Mock private PlaylistMapper playlistMapper;
+  @Mock private ScheduleEntryMapper scheduleEntryMapper;
+  @Mock private EntityManager entityManager;
+
+  private ExportService exportService;
+
+  @BeforeEach
+  void setUp() {
+    exportService =
+        new ExportServiceImpl(
+            trackRepository,
+            userRepository,
+            playlistRepository,
+            scheduleEntryRepository,
+            trackMapper,
+            userMapper,
+            playlistMapper,
+            scheduleEntryMapper,
+            entityManager);
+  }
+
+  @Test
+  void exportTracks_handsRowsOverInOrderAndClosesTheCursor() {
+    AtomicBoolean closed = new AtomicBoolean();
+    Track first = Track.builder().id(1L).build();
+    Track second = Track.builder().id(2L).build();
+    when(trackRepository.streamAllOrderById())
+        .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+    when(trackMapper.toDto(any()))
+        .thenAnswer(inv -> TrackDto.builder().id(((Track) inv.getArgument(0)).getId()).build());
+
+    List<Long> ids = new ArrayList<>();
+    exportService.exportTracks(dto -> ids.add(dto.getId()));
+
+    assertEquals(List.of(1L, 2L), ids);
+    assertTrue(closed.get());
+    verify(entityManager, never()).clear();
+  }
+
+  @Test
+  void exportUsers_detachesReadRowsEveryBatch() {
+    int rows = 1_201;
+    when(userRepository.streamAllOrderById())
+        .thenReturn(IntStream.range(0, rows).mapToObj(i -> new User()));
+    when(userMapper.toDto(any())).thenReturn(UserDto.builder().id(UUID.randomUUID()).build());
+
+    List<UserDto> exported = new ArrayList<>();
+    exportService.exportUsers(exported::add);
+
+    assertEquals(rows, exported.size());
+    // после 500-й и 1000-й строки
+    verify(entityManager, times(2)).clear();
+  }
+
+  @Test
+  void exportPlaylists_failingSink_stillClosesTheCursor() {
+    AtomicBoolean closed = new AtomicBoolean();
+    when(playlistRepository.streamAllOrderById())
+        .thenReturn(Stream.of(new Playlist()).onClose(() -> closed.set(true)));
+    when(playlistMapper.toDto(any())).thenReturn(PlaylistDto.builder().id(1L).build());
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            exportService.exportPlaylists(
+                dto -> {
+                  throw new IllegalStateException("client gone");
+                }));
+    assertTrue(closed.get());
+  }
+
+  @Test
+  void exportSchedule_readsRange() {
+    ScheduleEntry entry = new ScheduleEntry();
+    when(scheduleEntryRepository.streamByStartTimeRange(FROM, FROM.plusDays(1)))
+        .thenReturn(Stream.of(entry));
+    ScheduleEntryDto dto = ScheduleEntryDto.builder().id(5L).build();
+    when(scheduleEntryMapper.toDto(entry)).thenReturn(dto);
+
+    List<ScheduleEntryDto> exported = new ArrayList<>();
+    exportService.exportSchedule(FROM, FROM.plusDays(1), exported::add);
+
+    assertEquals(List.of(dto), exported);
+  }
+
+  @Test
+  void exportSchedule_emptyRange_throwsWithoutQuery() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> exportService.exportSchedule(FROM, FROM, dto -> fail("no rows expected")));
+    verifyNoInteractions(scheduleEntryRepository);
+  }
+}
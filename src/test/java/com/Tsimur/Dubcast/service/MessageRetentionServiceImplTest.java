@@ -0,0 +1,128 @@
+package com.Tsimur.Dubcast.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.repository.MessageRepository;
+import com.Tsimur.Dubcast.service.impl.MessageRetentionServiceImpl;
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MessageRetentionServiceImplTest {
+
+  private static final OffsetDateTime NOW =
+      OffsetDateTime.of(2026, 3, 15, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Mock private MessageRepository messageRepository;
+
+  private MessageRetentionServiceImpl service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    service = new MessageRetentionServiceImpl(messageRepository);
+    setField("retentionEnabled", true);
+    setField("keepMonths", 3);
+    setField("mode", MessageRetentionServiceImpl.Mode.DETACH);
+    setField("premakeMonths", 2);
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field f = MessageRetentionServiceImpl.class.getDeclaredField(name);
+    f.setAccessible(true);
+    f.set(service, value);
+  }
+
+  // ========= ensureUpcomingPartitions =========
+
+  @Test
+  void ensureUpcomingPartitions_createsCurrentAndLookaheadMonths() {
+    when(messageRepository.ensurePartition(any(LocalDate.class)))
+        .thenAnswer(inv -> "p_" + inv.getArgument(0));
+
+    List<String> result = service.ensureUpcomingPartitions(NOW);
+
+    assertEquals(3, result.size());
+    verify(messageRepository).ensurePartition(LocalDate.of(2026, 3, 1));
+    verify(messageRepository).ensurePartition(LocalDate.of(2026, 4, 1));
+    verify(messageRepository).ensurePartition(LocalDate.of(2026, 5, 1));
+    verifyNoMoreInteractions(messageRepository);
+  }
+
+  @Test
+  void ensureUpcomingPartitions_usesUtcMonth() {
+    // 1 апреля 01:00 в +03:00 — это ещё март по UTC
+    OffsetDateTime local = OffsetDateTime.of(2026, 4, 1, 1, 0, 0, 0, ZoneOffset.ofHours(3));
+    when(messageRepository.ensurePartition(any(LocalDate.class))).thenReturn("p");
+
+    service.ensureUpcomingPartitions(local);
+
+    verify(messageRepository).ensurePartition(LocalDate.of(2026, 3, 1));
+  }
+
+  // ========= applyRetention =========
+
+  @Test
+  void applyRetention_retiresOnlyMonthsOutsideWindow() {
+    when(messageRepository.findPartitionNames())
+        .thenReturn(
+            List.of(
+                "messages_p2025_11",
+                "messages_p2025_12",
+                "messages_p2026_01",
+                "messages_p2026_02",
+                "messages_p2026_03",
+                "messages_p2026_04"));
+    when(messageRepository.retirePartition(anyString(), eq(false))).thenReturn(true);
+
+    List<String> retired = service.applyRetention(NOW);
+
+    // keep 3 months: 2026-01, 2026-02, 2026-03
+    assertEquals(List.of("messages_p2025_11", "messages_p2025_12"), retired);
+    verify(messageRepository).retirePartition("messages_p2025_11", false);
+    verify(messageRepository).retirePartition("messages_p2025_12", false);
+    verify(messageRepository, never()).retirePartition(eq("messages_p2026_01"), anyBoolean());
+  }
+
+  @Test
+  void applyRetention_dropMode_passesDropFlag() throws Exception {
+    setField("mode", MessageRetentionServiceImpl.Mode.DROP);
+    when(messageRepository.findPartitionNames()).thenReturn(List.of("messages_p2020_01"));
+    when(messageRepository.retirePartition("messages_p2020_01", true)).thenReturn(true);
+
+    assertEquals(List.of("messages_p2020_01"), service.applyRetention(NOW));
+  }
+
+  @Test
+  void applyRetention_ignoresForeignPartitionNames() {
+    when(messageRepository.findPartitionNames())
+        .thenReturn(List.of("messages_archive", "messages_p20xx_01", "other_2020_01"));
+
+    assertTrue(service.applyRetention(NOW).isEmpty());
+    verify(messageRepository, never()).retirePartition(anyString(), anyBoolean());
+  }
+
+  @Test
+  void applyRetention_disabled_doesNothing() throws Exception {
+    setField("retentionEnabled", false);
+
+    assertTrue(service.applyRetention(NOW).isEmpty());
+    verifyNoInteractions(messageRepository);
+  }
+
+  @Test
+  void applyRetention_partitionAlreadyGone_notReported() {
+    when(messageRepository.findPartitionNames()).thenReturn(List.of("messages_p2020_01"));
+    when(messageRepository.retirePartition("messages_p2020_01", false)).thenReturn(false);
+
+    assertTrue(service.applyRetention(NOW).isEmpty());
+  }
+}
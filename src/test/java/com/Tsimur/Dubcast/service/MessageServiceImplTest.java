@@ -10,6 +10,7 @@ import com.Tsimur.Dubcast.model.User;
 import com.Tsimur.Dubcast.repository.MessageRepository;
 import com.Tsimur.Dubcast.repository.UserRepository;
 import com.Tsimur.Dubcast.service.impl.MessageServiceImpl;
+import com.Tsimur.Dubcast.websocket.ChatMessageCreatedEvent;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +21,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -33,6 +35,8 @@ class MessageServiceImplTest {
 
   @Mock private ChatMessageMapper chatMessageMapper;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private MessageServiceImpl messageService;
 
   // ========= saveMessage =========
@@ -114,6 +118,48 @@ class MessageServiceImplTest {
     verifyNoInteractions(messageRepository, chatMessageMapper);
   }
 
+  // ========= saveMessageAndPublish =========
+
+  @Test
+  void saveMessageAndPublish_publishesSingleEventWithSavedDto() {
+    String email = "user@example.com";
+    User user = new User();
+    user.setEmail(email);
+
+    Message savedMessage = new Message();
+    savedMessage.setId(7L);
+    ChatMessageDto dto =
+        ChatMessageDto.builder()
+            .id(7L)
+            .username("user")
+            .text("hi")
+            .createdAt(OffsetDateTime.now())
+            .build();
+
+    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    when(messageRepository.save(any(Message.class))).thenReturn(savedMessage);
+    when(chatMessageMapper.toDto(savedMessage)).thenReturn(dto);
+
+    long before = System.nanoTime();
+    ChatMessageDto result = messageService.saveMessageAndPublish("hi", email);
+
+    assertSame(dto, result);
+    ArgumentCaptor<ChatMessageCreatedEvent> eventCaptor =
+        ArgumentCaptor.forClass(ChatMessageCreatedEvent.class);
+    verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+    assertSame(dto, eventCaptor.getValue().message());
+    assertTrue(eventCaptor.getValue().acceptedAtNanos() >= before);
+  }
+
+  @Test
+  void saveMessageAndPublish_invalidText_doesNotPublish() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> messageService.saveMessageAndPublish("  ", "user@example.com"));
+
+    verifyNoInteractions(eventPublisher);
+  }
+
   // ========= getLastMessages =========
 
   @Test
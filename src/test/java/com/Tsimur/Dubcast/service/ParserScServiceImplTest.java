@@ -6,9 +6,25 @@ import static org.mockito.Mockito.*;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
 import com.Tsimur.Dubcast.dto.response.SoundcloudOEmbedResponse;
+import com.Tsimur.Dubcast.scraper.PlaylistHydrationReader;
+import com.Tsimur.Dubcast.scraper.PlaywrightBrowserPool;
 import com.Tsimur.Dubcast.service.SoundcloudApiClient;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudLookupCache;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudResilience;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Page;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +48,8 @@ class ParserScServiceImplTest {
   private RestTemplate restTemplate;
   private ObjectMapper objectMapper;
   private SoundcloudApiClient soundcloudApiClient;
+  private PlaywrightBrowserPool browserPool;
+  private final ExecutorService stubFetchExecutor = Executors.newFixedThreadPool(4);
 
   // we use a spy to stub getDurationSecondsByUrl in parseTracksByUrl
   private ParserScServiceImpl service;
@@ -42,12 +60,30 @@ class ParserScServiceImplTest {
     objectMapper = new ObjectMapper(); // real mapper is fine here
     soundcloudApiClient = mock(SoundcloudApiClient.class);
 
-    service = Mockito.spy(new ParserScServiceImpl(restTemplate, objectMapper, soundcloudApiClient));
+    browserPool = mock(PlaywrightBrowserPool.class);
+
+    service =
+        Mockito.spy(
+            new ParserScServiceImpl(
+                restTemplate,
+                objectMapper,
+                soundcloudApiClient,
+                browserPool,
+                new SoundcloudLookupCache(
+                    objectMapper, new SimpleMeterRegistry(), 100, 60_000, 60_000, ""),
+                new SoundcloudResilience(
+                    new SimpleMeterRegistry(), 16, 200, 1, 0, 0, 20, 10, 50, 30_000),
+                stubFetchExecutor));
 
     // inject @Value field manually
     ReflectionTestUtils.setField(service, "oEmbedBaseUrl", "https://soundcloud.com/oembed");
   }
 
+  @AfterEach
+  void tearDown() {
+    stubFetchExecutor.shutdownNow();
+  }
+
   // ==================== parseTracksByUrl ====================
 
   @Test
@@ -114,6 +150,23 @@ class ParserScServiceImplTest {
     assertTrue(ex.getMessage().contains("Empty response from SoundCloud oEmbed API"));
   }
 
+  @Test
+  void parseThenEmbedSameTrack_callsOEmbedOnce() {
+    String trackUrl = "https://soundcloud.com/artist/track";
+    SoundcloudOEmbedResponse oembed = new SoundcloudOEmbedResponse();
+    oembed.setTitle("Cool Track");
+    oembed.setHtml("<iframe></iframe>");
+    when(restTemplate.getForObject(anyString(), eq(SoundcloudOEmbedResponse.class)))
+        .thenReturn(oembed);
+    doReturn(180).when(service).getDurationSecondsByUrl(anyString());
+
+    service.parseTracksByUrl(trackUrl);
+    String html = service.fetchOEmbedHtml(trackUrl + "?si=share-token");
+
+    assertEquals("<iframe></iframe>", html);
+    verify(restTemplate, times(1)).getForObject(anyString(), eq(SoundcloudOEmbedResponse.class));
+  }
+
   // ==================== getDurationSecondsByUrl ====================
 
   @Test
@@ -194,11 +247,141 @@ class ParserScServiceImplTest {
 
   // ==================== parsePlaylistByUrl ====================
   //
-  // Intentionally NOT unit-tested here, because it:
-  //  - Uses Playwright (browser automation, JS execution)
-  //  - Requires either static mocking (Playwright.create) or real network
-  //
-  // This part is better covered by integration / system tests,
-  // not by pure unit tests with Mockito.
-  //
+  // The browser itself comes from PlaywrightBrowserPool, which is mocked here to return what the
+  // in-page extraction yields for a recorded playlist page: the playlist entry's data.
+
+  private String fixture(String name) throws Exception {
+    try (var in = getClass().getResourceAsStream("/fixtures/soundcloud/" + name)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void parsePlaylistByUrl_usesPooledBrowserAndHydratesStubTracks() throws Exception {
+    doReturn(fixture("playlist-data.json")).when(browserPool).withPage(any());
+
+    when(soundcloudApiClient.getTrack(2L))
+        .thenReturn(
+            objectMapper.readTree(
+                """
+                {"id":2,"permalink_url":"https://soundcloud.com/artist/stub",
+                 "title":"Stub track","duration":200500,"artwork_url":null}
+                """));
+    when(soundcloudApiClient.getTrack(3L)).thenThrow(new RuntimeException("404"));
+
+    var result = service.parsePlaylistByUrl("https://soundcloud.com/artist/sets/fixture");
+
+    assertEquals(2, result.size());
+    assertEquals("Full track", result.get(0).getTitle());
+    assertEquals(185, result.get(0).getDurationSeconds());
+    assertEquals("https://i1.sndcdn.com/artworks-1-t500x500.jpg", result.get(0).getArtworkUrl());
+    assertEquals("Stub track", result.get(1).getTitle());
+    assertEquals(200, result.get(1).getDurationSeconds());
+
+    verify(browserPool, times(1)).withPage(any());
+    verify(soundcloudApiClient, never()).getTrack(1L);
+  }
+
+  @Test
+  void parsePlaylistByUrl_stubsResolvedInBatch_singleFetchOnlyForMissingIds() throws Exception {
+    doReturn(fixture("playlist-data.json")).when(browserPool).withPage(any());
+
+    // batch returns only id=2; id=3 goes to the single-track fallback and fails in isolation
+    when(soundcloudApiClient.getTracks(List.of(2L, 3L)))
+        .thenReturn(
+            List.of(
+                objectMapper.readTree(
+                    """
+                    {"id":2,"permalink_url":"https://soundcloud.com/artist/stub",
+                     "title":"Stub track","duration":200500}
+                    """)));
+    when(soundcloudApiClient.getTrack(3L)).thenThrow(new RuntimeException("404"));
+
+    var result = service.parsePlaylistByUrl("https://soundcloud.com/artist/sets/fixture");
+
+    assertEquals(
+        List.of("Full track", "Stub track"), result.stream().map(TrackDto::getTitle).toList());
+    verify(soundcloudApiClient, times(1)).getTracks(any());
+    verify(soundcloudApiClient, never()).getTrack(2L);
+    verify(soundcloudApiClient).getTrack(3L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void parsePlaylistByUrl_manyStubs_chunkedConcurrentlyAndKeepPlaylistOrder() throws Exception {
+    int stubCount = 120;
+    StringBuilder tracks = new StringBuilder();
+    for (int id = 1; id <= stubCount; id++) {
+      tracks.append(id > 1 ? "," : "").append("{\"id\":").append(id).append('}');
+    }
+    doReturn("{\"tracks\":[" + tracks + "]}").when(browserPool).withPage(any());
+
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(soundcloudApiClient.getTracks(any()))
+        .thenAnswer(
+            inv -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(50);
+              List<JsonNode> out = new ArrayList<>();
+              for (Long id : (Collection<Long>) inv.getArgument(0)) {
+                out.add(
+                    objectMapper.readTree(
+                        "{\"id\":%d,\"permalink_url\":\"https://soundcloud.com/a/t%d\",\"title\":\"T%d\",\"duration\":60000}"
+                            .formatted(id, id, id)));
+              }
+              // SoundCloud не гарантирует порядок в ответе
+              Collections.reverse(out);
+              inFlight.decrementAndGet();
+              return out;
+            });
+
+    var result = service.parsePlaylistByUrl("https://soundcloud.com/artist/sets/big");
+
+    assertEquals(stubCount, result.size());
+    for (int i = 0; i < stubCount; i++) {
+      assertEquals("T" + (i + 1), result.get(i).getTitle());
+    }
+    verify(soundcloudApiClient, times(3)).getTracks(argThat(ids -> ids.size() <= 50));
+    verify(soundcloudApiClient, never()).getTrack(anyLong());
+    assertTrue(maxInFlight.get() > 1, "batches should run concurrently");
+  }
+
+  @Test
+  void parsePlaylistByUrl_noPlaylistInHydration_returnsEmptyList() {
+    doReturn(null).when(browserPool).withPage(any());
+
+    assertTrue(service.parsePlaylistByUrl("https://soundcloud.com/artist").isEmpty());
+    verifyNoInteractions(soundcloudApiClient);
+  }
+
+  @Test
+  void parsePlaylistByUrl_browserFailure_isWrapped() {
+    doThrow(new IllegalStateException("No browser available")).when(browserPool).withPage(any());
+
+    RuntimeException ex =
+        assertThrows(
+            RuntimeException.class,
+            () -> service.parsePlaylistByUrl("https://soundcloud.com/artist/sets/x"));
+    assertTrue(ex.getMessage().contains("Failed to parse playlist via Playwright"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void parsePlaylistByUrl_lightweightMode_blocksResourcesAndWaitsForHydrationOnly() {
+    String url = "https://soundcloud.com/artist/sets/x";
+    Page page = mock(Page.class);
+    when(page.evaluate(anyString())).thenReturn("{\"tracks\":[]}");
+    doAnswer(inv -> ((Function<Page, Object>) inv.getArgument(0)).apply(page))
+        .when(browserPool)
+        .withPage(any());
+
+    service.parsePlaylistByUrl(url);
+
+    verify(page).route(eq("**/*"), any());
+    verify(page).navigate(eq(url), any(Page.NavigateOptions.class));
+    verify(page).waitForFunction(eq("() => Array.isArray(window.__sc_hydration)"), isNull(), any());
+    verify(page, never()).waitForLoadState(any());
+    verify(page).evaluate(PlaylistHydrationReader.EXTRACT_PLAYLIST_DATA);
+  }
 }
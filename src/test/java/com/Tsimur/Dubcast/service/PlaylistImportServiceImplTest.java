@@ -0,0 +1,407 @@
+package com.Tsimur.Dubcast.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.Tsimur.Dubcast.dto.PlaylistDto;
+import com.Tsimur.Dubcast.dto.PlaylistImportJobDto;
+import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.mapper.PlaylistImportJobMapper;
+import com.Tsimur.Dubcast.model.Playlist;
+import com.Tsimur.Dubcast.model.PlaylistImportJob;
+import com.Tsimur.Dubcast.model.PlaylistImportStatus;
+import com.Tsimur.Dubcast.repository.PlaylistImportJobRepository;
+import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.service.impl.PlaylistImportServiceImpl;
+import com.Tsimur.Dubcast.websocket.PlaylistImportProgressEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class PlaylistImportServiceImplTest {
+
+  private static final String URL = "https://soundcloud.com/user/sets/my-set";
+
+  @Mock private PlaylistImportJobRepository jobRepository;
+  @Mock private PlaylistRepository playlistRepository;
+  @Mock private PlaylistService playlistService;
+  @Mock private ParserService parserService;
+  @Mock private TrackService trackService;
+  @Mock private PlaylistImportJobMapper jobMapper;
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  private PlaylistImportServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    // настоящий шаблон поверх мок-менеджера: колбэки выполняются синхронно
+    TransactionTemplate transactionTemplate =
+        new TransactionTemplate(mock(PlatformTransactionManager.class));
+    service =
+        new PlaylistImportServiceImpl(
+            jobRepository,
+            playlistRepository,
+            playlistService,
+            parserService,
+            trackService,
+            jobMapper,
+            eventPublisher,
+            transactionTemplate);
+    ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+    lenient()
+        .when(jobMapper.toDto(any()))
+        .thenAnswer(
+            inv -> {
+              PlaylistImportJob job = inv.getArgument(0);
+              return PlaylistImportJobDto.builder()
+                  .id(job.getId())
+                  .status(job.getStatus())
+                  .processedTracks(job.getProcessedTracks())
+                  .totalTracks(job.getTotalTracks())
+                  .build();
+            });
+    lenient()
+        .when(jobRepository.save(any(PlaylistImportJob.class)))
+        .thenAnswer(inv -> inv.getArgument(0));
+  }
+
+  private static List<TrackDto> tracks(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                TrackDto.builder()
+                    .soundcloudUrl("https://soundcloud.com/user/t" + i)
+                    .title("T" + i)
+                    .durationSeconds(100)
+                    .build())
+        .toList();
+  }
+
+  private List<PlaylistImportJobDto> publishedProgress() {
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(eventPublisher, atLeast(0)).publishEvent(captor.capture());
+    List<PlaylistImportJobDto> out = new ArrayList<>();
+    for (Object e : captor.getAllValues()) {
+      if (e instanceof PlaylistImportProgressEvent p) {
+        out.add(p.job());
+      }
+    }
+    return out;
+  }
+
+  private List<PlaylistImportJob> saved() {
+    ArgumentCaptor<PlaylistImportJob> captor = ArgumentCaptor.forClass(PlaylistImportJob.class);
+    verify(jobRepository, atLeast(0)).save(captor.capture());
+    return captor.getAllValues();
+  }
+
+  // ======================== submit ========================
+
+  @Test
+  void submit_existingPlaylist_throws() {
+    when(playlistRepository.findByScPlaylistUrl(URL)).thenReturn(Optional.of(new Playlist()));
+
+    assertThrows(IllegalArgumentException.class, () -> service.submit(URL));
+    verify(jobRepository, never()).save(any());
+  }
+
+  @Test
+  void submit_playlistLeftByFailedImport_requeuesThatJob() {
+    Playlist playlist = new Playlist();
+    playlist.setId(42L);
+    UUID id = UUID.randomUUID();
+    PlaylistImportJob failed =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.FAILED)
+            .playlistId(42L)
+            .tracks(tracks(4))
+            .totalTracks(4)
+            .processedTracks(2)
+            .error("db down")
+            .build();
+    when(playlistRepository.findByScPlaylistUrl(URL)).thenReturn(Optional.of(playlist));
+    when(jobRepository.findFirstByPlaylistUrlAndStatusOrderByCreatedAtDesc(
+            URL, PlaylistImportStatus.FAILED))
+        .thenReturn(Optional.of(failed));
+
+    PlaylistImportJobDto dto = service.submit(URL);
+
+    assertEquals(id, dto.getId());
+    assertEquals(PlaylistImportStatus.QUEUED, dto.getStatus());
+    assertEquals(2, dto.getProcessedTracks());
+    assertNull(failed.getError());
+    assertEquals(List.of(failed), saved());
+    verify(eventPublisher).publishEvent(new PlaylistImportServiceImpl.JobSubmittedEvent(id));
+  }
+
+  @Test
+  void submit_existingPlaylistOfAnotherFailedImport_throws() {
+    Playlist playlist = new Playlist();
+    playlist.setId(42L);
+    when(playlistRepository.findByScPlaylistUrl(URL)).thenReturn(Optional.of(playlist));
+    when(jobRepository.findFirstByPlaylistUrlAndStatusOrderByCreatedAtDesc(
+            URL, PlaylistImportStatus.FAILED))
+        .thenReturn(
+            Optional.of(
+                PlaylistImportJob.builder()
+                    .id(UUID.randomUUID())
+                    .playlistUrl(URL)
+                    .status(PlaylistImportStatus.FAILED)
+                    .build()));
+
+    IllegalArgumentException ex =
+        assertThrows(IllegalArgumentException.class, () -> service.submit(URL));
+    assertTrue(ex.getMessage().contains("already exists"));
+    verify(jobRepository, never()).save(any());
+  }
+
+  @Test
+  void submit_importAlreadyRunning_throws() {
+    when(playlistRepository.findByScPlaylistUrl(URL)).thenReturn(Optional.empty());
+    when(jobRepository.existsByPlaylistUrlAndStatusIn(eq(URL), any())).thenReturn(true);
+
+    IllegalArgumentException ex =
+        assertThrows(IllegalArgumentException.class, () -> service.submit(URL));
+    assertTrue(ex.getMessage().contains("already in progress"));
+  }
+
+  @Test
+  void submit_savesQueuedJobAndDefersExecutionToCommit() {
+    when(playlistRepository.findByScPlaylistUrl(URL)).thenReturn(Optional.empty());
+
+    PlaylistImportJobDto dto = service.submit(URL);
+
+    assertEquals(PlaylistImportStatus.QUEUED, dto.getStatus());
+    assertNotNull(dto.getId());
+    verify(eventPublisher)
+        .publishEvent(new PlaylistImportServiceImpl.JobSubmittedEvent(dto.getId()));
+    verifyNoInteractions(parserService);
+  }
+
+  // ======================== runJob ========================
+
+  @Test
+  void runJob_scrapesOnceThenImportsInChunksWithRunningPositions() {
+    UUID id = UUID.randomUUID();
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.QUEUED)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    List<TrackDto> parsed = tracks(5);
+    when(parserService.parsePlaylistByUrl(URL)).thenReturn(parsed);
+    when(playlistService.create(any())).thenReturn(PlaylistDto.builder().id(42L).build());
+
+    service.runJob(id);
+
+    ArgumentCaptor<PlaylistDto> created = ArgumentCaptor.forClass(PlaylistDto.class);
+    verify(playlistService).create(created.capture());
+    assertEquals(URL, created.getValue().getSoundcloudUrl());
+    assertEquals("my set", created.getValue().getTitle());
+
+    verify(playlistService).appendImportedTracks(42L, parsed.subList(0, 2), 0);
+    verify(playlistService).appendImportedTracks(42L, parsed.subList(2, 4), 2);
+    verify(playlistService).appendImportedTracks(42L, parsed.subList(4, 5), 4);
+    verify(jobRepository).updateProgress(eq(id), eq(2), any());
+    verify(jobRepository).updateProgress(eq(id), eq(4), any());
+    verify(jobRepository).updateProgress(eq(id), eq(5), any());
+    verify(jobRepository).updateStatus(eq(id), eq(PlaylistImportStatus.COMPLETED), isNull(), any());
+
+    List<PlaylistImportJobDto> progress = publishedProgress();
+    assertEquals(PlaylistImportStatus.SCRAPING, progress.get(0).getStatus());
+    assertEquals(PlaylistImportStatus.COMPLETED, progress.get(progress.size() - 1).getStatus());
+    assertEquals(5, progress.get(progress.size() - 1).getProcessedTracks());
+    verify(trackService).storeMissingEmbedCodes(42L);
+  }
+
+  @Test
+  void runJob_resumesFromLastCommittedChunkWithoutScraping() {
+    UUID id = UUID.randomUUID();
+    List<TrackDto> parsed = tracks(5);
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.IMPORTING)
+            .playlistId(42L)
+            .tracks(parsed)
+            .totalTracks(5)
+            .processedTracks(4)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+
+    service.runJob(id);
+
+    verifyNoInteractions(parserService);
+    verify(playlistService, never()).create(any());
+    verify(playlistService, times(1)).appendImportedTracks(anyLong(), anyList(), anyInt());
+    verify(playlistService).appendImportedTracks(42L, parsed.subList(4, 5), 4);
+    verify(jobRepository).updateStatus(eq(id), eq(PlaylistImportStatus.COMPLETED), isNull(), any());
+  }
+
+  @Test
+  void runJob_chunkFailure_marksJobFailedAndKeepsCommittedProgress() {
+    UUID id = UUID.randomUUID();
+    List<TrackDto> parsed = tracks(4);
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.IMPORTING)
+            .playlistId(42L)
+            .tracks(parsed)
+            .totalTracks(4)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    doNothing()
+        .doThrow(new IllegalStateException("db down"))
+        .when(playlistService)
+        .appendImportedTracks(anyLong(), anyList(), anyInt());
+
+    service.runJob(id);
+
+    verify(jobRepository).updateProgress(eq(id), eq(2), any());
+    verify(jobRepository, never()).updateProgress(eq(id), eq(4), any());
+    verify(jobRepository)
+        .updateStatus(eq(id), eq(PlaylistImportStatus.FAILED), eq("db down"), any());
+    verifyNoInteractions(trackService);
+    List<PlaylistImportJobDto> progress = publishedProgress();
+    assertEquals(PlaylistImportStatus.FAILED, progress.get(progress.size() - 1).getStatus());
+  }
+
+  @Test
+  void runJob_interruptedChunk_leavesJobActiveForResume() {
+    UUID id = UUID.randomUUID();
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.IMPORTING)
+            .playlistId(42L)
+            .tracks(tracks(4))
+            .totalTracks(4)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    doNothing()
+        .doThrow(new IllegalStateException("aborted", new InterruptedException()))
+        .when(playlistService)
+        .appendImportedTracks(anyLong(), anyList(), anyInt());
+
+    try {
+      service.runJob(id);
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+
+    verify(jobRepository).updateProgress(eq(id), eq(2), any());
+    verify(jobRepository, never()).updateStatus(any(), any(), any(), any());
+    verifyNoInteractions(trackService);
+  }
+
+  @Test
+  void runJob_failureDuringShutdown_leavesJobActiveForResume() throws Exception {
+    UUID id = UUID.randomUUID();
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.QUEUED)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    // браузер закрыли вместе с приложением
+    when(parserService.parsePlaylistByUrl(URL))
+        .thenThrow(new IllegalStateException("Browser has been closed"));
+    service.start();
+    service.stop();
+
+    try {
+      service.runJob(id);
+    } finally {
+      Thread.interrupted();
+    }
+
+    verify(jobRepository).updateStatus(eq(id), eq(PlaylistImportStatus.SCRAPING), isNull(), any());
+    verify(jobRepository, never())
+        .updateStatus(eq(id), eq(PlaylistImportStatus.FAILED), any(), any());
+    verify(playlistService, never()).create(any());
+  }
+
+  @Test
+  void runJob_embedBackfillFailure_doesNotFailCompletedJob() {
+    UUID id = UUID.randomUUID();
+    List<TrackDto> parsed = tracks(1);
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.IMPORTING)
+            .playlistId(42L)
+            .tracks(parsed)
+            .totalTracks(1)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    when(trackService.storeMissingEmbedCodes(42L)).thenThrow(new IllegalStateException("down"));
+
+    service.runJob(id);
+
+    verify(jobRepository).updateStatus(eq(id), eq(PlaylistImportStatus.COMPLETED), isNull(), any());
+    verify(jobRepository, never())
+        .updateStatus(eq(id), eq(PlaylistImportStatus.FAILED), any(), any());
+  }
+
+  @Test
+  void runJob_emptyScrape_failsWithoutCreatingPlaylist() {
+    UUID id = UUID.randomUUID();
+    PlaylistImportJob job =
+        PlaylistImportJob.builder()
+            .id(id)
+            .playlistUrl(URL)
+            .status(PlaylistImportStatus.QUEUED)
+            .build();
+    when(jobRepository.findById(id)).thenReturn(Optional.of(job));
+    when(parserService.parsePlaylistByUrl(URL)).thenReturn(List.of());
+
+    service.runJob(id);
+
+    verify(playlistService, never()).create(any());
+    verify(jobRepository)
+        .updateStatus(
+            eq(id),
+            eq(PlaylistImportStatus.FAILED),
+            contains("Playlist is empty or cannot be parsed"),
+            any());
+  }
+
+  @Test
+  void runJob_finishedJob_isIgnored() {
+    UUID id = UUID.randomUUID();
+    when(jobRepository.findById(id))
+        .thenReturn(
+            Optional.of(
+                PlaylistImportJob.builder().id(id).status(PlaylistImportStatus.COMPLETED).build()));
+
+    service.runJob(id);
+
+    verifyNoInteractions(parserService, playlistService, eventPublisher);
+  }
+}
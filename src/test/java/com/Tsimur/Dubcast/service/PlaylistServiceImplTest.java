@@ -7,12 +7,14 @@ import static org.mockito.Mockito.*;
 import com.Tsimur.Dubcast.dto.PlaylistDto;
 import com.Tsimur.Dubcast.dto.PlaylistTrackDto;
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.PlaylistMapper;
 import com.Tsimur.Dubcast.mapper.PlaylistTrackMapper;
 import com.Tsimur.Dubcast.model.Playlist;
 import com.Tsimur.Dubcast.model.PlaylistTrack;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
 import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
 import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
@@ -20,6 +22,7 @@ import com.Tsimur.Dubcast.repository.TrackRepository;
 import com.Tsimur.Dubcast.service.impl.PlaylistServiceImpl;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +30,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 /**
  * Unit tests for PlaylistServiceImpl.
@@ -51,6 +56,8 @@ class PlaylistServiceImplTest {
 
   @Mock private ScheduleEntryRepository scheduleEntryRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   private PlaylistService playlistService;
 
   @BeforeEach
@@ -63,7 +70,8 @@ class PlaylistServiceImplTest {
             playlistMapper,
             playlistTrackMapper,
             parserService,
-            scheduleEntryRepository);
+            scheduleEntryRepository,
+            eventPublisher);
   }
 
   // ======================== create ========================
@@ -379,21 +387,13 @@ class PlaylistServiceImplTest {
 
     when(playlistRepository.save(any(Playlist.class))).thenReturn(savedPlaylist);
 
-    // 4) Track repository: both tracks are new
-    when(trackRepository.findByScUrl(anyString())).thenReturn(Optional.empty());
-    when(trackRepository.save(any(Track.class)))
-        .thenAnswer(
-            inv -> {
-              Track track = inv.getArgument(0);
-              if (track.getId() == null) {
-                track.setId(100L);
-              }
-              return track;
-            });
-
-    // 5) PlaylistTrackRepository: just return the entity itself
-    when(playlistTrackRepository.save(any(PlaylistTrack.class)))
-        .thenAnswer(inv -> inv.getArgument(0));
+    // 4) Track repository: both tracks are new and inserted in one statement
+    when(trackRepository.findAllByScUrlIn(anyCollection())).thenReturn(List.of());
+    when(trackRepository.insertMissing(any(), any(), any(), any()))
+        .thenReturn(
+            List.of(
+                new Object[] {100L, "https://soundcloud.com/user/track1"},
+                new Object[] {101L, "https://soundcloud.com/user/track2"}));
 
     // 6) Reloaded playlist for final mapping
     Playlist reloaded = new Playlist();
@@ -433,9 +433,98 @@ class PlaylistServiceImplTest {
 
     // verify tracks are processed
     verify(parserService).parsePlaylistByUrl(url);
-    verify(trackRepository, times(2)).findByScUrl(anyString());
-    verify(playlistTrackRepository, times(2)).save(any(PlaylistTrack.class));
+    verify(trackRepository, times(1)).findAllByScUrlIn(anyCollection());
+    verify(trackRepository, times(1)).insertMissing(any(), any(), any(), any());
+    verify(trackRepository, never()).findByScUrl(anyString());
+    verify(playlistTrackRepository).insertAll(10L, new Long[] {100L, 101L}, new Integer[] {0, 1});
+    verify(playlistTrackRepository, never()).save(any(PlaylistTrack.class));
     verify(playlistRepository).findById(10L);
     verify(playlistMapper).toDto(reloaded);
   }
+
+  // ======================== appendImportedTracks ========================
+
+  @Test
+  void appendImportedTracks_reusesExistingTracksAndInsertsOnlyMissingOnes() {
+    Playlist playlist = new Playlist();
+    playlist.setId(10L);
+    when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
+
+    Track existing = new Track();
+    existing.setId(7L);
+    existing.setScUrl("https://soundcloud.com/user/old");
+    when(trackRepository.findAllByScUrlIn(anyCollection())).thenReturn(List.of(existing));
+    when(trackRepository.insertMissing(any(), any(), any(), any()))
+        .thenReturn(List.<Object[]>of(new Object[] {8L, "https://soundcloud.com/user/new"}));
+
+    TrackDto old = TrackDto.builder().soundcloudUrl("https://soundcloud.com/user/old").build();
+    TrackDto fresh =
+        TrackDto.builder()
+            .soundcloudUrl("https://soundcloud.com/user/new")
+            .title("New")
+            .durationSeconds(90)
+            .build();
+
+    // the same new track twice in one playlist is inserted once
+    playlistService.appendImportedTracks(10L, List.of(old, fresh, fresh), 100);
+
+    ArgumentCaptor<String[]> urls = ArgumentCaptor.forClass(String[].class);
+    ArgumentCaptor<Integer[]> durations = ArgumentCaptor.forClass(Integer[].class);
+    verify(trackRepository).insertMissing(urls.capture(), any(), durations.capture(), any());
+    assertArrayEquals(new String[] {"https://soundcloud.com/user/new"}, urls.getValue());
+    assertArrayEquals(new Integer[] {90}, durations.getValue());
+
+    verify(playlistTrackRepository)
+        .insertAll(10L, new Long[] {7L, 8L, 8L}, new Integer[] {100, 101, 102});
+    verify(trackRepository, never()).save(any(Track.class));
+    verify(eventPublisher)
+        .publishEvent(
+            new TracksChangedEvent(
+                Map.of(8L, new TracksChangedEvent.Playable("https://soundcloud.com/user/new", 90)),
+                List.of()));
+  }
+
+  @Test
+  void appendImportedTracks_trackInsertedConcurrently_isReadBack() {
+    Playlist playlist = new Playlist();
+    playlist.setId(10L);
+    when(playlistRepository.findById(10L)).thenReturn(Optional.of(playlist));
+
+    Track raced = new Track();
+    raced.setId(9L);
+    raced.setScUrl("https://soundcloud.com/user/raced");
+    when(trackRepository.findAllByScUrlIn(anyCollection()))
+        .thenReturn(List.of())
+        .thenReturn(List.of(raced));
+    when(trackRepository.insertMissing(any(), any(), any(), any())).thenReturn(List.of());
+
+    playlistService.appendImportedTracks(
+        10L,
+        List.of(
+            TrackDto.builder()
+                .soundcloudUrl("https://soundcloud.com/user/raced")
+                .title("Raced")
+                .durationSeconds(60)
+                .build()),
+        0);
+
+    verify(trackRepository, times(2)).findAllByScUrlIn(anyCollection());
+    verify(playlistTrackRepository).insertAll(10L, new Long[] {9L}, new Integer[] {0});
+  }
+
+  @Test
+  void getPage_returnsRequestedSizeAndNextAfter() {
+    Playlist first = Playlist.builder().id(1L).build();
+    Playlist second = Playlist.builder().id(2L).build();
+    when(playlistRepository.findAllByOrderByIdAsc(PageRequest.of(0, 2)))
+        .thenReturn(List.of(first, second));
+    when(playlistMapper.toDto(any()))
+        .thenAnswer(
+            inv -> PlaylistDto.builder().id(((Playlist) inv.getArgument(0)).getId()).build());
+
+    KeysetPageResponse<PlaylistDto, Long> page = playlistService.getPage(null, 1);
+
+    assertEquals(1, page.getItems().size());
+    assertEquals(1L, page.getNextAfter());
+  }
 }
@@ -0,0 +1,121 @@
+package com.Tsimur.Dubcast.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Tsimur.Dubcast.config.RadioTimeConfig;
+import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
+import com.Tsimur.Dubcast.mapper.DateTimeMapperImpl;
+import com.Tsimur.Dubcast.mapper.ScheduleEntryMapperImpl;
+import com.Tsimur.Dubcast.mapper.TrackMapperImpl;
+import com.Tsimur.Dubcast.model.ScheduleEntry;
+import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.ScheduleTailCursor;
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.service.impl.ScheduleEntryServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Counts the SQL statements behind the schedule reads: each one must fetch its slots together with
+ * their tracks in a single query, whatever the number of slots.
+ *
+ * <p>Runs on the embedded H2 of the {@code h2} profile, so it is part of the default suite; the
+ * reads under test use no Postgres-only SQL. Rows are rolled back.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({
+  ScheduleEntryServiceImpl.class,
+  ScheduleEntryMapperImpl.class,
+  TrackMapperImpl.class,
+  DateTimeMapperImpl.class,
+  RadioTimeConfig.class,
+  ScheduleTailCursor.class
+})
+class ScheduleEntryFetchPlanTest {
+
+  private static final int SLOTS = 12;
+  private static final int DURATION = 180;
+
+  // далеко в будущем, чтобы не пересечься с реальным эфиром
+  private static final LocalDate DAY = LocalDate.of(2099, 1, 1);
+
+  @Autowired private ScheduleEntryService scheduleEntryService;
+  @Autowired private ScheduleEntryRepository scheduleEntryRepository;
+  @Autowired private TrackRepository trackRepository;
+  @Autowired private RadioTimeConfig radioTimeConfig;
+  @Autowired private EntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private OffsetDateTime dayStart;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    dayStart = DAY.atStartOfDay(radioTimeConfig.getRadioZoneId()).toOffsetDateTime();
+    OffsetDateTime start = dayStart.plusHours(1);
+    for (int i = 0; i < SLOTS; i++) {
+      Track track =
+          trackRepository.save(
+              Track.builder()
+                  .scUrl("https://soundcloud.com/fetch-plan/t" + i + "-" + System.nanoTime())
+                  .title("T" + i)
+                  .durationSeconds(DURATION)
+                  .build());
+      scheduleEntryRepository.save(
+          ScheduleEntry.builder()
+              .track(track)
+              .startTime(start)
+              .endTime(start.plusSeconds(DURATION))
+              .build());
+      start = start.plusSeconds(DURATION);
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+  }
+
+  @Test
+  void getRange_loadsSlotsAndTracksInOneStatement() {
+    List<ScheduleEntryDto> slots = scheduleEntryService.getRange(dayStart, dayStart.plusHours(2));
+
+    assertEquals(SLOTS, slots.size());
+    assertTrue(slots.stream().allMatch(s -> s.getTrack().getTitle() != null));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getDay_loadsSlotsAndTracksInOneStatement() {
+    List<ScheduleEntryDto> slots = scheduleEntryService.getDay(DAY);
+
+    assertEquals(SLOTS, slots.size());
+    assertTrue(slots.stream().allMatch(s -> s.getTrack().getTitle() != null));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void getCurrent_loadsSlotAndTrackInOneStatement() {
+    ScheduleEntryDto current =
+        scheduleEntryService.getCurrent(dayStart.plusHours(1).plusSeconds(10)).orElseThrow();
+
+    assertEquals("T0", current.getTrack().getTitle());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.*;
 import com.Tsimur.Dubcast.config.RadioTimeConfig;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.exception.type.SlotCurrentlyPlayingException;
 import com.Tsimur.Dubcast.mapper.ScheduleEntryMapper;
@@ -14,6 +15,8 @@ import com.Tsimur.Dubcast.model.Playlist;
 import com.Tsimur.Dubcast.model.PlaylistTrack;
 import com.Tsimur.Dubcast.model.ScheduleEntry;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.ScheduleTailCursor;
+import com.Tsimur.Dubcast.radio.autofill.ScheduleGap;
 import com.Tsimur.Dubcast.radio.events.ScheduleUpdatedEvent;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
 import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
@@ -24,6 +27,9 @@ import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +38,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 /**
  * Unit tests for ScheduleEntryServiceImpl.
@@ -71,7 +80,8 @@ class ScheduleEntryServiceImplTest {
             radioTimeConfig,
             eventPublisher,
             playlistRepository,
-            playlistTrackRepository);
+            playlistTrackRepository,
+            new ScheduleTailCursor(scheduleEntryRepository));
   }
 
   // ----------------------------------------------------------------------
@@ -410,6 +420,104 @@ class ScheduleEntryServiceImplTest {
     assertEquals(120, seconds);
 
     verify(eventPublisher).publishEvent(any(ScheduleUpdatedEvent.class));
+    verify(scheduleEntryRepository).deleteTailAutofillStartingAfter(any());
+  }
+
+  @Test
+  void appendTrackToTail_twice_takesTailLockAndStartsSecondAtFirstEnd() {
+    OffsetDateTime tail = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).withNano(0);
+    when(trackRepository.findById(10L)).thenReturn(Optional.of(track(10L, 120)));
+    when(scheduleEntryRepository.findMaxEndTime()).thenReturn(tail);
+    when(scheduleEntryRepository.save(any(ScheduleEntry.class)))
+        .thenAnswer(inv -> inv.getArgument(0));
+
+    service.appendTrackToTail(10L);
+    service.appendTrackToTail(10L);
+
+    ArgumentCaptor<ScheduleEntry> captor = ArgumentCaptor.forClass(ScheduleEntry.class);
+    verify(scheduleEntryRepository, times(2)).save(captor.capture());
+    assertEquals(tail.toInstant(), captor.getAllValues().get(0).getStartTime().toInstant());
+    assertEquals(
+        tail.plusSeconds(120).toInstant(), captor.getAllValues().get(1).getStartTime().toInstant());
+    verify(scheduleEntryRepository, times(2)).acquireTailLock(anyLong());
+    // хвост после первого добавления берётся из памяти
+    verify(scheduleEntryRepository, times(1)).findMaxEndTime();
+  }
+
+  @Test
+  void appendTrackToTail_whileLookaheadHoldsTail_dropsItsAutofillOnceCommitted() throws Exception {
+    OffsetDateTime tail = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).withNano(0);
+    // «БД»: автозаполнение lookahead видно другим только после его коммита
+    AtomicBoolean autofillCommitted = new AtomicBoolean();
+    AtomicBoolean autofillDeleted = new AtomicBoolean();
+    when(scheduleEntryRepository.findMaxEndTime())
+        .thenAnswer(
+            inv -> autofillCommitted.get() && !autofillDeleted.get() ? tail.plusHours(6) : tail);
+    when(scheduleEntryRepository.deleteTailAutofillStartingAfter(any()))
+        .thenAnswer(
+            inv -> autofillCommitted.get() && autofillDeleted.compareAndSet(false, true) ? 1 : 0);
+    when(trackRepository.findDurationsByIdIn(any()))
+        .thenReturn(List.<Object[]>of(new Object[] {1L, 6 * 3600}));
+    when(trackRepository.findById(10L)).thenReturn(Optional.of(track(10L, 120)));
+    when(scheduleEntryRepository.save(any(ScheduleEntry.class)))
+        .thenAnswer(inv -> inv.getArgument(0));
+
+    CountDownLatch filled = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    Thread lookahead =
+        new Thread(
+            () ->
+                inTransaction(
+                    () -> {
+                      service.appendAutofillToTail(List.of(1L), tail.plusHours(6));
+                      filled.countDown();
+                      await(commit);
+                    },
+                    () -> autofillCommitted.set(true)));
+    Thread admin = new Thread(() -> inTransaction(() -> service.appendTrackToTail(10L), () -> {}));
+
+    lookahead.start();
+    await(filled);
+    admin.start();
+    // админ упёрся в блокировку хвоста, которую держит lookahead
+    while (admin.getState() != Thread.State.WAITING) {
+      Thread.sleep(5);
+    }
+    commit.countDown();
+    lookahead.join(5_000);
+    admin.join(5_000);
+
+    ArgumentCaptor<ScheduleEntry> captor = ArgumentCaptor.forClass(ScheduleEntry.class);
+    verify(scheduleEntryRepository).save(captor.capture());
+    assertEquals(tail.toInstant(), captor.getValue().getStartTime().toInstant());
+    assertTrue(autofillDeleted.get());
+  }
+
+  /**
+   * Runs {@code body} on this thread as if inside a transaction; {@code onCommit} stands for the
+   * commit itself and runs before the synchronizations release the tail lock.
+   */
+  private static void inTransaction(Runnable body, Runnable onCommit) {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      body.run();
+      onCommit.run();
+      List<TransactionSynchronization> syncs =
+          TransactionSynchronizationManager.getSynchronizations();
+      TransactionSynchronizationUtils.invokeAfterCommit(syncs);
+      TransactionSynchronizationUtils.invokeAfterCompletion(
+          syncs, TransactionSynchronization.STATUS_COMMITTED);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new AssertionError(e);
+    }
   }
 
   @Test
@@ -615,6 +723,125 @@ class ScheduleEntryServiceImplTest {
     verify(eventPublisher).publishEvent(any(ScheduleUpdatedEvent.class));
   }
 
+  // ----------------------------------------------------------------------
+  // appendAutofillToTail
+  // ----------------------------------------------------------------------
+
+  @Test
+  void appendAutofillToTail_shouldInsertBackToBackSlotsInOneStatement() {
+    OffsetDateTime tail = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).withNano(0);
+    when(scheduleEntryRepository.findMaxEndTime()).thenReturn(tail);
+    when(trackRepository.findDurationsByIdIn(any()))
+        .thenReturn(
+            List.of(
+                new Object[] {1L, 100},
+                new Object[] {2L, 200},
+                new Object[] {3L, 0},
+                new Object[] {4L, 300}));
+
+    // 5 нет в базе, 3 без длительности, 4 начинался бы уже за горизонтом
+    int added =
+        service.appendAutofillToTail(List.of(1L, 5L, 3L, 2L, 1L, 4L), tail.plusSeconds(400));
+
+    assertEquals(3, added);
+    long t0 = tail.toInstant().toEpochMilli();
+    verify(scheduleEntryRepository)
+        .insertAutofill(
+            new Long[] {1L, 2L, 1L},
+            new Long[] {t0, t0 + 100_000, t0 + 300_000},
+            new Long[] {t0 + 100_000, t0 + 300_000, t0 + 400_000});
+    verify(scheduleEntryRepository, never()).save(any());
+    verify(scheduleEntryRepository, never()).saveAll(any());
+    verify(eventPublisher).publishEvent(new ScheduleUpdatedEvent(tail));
+  }
+
+  @Test
+  void appendAutofillToTail_shouldRoundSubMillisecondTailUp() {
+    OffsetDateTime tail = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).withNano(123_456_789);
+    when(scheduleEntryRepository.findMaxEndTime()).thenReturn(tail);
+    when(trackRepository.findDurationsByIdIn(any()))
+        .thenReturn(List.<Object[]>of(new Object[] {1L, 60}));
+
+    service.appendAutofillToTail(List.of(1L), tail.plusHours(1));
+
+    long start = tail.withNano(124_000_000).toInstant().toEpochMilli();
+    verify(scheduleEntryRepository)
+        .insertAutofill(new Long[] {1L}, new Long[] {start}, new Long[] {start + 60_000});
+  }
+
+  @Test
+  void appendAutofillToTail_shouldNotWrite_whenNothingFits() {
+    when(trackRepository.findDurationsByIdIn(any())).thenReturn(List.of());
+
+    assertEquals(0, service.appendAutofillToTail(List.of(1L), OffsetDateTime.now().plusHours(1)));
+    verify(scheduleEntryRepository, never()).insertAutofill(any(), any(), any());
+    verifyNoInteractions(eventPublisher);
+  }
+
+  // ----------------------------------------------------------------------
+  // findGaps / fillGapWithAutofill
+  // ----------------------------------------------------------------------
+
+  @Test
+  void findGaps_shouldReturnHolesBetweenSlotsButNotTheOpenTail() {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    OffsetDateTime to = from.plusHours(1);
+    when(scheduleEntryRepository.findSlotTimesBetween(from, to))
+        .thenReturn(
+            List.of(
+                new Object[] {from.minusMinutes(1), from.plusMinutes(2)},
+                // 10 с дыры — короче минимума
+                new Object[] {from.plusMinutes(2).plusSeconds(10), from.plusMinutes(5)},
+                new Object[] {from.plusMinutes(15), from.plusMinutes(20)}));
+    when(scheduleEntryRepository.existsByStartTimeGreaterThanEqual(to)).thenReturn(false);
+
+    List<ScheduleGap> gaps = service.findGaps(from, to, 30);
+
+    assertEquals(List.of(new ScheduleGap(from.plusMinutes(5), from.plusMinutes(15))), gaps);
+  }
+
+  @Test
+  void findGaps_shouldCutHoleAtWindowEnd_whenSlotFollowsLater() {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    OffsetDateTime to = from.plusHours(1);
+    when(scheduleEntryRepository.findSlotTimesBetween(from, to))
+        .thenReturn(List.<Object[]>of(new Object[] {from, from.plusMinutes(50)}));
+    when(scheduleEntryRepository.existsByStartTimeGreaterThanEqual(to)).thenReturn(true);
+
+    assertEquals(
+        List.of(new ScheduleGap(from.plusMinutes(50), to)), service.findGaps(from, to, 30));
+  }
+
+  @Test
+  void fillGapWithAutofill_shouldSkipTracksThatOverrunTheHole() {
+    OffsetDateTime start = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    OffsetDateTime end = start.plusSeconds(300);
+    when(scheduleEntryRepository.existsOverlap(start, end)).thenReturn(false);
+    when(trackRepository.findDurationsByIdIn(any()))
+        .thenReturn(
+            List.of(new Object[] {1L, 200}, new Object[] {2L, 150}, new Object[] {3L, 100}));
+
+    assertEquals(2, service.fillGapWithAutofill(start, end, List.of(1L, 2L, 3L)));
+
+    long t0 = start.toInstant().toEpochMilli();
+    verify(scheduleEntryRepository)
+        .insertAutofill(
+            new Long[] {1L, 3L},
+            new Long[] {t0, t0 + 200_000},
+            new Long[] {t0 + 200_000, t0 + 300_000});
+    verify(eventPublisher).publishEvent(new ScheduleUpdatedEvent(start));
+  }
+
+  @Test
+  void fillGapWithAutofill_shouldNotWrite_whenHoleWasTakenMeanwhile() {
+    OffsetDateTime start = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    when(scheduleEntryRepository.existsOverlap(start, start.plusMinutes(5))).thenReturn(true);
+
+    assertEquals(0, service.fillGapWithAutofill(start, start.plusMinutes(5), List.of(1L)));
+    verify(scheduleEntryRepository, never()).insertAutofill(any(), any(), any());
+    verifyNoInteractions(trackRepository, eventPublisher);
+  }
+
   // ----------------------------------------------------------------------
   // appendPlaylistToTail
   // ----------------------------------------------------------------------
@@ -688,4 +915,21 @@ class ScheduleEntryServiceImplTest {
     t.setDurationSeconds(durationSeconds);
     return t;
   }
+
+  @Test
+  void getPage_readsAfterCursorWithTracks() {
+    List<ScheduleEntry> rows = List.of(new ScheduleEntry(), new ScheduleEntry());
+    when(scheduleEntryRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 2)))
+        .thenReturn(rows);
+    when(scheduleEntryMapper.toDtoList(rows))
+        .thenReturn(
+            List.of(
+                ScheduleEntryDto.builder().id(11L).build(),
+                ScheduleEntryDto.builder().id(12L).build()));
+
+    KeysetPageResponse<ScheduleEntryDto, Long> page = service.getPage(10L, 1);
+
+    assertEquals(11L, page.getItems().get(0).getId());
+    assertEquals(11L, page.getNextAfter());
+  }
 }
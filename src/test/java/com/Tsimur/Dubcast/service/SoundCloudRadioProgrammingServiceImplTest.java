@@ -8,25 +8,39 @@ import com.Tsimur.Dubcast.dto.AdminScheduleSlotDto;
 import com.Tsimur.Dubcast.dto.PlaylistDto;
 import com.Tsimur.Dubcast.dto.ScheduleEntryDto;
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.AdminDaySlotsResponse;
 import com.Tsimur.Dubcast.dto.response.PlaylistScheduleResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.PlaylistMapper;
+import com.Tsimur.Dubcast.mapper.ScheduleEntryMapper;
 import com.Tsimur.Dubcast.model.Playlist;
+import com.Tsimur.Dubcast.radio.ScheduleTailCursor;
 import com.Tsimur.Dubcast.radio.autofill.AutoFillStrategy;
+import com.Tsimur.Dubcast.radio.autofill.GapFillPlanner;
+import com.Tsimur.Dubcast.radio.autofill.ScheduleGap;
 import com.Tsimur.Dubcast.repository.PlaylistRepository;
+import com.Tsimur.Dubcast.repository.PlaylistTrackRepository;
+import com.Tsimur.Dubcast.repository.ScheduleEntryRepository;
+import com.Tsimur.Dubcast.repository.TrackRepository;
+import com.Tsimur.Dubcast.service.impl.ScheduleEntryServiceImpl;
 import com.Tsimur.Dubcast.service.impl.SoundCloudRadioProgrammingServiceImpl;
 import java.time.*;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
 class SoundCloudRadioProgrammingServiceImplTest {
 
   @Mock private PlaylistRepository playlistRepository;
 
+  @Mock private ScheduleEntryRepository scheduleEntryRepository;
+
   @Mock private PlaylistMapper playlistMapper;
 
   @Mock private ScheduleEntryService scheduleEntryService;
@@ -35,6 +49,8 @@ class SoundCloudRadioProgrammingServiceImplTest {
 
   @Mock private AutoFillStrategy autoFillStrategy;
 
+  @Mock private GapFillPlanner gapFillPlanner;
+
   @InjectMocks private SoundCloudRadioProgrammingServiceImpl service;
 
   // ---------------------------------------------------------------------
@@ -171,64 +187,76 @@ class SoundCloudRadioProgrammingServiceImplTest {
   // getDaySchedule (mapping to AdminScheduleSlotDto)
   // ---------------------------------------------------------------------
 
+  private static AdminScheduleSlotDto slotRow(long id, OffsetDateTime start) {
+    return new AdminScheduleSlotDto(
+        id,
+        "Track " + id,
+        "art",
+        "https://sc.com/t/" + id,
+        10L,
+        "Morning",
+        start,
+        start.plusMinutes(3));
+  }
+
   @Test
-  void getDaySchedule_shouldMapScheduleEntriesToAdminSlots_usingPlaylistCache() {
+  void getDaySchedule_shouldReturnProjectedRowsInRadioZone() {
     LocalDate date = LocalDate.of(2025, 1, 1);
     Pageable pageable = PageRequest.of(0, 10);
     ZoneId zoneId = ZoneId.of("Europe/Vilnius");
-
     when(radioTimeConfig.getRadioZoneId()).thenReturn(zoneId);
 
-    Instant start = Instant.parse("2025-01-01T10:00:00Z");
-    Instant end = start.plusSeconds(120);
-
-    TrackDto trackDto =
-        TrackDto.builder()
-            .id(1L)
-            .title("Track A")
-            .soundcloudUrl("https://sc.com/t/1")
-            .durationSeconds(120)
-            .artworkUrl("art-a")
-            .build();
-
-    Long playlistId = 10L;
-
-    ScheduleEntryDto seDto =
-        ScheduleEntryDto.builder()
-            .id(100L)
-            .track(trackDto)
-            .startTime(start)
-            .endTime(end)
-            .playlistId(playlistId)
-            .build();
-
-    Page<ScheduleEntryDto> sePage = new PageImpl<>(List.of(seDto), pageable, 1);
-
-    Playlist playlist = new Playlist();
-    playlist.setId(playlistId);
-    playlist.setName("Morning Playlist");
-
-    when(scheduleEntryService.getDayPage(date, pageable)).thenReturn(sePage);
-    when(playlistRepository.findAllById(Set.of(playlistId))).thenReturn(List.of(playlist));
+    OffsetDateTime dayStart = date.atStartOfDay(zoneId).toOffsetDateTime();
+    OffsetDateTime start = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    when(scheduleEntryRepository.findAdminSlotPage(dayStart, dayStart.plusDays(1), pageable))
+        .thenReturn(new PageImpl<>(List.of(slotRow(100L, start)), pageable, 1));
 
     Page<AdminScheduleSlotDto> result = service.getDaySchedule(date, pageable);
 
     assertEquals(1, result.getTotalElements());
     AdminScheduleSlotDto slot = result.getContent().get(0);
+    assertEquals(100L, slot.getId());
+    assertEquals("Morning", slot.getPlaylistName());
+    assertEquals(start.toInstant(), slot.getStartTime().toInstant());
+    assertEquals(ZoneOffset.ofHours(2), slot.getStartTime().getOffset());
+    verifyNoInteractions(scheduleEntryService, playlistRepository);
+  }
 
-    assertEquals(seDto.getId(), slot.getId());
-    assertEquals("Track A", slot.getTrackTitle());
-    assertEquals("https://sc.com/t/1", slot.getTrackScUrl());
-    assertEquals("art-a", slot.getTrackArtworkUrl());
-    assertEquals(playlistId, slot.getPlaylistId());
-    assertEquals("Morning Playlist", slot.getPlaylistName());
+  @Test
+  void getDaySlots_firstPage_fetchesOneExtraRowToDetectNextPage() {
+    LocalDate date = LocalDate.of(2025, 1, 1);
+    when(radioTimeConfig.getRadioZoneId()).thenReturn(ZoneOffset.UTC);
+    OffsetDateTime dayStart = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+    when(scheduleEntryRepository.findAdminSlotsFrom(
+            dayStart, dayStart.plusDays(1), PageRequest.of(0, 3)))
+        .thenReturn(
+            new ArrayList<>(
+                List.of(
+                    slotRow(1L, dayStart),
+                    slotRow(2L, dayStart.plusMinutes(3)),
+                    slotRow(3L, dayStart.plusMinutes(6)))));
+
+    AdminDaySlotsResponse page = service.getDaySlots(date, null, 2);
+
+    assertEquals(
+        List.of(1L, 2L), page.getSlots().stream().map(AdminScheduleSlotDto::getId).toList());
+    assertEquals(dayStart.plusMinutes(3).toInstant(), page.getNextAfter().toInstant());
+    verify(scheduleEntryRepository, never()).findAdminSlotPage(any(), any(), any());
+  }
+
+  @Test
+  void getDaySlots_lastPage_hasNoNextAfter() {
+    LocalDate date = LocalDate.of(2025, 1, 1);
+    when(radioTimeConfig.getRadioZoneId()).thenReturn(ZoneOffset.UTC);
+    OffsetDateTime after = OffsetDateTime.parse("2025-01-01T23:00:00Z");
+    when(scheduleEntryRepository.findAdminSlotsAfter(
+            after, OffsetDateTime.parse("2025-01-02T00:00:00Z"), PageRequest.of(0, 51)))
+        .thenReturn(List.of(slotRow(9L, after.plusMinutes(3))));
 
-    // Проверяем, что время сконвертировано в OffsetDateTime с тем же Instant
-    assertEquals(seDto.getStartTime(), slot.getStartTime().toInstant());
-    assertEquals(seDto.getEndTime(), slot.getEndTime().toInstant());
+    AdminDaySlotsResponse page = service.getDaySlots(date, after, 50);
 
-    verify(scheduleEntryService).getDayPage(date, pageable);
-    verify(playlistRepository).findAllById(Set.of(playlistId));
+    assertEquals(1, page.getSlots().size());
+    assertNull(page.getNextAfter());
   }
 
   // ---------------------------------------------------------------------
@@ -329,6 +357,25 @@ class SoundCloudRadioProgrammingServiceImplTest {
     verify(scheduleEntryService).changeTrackInSlot(slotId, newTrackId);
   }
 
+  @Test
+  void changeTrackInSlot_shouldLookUpOnlyPlaylistName() {
+    when(radioTimeConfig.getRadioZoneId()).thenReturn(ZoneOffset.UTC);
+    Instant start = Instant.parse("2025-01-02T15:00:00Z");
+    ScheduleEntryDto seDto =
+        ScheduleEntryDto.builder()
+            .id(5L)
+            .track(TrackDto.builder().id(9L).title("New Track").build())
+            .startTime(start)
+            .endTime(start.plusSeconds(200))
+            .playlistId(10L)
+            .build();
+    when(scheduleEntryService.changeTrackInSlot(5L, 9L)).thenReturn(seDto);
+    when(playlistRepository.findNameById(10L)).thenReturn(Optional.of("Morning"));
+
+    assertEquals("Morning", service.changeTrackInSlot(5L, 9L).getPlaylistName());
+    verify(playlistRepository, never()).findById(any());
+  }
+
   @Test
   void reorderDay_shouldDelegateToScheduleEntryService() {
     LocalDate date = LocalDate.of(2025, 1, 1);
@@ -358,44 +405,180 @@ class SoundCloudRadioProgrammingServiceImplTest {
   }
 
   @Test
-  void ensureAutofillIfNeeded_shouldReturnFalse_whenNextSlotExists() {
-    OffsetDateTime now = OffsetDateTime.now();
+  void ensureAutofillIfNeeded_shouldFillHoleBeforeNextSlot_whenNextSlotExists() {
+    OffsetDateTime now = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    OffsetDateTime nextStart = now.plusMinutes(10);
+    ScheduleGap gap = new ScheduleGap(now, nextStart);
     when(scheduleEntryService.getCurrent(now)).thenReturn(Optional.empty());
     when(scheduleEntryService.getNext(now))
-        .thenReturn(Optional.of(ScheduleEntryDto.builder().id(2L).build()));
-
-    boolean result = service.ensureAutofillIfNeeded(now);
-
-    assertFalse(result);
-    verify(autoFillStrategy, never()).chooseTrackIdForAutofill(any());
+        .thenReturn(
+            Optional.of(
+                ScheduleEntryDto.builder().id(2L).startTime(nextStart.toInstant()).build()));
+    when(scheduleEntryService.findGaps(now, nextStart, 30)).thenReturn(List.of(gap));
+    when(gapFillPlanner.plan(now, 600)).thenReturn(List.of(5L, 6L));
+    when(scheduleEntryService.fillGapWithAutofill(now, nextStart, List.of(5L, 6L))).thenReturn(2);
+
+    assertTrue(service.ensureAutofillIfNeeded(now));
+    verify(scheduleEntryService, never()).appendAutofillToTail(any(), any());
     verify(scheduleEntryService, never()).appendTrackToTail(any());
   }
 
+  @Test
+  void ensureAutofillIfNeeded_shouldReturnFalse_whenHoleBeforeNextSlotIsTooShort() {
+    OffsetDateTime now = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    when(scheduleEntryService.getCurrent(now)).thenReturn(Optional.empty());
+    when(scheduleEntryService.getNext(now))
+        .thenReturn(
+            Optional.of(
+                ScheduleEntryDto.builder()
+                    .id(2L)
+                    .startTime(now.plusSeconds(10).toInstant())
+                    .build()));
+    when(scheduleEntryService.findGaps(eq(now), any(), eq(30))).thenReturn(List.of());
+
+    assertFalse(service.ensureAutofillIfNeeded(now));
+    verifyNoInteractions(gapFillPlanner, autoFillStrategy);
+  }
+
   @Test
   void ensureAutofillIfNeeded_shouldReturnFalse_whenNoTrackChosen() {
     OffsetDateTime now = OffsetDateTime.now();
     when(scheduleEntryService.getCurrent(now)).thenReturn(Optional.empty());
     when(scheduleEntryService.getNext(now)).thenReturn(Optional.empty());
-    when(autoFillStrategy.chooseTrackIdForAutofill(now)).thenReturn(Optional.empty());
+    when(scheduleEntryService.getTailEnd(now)).thenReturn(now);
+    when(autoFillStrategy.chooseTrackIdsForAutofill(eq(now), anyInt())).thenReturn(List.of());
 
     boolean result = service.ensureAutofillIfNeeded(now);
 
     assertFalse(result);
-    verify(scheduleEntryService, never()).appendTrackToTail(any());
+    verify(scheduleEntryService, never()).appendAutofillToTail(any(), any());
   }
 
   @Test
-  void ensureAutofillIfNeeded_shouldAppendTrackAndReturnTrue_whenTrackChosen() {
+  void ensureAutofillIfNeeded_shouldFillLookaheadAndReturnTrue_whenTracksChosen() {
     OffsetDateTime now = OffsetDateTime.now();
-    Long trackId = 77L;
+    List<Long> trackIds = List.of(77L, 78L);
 
     when(scheduleEntryService.getCurrent(now)).thenReturn(Optional.empty());
     when(scheduleEntryService.getNext(now)).thenReturn(Optional.empty());
-    when(autoFillStrategy.chooseTrackIdForAutofill(now)).thenReturn(Optional.of(trackId));
+    when(scheduleEntryService.getTailEnd(now)).thenReturn(now, now.plusHours(6));
+    when(autoFillStrategy.chooseTrackIdsForAutofill(eq(now), anyInt())).thenReturn(trackIds);
+    when(scheduleEntryService.appendAutofillToTail(trackIds, now.plusHours(6))).thenReturn(2);
 
     boolean result = service.ensureAutofillIfNeeded(now);
 
     assertTrue(result);
-    verify(scheduleEntryService).appendTrackToTail(trackId);
+    verify(scheduleEntryService, never()).appendTrackToTail(any());
+  }
+
+  // ---------------------------------------------------------------------
+  // fillAhead
+  // ---------------------------------------------------------------------
+
+  @Test
+  void fillAhead_shouldDoNothing_whenEnoughIsScheduled() {
+    OffsetDateTime now = OffsetDateTime.now();
+    when(scheduleEntryService.getTailEnd(now)).thenReturn(now.plusHours(4));
+
+    assertEquals(0, service.fillAhead(now));
+    verifyNoInteractions(autoFillStrategy);
+  }
+
+  @Test
+  void fillAhead_shouldChooseOneBatchForWholeHorizonAndInsertOnce() {
+    OffsetDateTime now = OffsetDateTime.now();
+    OffsetDateTime until = now.plusHours(6);
+    List<Long> trackIds = List.of(1L, 2L, 3L);
+    when(scheduleEntryService.getTailEnd(now)).thenReturn(now.plusHours(1), until);
+    // 5 ч по ~3 мин
+    when(autoFillStrategy.chooseTrackIdsForAutofill(now, 101)).thenReturn(trackIds);
+    when(scheduleEntryService.appendAutofillToTail(trackIds, until)).thenReturn(3);
+
+    assertEquals(3, service.fillAhead(now));
+    verify(scheduleEntryService, times(1)).appendAutofillToTail(any(), any());
+  }
+
+  @Test
+  void fillAhead_shouldTopUpAgain_whenBatchFellShortOfHorizon() {
+    OffsetDateTime now = OffsetDateTime.now();
+    OffsetDateTime until = now.plusHours(6);
+    when(scheduleEntryService.getTailEnd(now)).thenReturn(now, now.plusHours(5), until);
+    when(autoFillStrategy.chooseTrackIdsForAutofill(eq(now), anyInt()))
+        .thenReturn(List.of(1L), List.of(2L));
+    when(scheduleEntryService.appendAutofillToTail(any(), eq(until))).thenReturn(1);
+
+    assertEquals(2, service.fillAhead(now));
+    verify(autoFillStrategy).chooseTrackIdsForAutofill(now, 121);
+    verify(autoFillStrategy).chooseTrackIdsForAutofill(now, 21);
+  }
+
+  @Test
+  void fillAhead_twoRoundsInOneTransaction_secondStartsWhereFirstEnded() {
+    // настоящий сервис расписания и курсор хвоста; моки только у репозиториев
+    TrackRepository trackRepository = mock(TrackRepository.class);
+    ScheduleEntryServiceImpl schedule =
+        new ScheduleEntryServiceImpl(
+            scheduleEntryRepository,
+            mock(ScheduleEntryMapper.class),
+            trackRepository,
+            new RadioTimeConfig("UTC"),
+            mock(ApplicationEventPublisher.class),
+            playlistRepository,
+            mock(PlaylistTrackRepository.class),
+            new ScheduleTailCursor(scheduleEntryRepository));
+    SoundCloudRadioProgrammingServiceImpl programming =
+        new SoundCloudRadioProgrammingServiceImpl(
+            playlistRepository,
+            scheduleEntryRepository,
+            playlistMapper,
+            schedule,
+            radioTimeConfig,
+            autoFillStrategy,
+            gapFillPlanner);
+
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    OffsetDateTime tail = now.plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+    when(scheduleEntryRepository.findMaxEndTime()).thenReturn(tail);
+    // первый раунд закрывает только час из пяти — нужен второй
+    when(autoFillStrategy.chooseTrackIdsForAutofill(eq(now), anyInt()))
+        .thenReturn(List.of(1L), List.of(2L));
+    when(trackRepository.findDurationsByIdIn(any()))
+        .thenReturn(
+            List.<Object[]>of(new Object[] {1L, 3600}),
+            List.<Object[]>of(new Object[] {2L, 5 * 3600}));
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      assertEquals(2, programming.fillAhead(now));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    ArgumentCaptor<Long[]> starts = ArgumentCaptor.forClass(Long[].class);
+    ArgumentCaptor<Long[]> ends = ArgumentCaptor.forClass(Long[].class);
+    verify(scheduleEntryRepository, times(2))
+        .insertAutofill(any(), starts.capture(), ends.capture());
+    assertEquals(tail.toInstant().toEpochMilli(), starts.getAllValues().get(0)[0]);
+    assertEquals(ends.getAllValues().get(0)[0], starts.getAllValues().get(1)[0]);
+  }
+
+  // ---------------------------------------------------------------------
+  // fillGaps
+  // ---------------------------------------------------------------------
+
+  @Test
+  void fillGaps_shouldPlanAndFillEachHole() {
+    OffsetDateTime from = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    OffsetDateTime to = from.plusHours(6);
+    ScheduleGap first = new ScheduleGap(from.plusMinutes(5), from.plusMinutes(9));
+    ScheduleGap second = new ScheduleGap(from.plusHours(1), from.plusHours(2));
+    when(scheduleEntryService.findGaps(from, to, 30)).thenReturn(List.of(first, second));
+    when(gapFillPlanner.plan(from, 240)).thenReturn(List.of(1L));
+    when(gapFillPlanner.plan(from, 3600)).thenReturn(List.of());
+    when(scheduleEntryService.fillGapWithAutofill(first.start(), first.end(), List.of(1L)))
+        .thenReturn(1);
+
+    assertEquals(1, service.fillGaps(from, to));
+    verify(scheduleEntryService, times(1)).fillGapWithAutofill(any(), any(), any());
   }
 }
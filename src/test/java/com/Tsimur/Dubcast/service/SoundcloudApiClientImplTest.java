@@ -5,14 +5,20 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.Tsimur.Dubcast.service.impl.SoundcloudApiClientImpl;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudLookupCache;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudResilience;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.lang.reflect.Field;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,16 +28,23 @@ class SoundcloudApiClientImplTest {
 
   @Mock private ObjectMapper objectMapper;
 
+  @Mock private SoundcloudClientIdProvider clientIdProvider;
+
   private SoundcloudApiClientImpl client;
 
   @BeforeEach
   void setUp() throws Exception {
-    client = new SoundcloudApiClientImpl(restTemplate, objectMapper);
-
-    // clientId
-    Field clientIdField = SoundcloudApiClientImpl.class.getDeclaredField("clientId");
-    clientIdField.setAccessible(true);
-    clientIdField.set(client, "test-client-id");
+    client =
+        new SoundcloudApiClientImpl(
+            restTemplate,
+            objectMapper,
+            new SoundcloudLookupCache(
+                new ObjectMapper(), new SimpleMeterRegistry(), 100, 60_000, 60_000, ""),
+            clientIdProvider,
+            new SoundcloudResilience(
+                new SimpleMeterRegistry(), 16, 200, 1, 0, 0, 20, 10, 50, 30_000));
+
+    lenient().when(clientIdProvider.getClientId()).thenReturn("test-client-id");
 
     Field baseUrlField = SoundcloudApiClientImpl.class.getDeclaredField("apiBaseUrl");
     baseUrlField.setAccessible(true);
@@ -71,6 +84,30 @@ class SoundcloudApiClientImplTest {
     assertTrue(ex.getMessage().contains("SoundCloud getTrack failed"));
   }
 
+  // ------------------------------------------------------------------------
+  // getTracks
+  // ------------------------------------------------------------------------
+
+  @Test
+  void getTracks_shouldCallBatchEndpointAndReturnArrayElements() throws Exception {
+    String expectedUrl = "https://api-v2.soundcloud.com/tracks?ids=1,2,3&client_id=test-client-id";
+    String json = "[{\"id\":1},{\"id\":3}]";
+
+    when(restTemplate.getForObject(expectedUrl, String.class)).thenReturn(json);
+    when(objectMapper.readTree(json)).thenReturn(new ObjectMapper().readTree(json));
+
+    List<JsonNode> result = client.getTracks(List.of(1L, 2L, 3L));
+
+    assertEquals(2, result.size());
+    assertEquals(3, result.get(1).path("id").asInt());
+  }
+
+  @Test
+  void getTracks_emptyIds_doesNotCallSoundcloud() {
+    assertTrue(client.getTracks(List.of()).isEmpty());
+    verifyNoInteractions(restTemplate);
+  }
+
   // ------------------------------------------------------------------------
   // resolveByUrl
   // ------------------------------------------------------------------------
@@ -105,4 +142,47 @@ class SoundcloudApiClientImplTest {
 
     assertTrue(ex.getMessage().contains("SoundCloud resolve failed"));
   }
+
+  // ------------------------------------------------------------------------
+  // client_id rejection
+  // ------------------------------------------------------------------------
+
+  @Test
+  void getTrack_unauthorized_refreshesClientIdAndRetriesOnce() throws Exception {
+    String rejectedUrl = "https://api-v2.soundcloud.com/tracks/5?client_id=test-client-id";
+    String retriedUrl = "https://api-v2.soundcloud.com/tracks/5?client_id=fresh-id";
+    JsonNode node = mock(JsonNode.class);
+
+    when(restTemplate.getForObject(rejectedUrl, String.class))
+        .thenThrow(
+            HttpClientErrorException.create(
+                HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null));
+    when(clientIdProvider.refreshAfterRejection("test-client-id")).thenReturn("fresh-id");
+    when(restTemplate.getForObject(retriedUrl, String.class)).thenReturn("{}");
+    when(objectMapper.readTree("{}")).thenReturn(node);
+
+    assertSame(node, client.getTrack(5L));
+    verify(clientIdProvider).refreshAfterRejection("test-client-id");
+  }
+
+  @Test
+  void getTrack_rejectedTwice_failsWithoutFurtherRetries() {
+    when(restTemplate.getForObject(anyString(), eq(String.class)))
+        .thenThrow(
+            HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", null, null, null));
+    when(clientIdProvider.refreshAfterRejection("test-client-id")).thenReturn("fresh-id");
+
+    assertThrows(RuntimeException.class, () -> client.getTrack(5L));
+    verify(restTemplate, times(2)).getForObject(anyString(), eq(String.class));
+  }
+
+  @Test
+  void getTrack_notFound_doesNotTouchClientId() {
+    when(restTemplate.getForObject(anyString(), eq(String.class)))
+        .thenThrow(
+            HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+    assertThrows(RuntimeException.class, () -> client.getTrack(5L));
+    verify(clientIdProvider, never()).refreshAfterRejection(any());
+  }
 }
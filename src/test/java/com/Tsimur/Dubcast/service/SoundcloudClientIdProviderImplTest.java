@@ -1,23 +1,41 @@
 package com.Tsimur.Dubcast.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
+import com.Tsimur.Dubcast.scraper.PlaywrightBrowserPool;
 import com.Tsimur.Dubcast.service.impl.SoundcloudClientIdProviderImpl;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class SoundcloudClientIdProviderImplTest {
 
+  private PlaywrightBrowserPool browserPool;
   private SoundcloudClientIdProviderImpl provider;
 
   @BeforeEach
   void setUp() {
-    provider = new SoundcloudClientIdProviderImpl();
+    browserPool = mock(PlaywrightBrowserPool.class);
+    provider = new SoundcloudClientIdProviderImpl(browserPool);
+  }
+
+  private void seedWith(String configured) {
+    ReflectionTestUtils.setField(provider, "configuredClientId", configured);
+    provider.seed();
   }
 
   @Test
@@ -100,4 +118,99 @@ class SoundcloudClientIdProviderImplTest {
 
     assertNull(result);
   }
+
+  // ---------------------------------------------------------------------
+  // refresh
+  // ---------------------------------------------------------------------
+
+  @Test
+  void getClientId_configuredId_isServedWithoutLaunchingBrowser() {
+    seedWith("configured-id");
+
+    assertEquals("configured-id", provider.getClientId());
+    verifyNoInteractions(browserPool);
+  }
+
+  @Test
+  void refreshAfterRejection_concurrentCallers_shareOneResolution() throws Exception {
+    seedWith("old-id");
+    CountDownLatch release = new CountDownLatch(1);
+    when(browserPool.<Object>withPage(any()))
+        .thenAnswer(
+            inv -> {
+              release.await(5, TimeUnit.SECONDS);
+              return "new-id";
+            });
+
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(callers.submit(() -> provider.refreshAfterRejection("old-id")));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<String> result : results) {
+        assertEquals("new-id", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    verify(browserPool, times(1)).withPage(any());
+    assertEquals("new-id", provider.getClientId());
+  }
+
+  @Test
+  void refreshAfterRejection_alreadyReplacedId_returnsCurrentWithoutResolving() {
+    seedWith("new-id");
+
+    assertEquals("new-id", provider.refreshAfterRejection("old-id"));
+    verifyNoInteractions(browserPool);
+  }
+
+  @Test
+  void refreshIfStale_staleId_isReplacedInBackgroundAndThenLeftAlone() {
+    seedWith("configured-id");
+    when(browserPool.<Object>withPage(any())).thenReturn("fresh-id");
+
+    provider.refreshIfStale();
+    verify(browserPool, timeout(2_000)).withPage(any());
+    waitForClientId("fresh-id");
+
+    provider.refreshIfStale();
+    verify(browserPool, times(1)).withPage(any());
+  }
+
+  @Test
+  void refreshIfStale_failure_keepsOldIdAndBacksOff() {
+    seedWith("configured-id");
+    when(browserPool.<Object>withPage(any())).thenThrow(new IllegalStateException("no browser"));
+
+    provider.refreshIfStale();
+    verify(browserPool, timeout(2_000)).withPage(any());
+    waitUntilIdle();
+
+    provider.refreshIfStale();
+    assertEquals("configured-id", provider.getClientId());
+    verify(browserPool, times(1)).withPage(any());
+  }
+
+  private void waitForClientId(String expected) {
+    long deadline = System.currentTimeMillis() + 2_000;
+    while (!expected.equals(provider.getClientId()) && System.currentTimeMillis() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertEquals(expected, provider.getClientId());
+  }
+
+  private void waitUntilIdle() {
+    AtomicReference<?> inFlight =
+        (AtomicReference<?>) ReflectionTestUtils.getField(provider, "inFlight");
+    long deadline = System.currentTimeMillis() + 2_000;
+    while (inFlight.get() != null && System.currentTimeMillis() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertNull(inFlight.get());
+  }
 }
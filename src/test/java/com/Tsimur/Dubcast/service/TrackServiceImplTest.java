@@ -4,20 +4,27 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.Tsimur.Dubcast.dto.TrackDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
+import com.Tsimur.Dubcast.dto.response.SoundcloudOEmbedResponse;
 import com.Tsimur.Dubcast.exception.type.DuplicateTrackException;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.TrackMapper;
 import com.Tsimur.Dubcast.model.Track;
+import com.Tsimur.Dubcast.radio.autofill.AutofillTrackIndex;
+import com.Tsimur.Dubcast.radio.events.TracksChangedEvent;
 import com.Tsimur.Dubcast.repository.TrackRepository;
 import com.Tsimur.Dubcast.service.impl.TrackServiceImpl;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.OptionalLong;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @ExtendWith(MockitoExtension.class)
 class TrackServiceImplTest {
@@ -26,6 +33,12 @@ class TrackServiceImplTest {
 
   @Mock private TrackMapper trackMapper;
 
+  @Mock private ParserService parserService;
+
+  @Mock private AutofillTrackIndex autofillTrackIndex;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks private TrackServiceImpl trackService;
 
   // ---------------------------------------------------------------------
@@ -75,6 +88,7 @@ class TrackServiceImplTest {
 
     assertEquals(expected, result);
     verify(trackRepository).existsByScUrl(dto.getSoundcloudUrl());
+    verify(eventPublisher).publishEvent(TracksChangedEvent.saved(1L, "https://sc.com/t/1", 100));
     verify(trackMapper).toEntity(dto);
     verify(trackRepository).save(entity);
     verify(trackMapper).toDto(saved);
@@ -231,6 +245,7 @@ class TrackServiceImplTest {
     verify(trackMapper).updateEntityFromDto(dto, existing);
     verify(trackRepository).save(existing);
     verify(trackMapper).toDto(saved);
+    verify(eventPublisher).publishEvent(TracksChangedEvent.saved(id, "new-url", 222));
   }
 
   @Test
@@ -261,6 +276,7 @@ class TrackServiceImplTest {
 
     verify(trackRepository).existsById(id);
     verify(trackRepository).deleteById(id);
+    verify(eventPublisher).publishEvent(TracksChangedEvent.deleted(id));
   }
 
   @Test
@@ -279,57 +295,232 @@ class TrackServiceImplTest {
   // ---------------------------------------------------------------------
 
   @Test
-  void getRandomTrack_shouldReturnEmpty_whenNoTracks() {
-    when(trackRepository.count()).thenReturn(0L);
+  void getRandomTrack_shouldReturnEmpty_whenIndexIsEmpty() {
+    when(autofillTrackIndex.sample()).thenReturn(OptionalLong.empty());
 
     Optional<TrackDto> result = trackService.getRandomTrack();
 
     assertTrue(result.isEmpty());
-    verify(trackRepository).count();
-    verify(trackRepository, never()).findAll(any(Pageable.class));
+    verify(trackRepository, never()).findById(any());
+    verify(trackRepository, never()).count();
   }
 
   @Test
-  void getRandomTrack_shouldReturnMappedTrack_whenTracksExist() {
-    long total = 5L;
-    int index = 3; // we will force random to return 3
-
-    when(trackRepository.count()).thenReturn(total);
-
+  void getRandomTrack_shouldLoadSampledTrackById() {
     Track entity = new Track();
     entity.setId(42L);
     entity.setScUrl("random-url");
     entity.setTitle("Random Track");
     entity.setDurationSeconds(123);
+    TrackDto dto = TrackDto.builder().id(42L).durationSeconds(123).build();
 
-    Page<Track> page = new PageImpl<>(List.of(entity));
+    when(autofillTrackIndex.sample()).thenReturn(OptionalLong.of(42L));
+    when(trackRepository.findById(42L)).thenReturn(Optional.of(entity));
+    when(trackMapper.toDto(entity)).thenReturn(dto);
 
-    // mock static ThreadLocalRandom.current().nextInt(...)
-    try (MockedStatic<ThreadLocalRandom> staticMock = mockStatic(ThreadLocalRandom.class)) {
-      ThreadLocalRandom randomMock = mock(ThreadLocalRandom.class);
-      staticMock.when(ThreadLocalRandom::current).thenReturn(randomMock);
-      when(randomMock.nextInt((int) total)).thenReturn(index);
+    Optional<TrackDto> result = trackService.getRandomTrack();
 
-      when(trackRepository.findAll(PageRequest.of(index, 1))).thenReturn(page);
+    assertEquals(Optional.of(dto), result);
+    verify(trackRepository, never()).findAll(any(Pageable.class));
+  }
 
-      TrackDto dto =
-          TrackDto.builder()
-              .id(42L)
-              .soundcloudUrl(entity.getScUrl())
-              .title(entity.getTitle())
-              .durationSeconds(entity.getDurationSeconds())
-              .build();
+  @Test
+  void getRandomTrack_shouldEvictStaleIdAndPickAgain() {
+    Track entity = new Track();
+    entity.setId(43L);
+    TrackDto dto = TrackDto.builder().id(43L).build();
 
-      when(trackMapper.toDto(entity)).thenReturn(dto);
+    when(autofillTrackIndex.sample()).thenReturn(OptionalLong.of(42L), OptionalLong.of(43L));
+    when(trackRepository.findById(42L)).thenReturn(Optional.empty());
+    when(trackRepository.findById(43L)).thenReturn(Optional.of(entity));
+    when(trackMapper.toDto(entity)).thenReturn(dto);
+
+    assertEquals(Optional.of(dto), trackService.getRandomTrack());
+    verify(autofillTrackIndex).evict(42L);
+  }
+
+  // ---------------------------------------------------------------------
+  // embed code
+  // ---------------------------------------------------------------------
 
-      Optional<TrackDto> result = trackService.getRandomTrack();
+  private static SoundcloudOEmbedResponse oEmbed(String html, String thumbnail) {
+    SoundcloudOEmbedResponse response = new SoundcloudOEmbedResponse();
+    response.setHtml(html);
+    response.setThumbnail_url(thumbnail);
+    return response;
+  }
+
+  @Test
+  void create_storesOEmbedHtmlAndFillsMissingArtwork() {
+    TrackDto dto =
+        TrackDto.builder()
+            .soundcloudUrl("https://sc.com/t/1")
+            .title("T")
+            .durationSeconds(1)
+            .build();
+    Track entity = new Track();
+    entity.setId(1L);
+    entity.setScUrl(dto.getSoundcloudUrl());
+
+    when(trackMapper.toEntity(dto)).thenReturn(entity);
+    when(trackRepository.existsByScUrl(dto.getSoundcloudUrl())).thenReturn(false);
+    when(parserService.fetchOEmbed(dto.getSoundcloudUrl()))
+        .thenReturn(oEmbed("<iframe/>", "thumb.jpg"));
+    when(trackRepository.save(entity)).thenReturn(entity);
+
+    trackService.create(dto);
+
+    assertEquals("<iframe/>", entity.getEmbedCode());
+    assertEquals("thumb.jpg", entity.getArtworkUrl());
+  }
+
+  @Test
+  void create_oEmbedFailure_stillSavesTrack() {
+    TrackDto dto =
+        TrackDto.builder()
+            .soundcloudUrl("https://sc.com/t/1")
+            .title("T")
+            .durationSeconds(1)
+            .build();
+    Track entity = new Track();
+    entity.setId(1L);
+    entity.setScUrl(dto.getSoundcloudUrl());
+
+    when(trackMapper.toEntity(dto)).thenReturn(entity);
+    when(trackRepository.existsByScUrl(dto.getSoundcloudUrl())).thenReturn(false);
+    when(parserService.fetchOEmbed(any())).thenThrow(new RuntimeException("sc down"));
+    when(trackRepository.save(entity)).thenReturn(entity);
+
+    trackService.create(dto);
+
+    assertNull(entity.getEmbedCode());
+    verify(trackRepository).save(entity);
+  }
+
+  @Test
+  void create_fetchesOEmbedOutsideTransactionBeforeSave() throws Exception {
+    // блокирующий HTTP-вызов не должен держать соединение с БД
+    Transactional tx =
+        TrackServiceImpl.class
+            .getMethod("create", TrackDto.class)
+            .getAnnotation(Transactional.class);
+    assertEquals(Propagation.NOT_SUPPORTED, tx.propagation());
+
+    TrackDto dto =
+        TrackDto.builder()
+            .soundcloudUrl("https://sc.com/t/1")
+            .title("T")
+            .durationSeconds(1)
+            .build();
+    Track entity = new Track();
+    entity.setId(1L);
+    entity.setDurationSeconds(1);
+    entity.setScUrl(dto.getSoundcloudUrl());
+    when(trackMapper.toEntity(dto)).thenReturn(entity);
+    when(trackRepository.existsByScUrl(dto.getSoundcloudUrl())).thenReturn(false);
+    when(parserService.fetchOEmbed(any())).thenReturn(oEmbed("<iframe/>", null));
+    when(trackRepository.save(entity)).thenReturn(entity);
+
+    trackService.create(dto);
+
+    InOrder order = inOrder(trackRepository, parserService);
+    order.verify(trackRepository).existsByScUrl(dto.getSoundcloudUrl());
+    order.verify(parserService).fetchOEmbed(dto.getSoundcloudUrl());
+    order.verify(trackRepository).save(entity);
+  }
+
+  @Test
+  void getEmbedCode_storedHtml_isServedWithoutSoundcloudCall() {
+    Track track = new Track();
+    track.setId(1L);
+    track.setEmbedCode("<iframe/>");
+    when(trackRepository.findById(1L)).thenReturn(Optional.of(track));
+
+    assertEquals("<iframe/>", trackService.getEmbedCode(1L));
+    verifyNoInteractions(parserService);
+  }
+
+  @Test
+  void getEmbedCode_missingHtml_isFetchedAndStored() {
+    Track track = new Track();
+    track.setId(1L);
+    track.setScUrl("https://sc.com/t/1");
+    when(trackRepository.findById(1L)).thenReturn(Optional.of(track));
+    when(parserService.fetchOEmbed("https://sc.com/t/1"))
+        .thenReturn(oEmbed("<iframe/>", "thumb.jpg"));
+
+    assertEquals("<iframe/>", trackService.getEmbedCode(1L));
+    verify(trackRepository).updateEmbed(1L, "<iframe/>", "thumb.jpg");
+  }
+
+  @Test
+  void getEmbedCode_oEmbedWithoutHtml_throwsNotFoundAndStoresNothing() {
+    Track track = new Track();
+    track.setId(1L);
+    track.setScUrl("https://sc.com/t/1");
+    when(trackRepository.findById(1L)).thenReturn(Optional.of(track));
+    when(parserService.fetchOEmbed("https://sc.com/t/1")).thenReturn(oEmbed(null, "thumb.jpg"));
+
+    assertThrows(NotFoundException.class, () -> trackService.getEmbedCode(1L));
+    verify(trackRepository, never()).updateEmbed(any(), any(), any());
+  }
+
+  @Test
+  void getEmbedCode_unknownTrack_throwsNotFound() {
+    when(trackRepository.findById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> trackService.getEmbedCode(1L));
+  }
+
+  @Test
+  void storeMissingEmbedCodes_skipsTracksWhoseOEmbedFails() {
+    Track ok = new Track();
+    ok.setId(1L);
+    ok.setScUrl("https://sc.com/t/1");
+    Track broken = new Track();
+    broken.setId(2L);
+    broken.setScUrl("https://sc.com/t/2");
+    when(trackRepository.findAllWithoutEmbedCodeByPlaylistId(7L)).thenReturn(List.of(broken, ok));
+    when(parserService.fetchOEmbed("https://sc.com/t/2")).thenThrow(new RuntimeException("404"));
+    when(parserService.fetchOEmbed("https://sc.com/t/1")).thenReturn(oEmbed("<iframe/>", null));
+
+    assertEquals(1, trackService.storeMissingEmbedCodes(7L));
+    verify(trackRepository).updateEmbed(1L, "<iframe/>", null);
+    verify(trackRepository, never()).updateEmbed(eq(2L), any(), any());
+  }
+
+  // ---------------------------------------------------------------------
+  // getPage
+  // ---------------------------------------------------------------------
+
+  @Test
+  void getPage_firstPage_fetchesOneExtraRowAndPointsToLastReturned() {
+    List<Track> rows = List.of(new Track(), new Track(), new Track());
+    when(trackRepository.findAllByOrderByIdAsc(PageRequest.of(0, 3))).thenReturn(rows);
+    when(trackMapper.toDtoList(rows))
+        .thenReturn(
+            List.of(
+                TrackDto.builder().id(1L).build(),
+                TrackDto.builder().id(2L).build(),
+                TrackDto.builder().id(3L).build()));
+
+    KeysetPageResponse<TrackDto, Long> page = trackService.getPage(null, 2);
+
+    assertEquals(List.of(1L, 2L), page.getItems().stream().map(TrackDto::getId).toList());
+    assertEquals(2L, page.getNextAfter());
+  }
+
+  @Test
+  void getPage_afterCursor_lastPageHasNoNextAfter() {
+    List<Track> rows = List.of(new Track());
+    when(trackRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 3)))
+        .thenReturn(rows);
+    when(trackMapper.toDtoList(rows)).thenReturn(List.of(TrackDto.builder().id(3L).build()));
 
-      assertTrue(result.isPresent());
-      assertEquals(dto, result.get());
+    KeysetPageResponse<TrackDto, Long> page = trackService.getPage(2L, 2);
 
-      verify(trackRepository).count();
-      verify(trackRepository).findAll(PageRequest.of(index, 1));
-      verify(trackMapper).toDto(entity);
-    }
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNextAfter());
+    verify(trackRepository, never()).findAllByOrderByIdAsc(any());
   }
 }
@@ -5,11 +5,14 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.Tsimur.Dubcast.dto.UserDto;
+import com.Tsimur.Dubcast.dto.response.KeysetPageResponse;
 import com.Tsimur.Dubcast.dto.response.UserProfileResponse;
 import com.Tsimur.Dubcast.exception.type.NotFoundException;
 import com.Tsimur.Dubcast.mapper.UserMapper;
+import com.Tsimur.Dubcast.model.Role;
 import com.Tsimur.Dubcast.model.User;
 import com.Tsimur.Dubcast.repository.UserRepository;
+import com.Tsimur.Dubcast.security.jwt.UserAuthChangedEvent;
 import com.Tsimur.Dubcast.service.impl.UserServiceImpl;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +23,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,11 +39,13 @@ class UserServiceImplTest {
 
   @Mock private PasswordEncoder passwordEncoder;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   private UserServiceImpl userService;
 
   @BeforeEach
   void setUp() {
-    userService = new UserServiceImpl(userRepository, userMapper, passwordEncoder);
+    userService = new UserServiceImpl(userRepository, userMapper, passwordEncoder, eventPublisher);
   }
 
   // ------------------------------------------------------------------------
@@ -90,6 +97,7 @@ class UserServiceImplTest {
     verify(userRepository).existsByEmail("test@example.com");
     verify(userMapper, never()).toEntity(any());
     verify(userRepository, never()).save(any());
+    verifyNoInteractions(eventPublisher);
   }
 
   // ------------------------------------------------------------------------
@@ -169,8 +177,14 @@ class UserServiceImplTest {
 
     when(userRepository.findById(id)).thenReturn(Optional.of(existing));
     when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
-    // void method
-    doNothing().when(userMapper).updateEntityFromDto(dto, existing);
+    doAnswer(
+            inv -> {
+              existing.setEmail(dto.getEmail());
+              existing.setRole(Role.valueOf(dto.getRole()));
+              return null;
+            })
+        .when(userMapper)
+        .updateEntityFromDto(dto, existing);
     when(userRepository.save(existing)).thenReturn(saved);
     when(userMapper.toDto(saved)).thenReturn(resultDto);
 
@@ -185,6 +199,65 @@ class UserServiceImplTest {
     verify(userMapper).updateEntityFromDto(dto, existing);
     verify(userRepository).save(existing);
     verify(userMapper).toDto(saved);
+    verify(eventPublisher).publishEvent(new UserAuthChangedEvent(id));
+  }
+
+  @Test
+  void update_profileOnlyChange_doesNotRevokeTokens() {
+    UUID id = UUID.randomUUID();
+    User existing = new User();
+    existing.setId(id);
+    existing.setEmail("user@example.com");
+    existing.setRole(Role.ROLE_USER);
+
+    UserDto dto =
+        UserDto.builder()
+            .email("user@example.com")
+            .role("ROLE_USER")
+            .username("new-name")
+            .bio("new bio")
+            .build();
+
+    when(userRepository.findById(id)).thenReturn(Optional.of(existing));
+    doAnswer(
+            inv -> {
+              existing.setUsername(dto.getUsername());
+              existing.setBio(dto.getBio());
+              return null;
+            })
+        .when(userMapper)
+        .updateEntityFromDto(dto, existing);
+    when(userRepository.save(existing)).thenReturn(existing);
+
+    userService.update(id, dto);
+
+    verify(userRepository).save(existing);
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void update_roleChange_revokesTokens() {
+    UUID id = UUID.randomUUID();
+    User existing = new User();
+    existing.setId(id);
+    existing.setEmail("user@example.com");
+    existing.setRole(Role.ROLE_ADMIN);
+
+    UserDto dto = UserDto.builder().role("ROLE_USER").build();
+
+    when(userRepository.findById(id)).thenReturn(Optional.of(existing));
+    doAnswer(
+            inv -> {
+              existing.setRole(Role.ROLE_USER);
+              return null;
+            })
+        .when(userMapper)
+        .updateEntityFromDto(dto, existing);
+    when(userRepository.save(existing)).thenReturn(existing);
+
+    userService.update(id, dto);
+
+    verify(eventPublisher).publishEvent(new UserAuthChangedEvent(id));
   }
 
   @Test
@@ -219,6 +292,7 @@ class UserServiceImplTest {
 
     verify(userRepository).existsById(id);
     verify(userRepository).deleteById(id);
+    verify(eventPublisher).publishEvent(new UserAuthChangedEvent(id));
   }
 
   @Test
@@ -230,6 +304,7 @@ class UserServiceImplTest {
 
     verify(userRepository).existsById(id);
     verify(userRepository, never()).deleteById(any());
+    verifyNoInteractions(eventPublisher);
   }
 
   // ------------------------------------------------------------------------
@@ -252,6 +327,7 @@ class UserServiceImplTest {
     verify(userRepository).findById(id);
     verify(passwordEncoder).encode("new-pass");
     verify(userRepository).save(user);
+    verify(eventPublisher).publishEvent(new UserAuthChangedEvent(id));
   }
 
   // ------------------------------------------------------------------------
@@ -346,4 +422,20 @@ class UserServiceImplTest {
       verify(userRepository).save(user);
     }
   }
+
+  @Test
+  void getPage_sizeIsCappedAndCursorIsLastReturnedId() {
+    UUID after = UUID.randomUUID();
+    List<User> rows = List.of(new User());
+    when(userRepository.findByIdGreaterThanOrderByIdAsc(
+            after, PageRequest.of(0, KeysetPageResponse.MAX_SIZE + 1)))
+        .thenReturn(rows);
+    UserDto dto = UserDto.builder().id(UUID.randomUUID()).build();
+    when(userMapper.toDtoList(rows)).thenReturn(List.of(dto));
+
+    KeysetPageResponse<UserDto, UUID> page = userService.getPage(after, 10_000);
+
+    assertEquals(List.of(dto), page.getItems());
+    assertNull(page.getNextAfter());
+  }
 }
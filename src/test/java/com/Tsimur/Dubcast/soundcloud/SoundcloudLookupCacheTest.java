@@ -0,0 +1,177 @@
+package com.Tsimur.Dubcast.soundcloud;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.Tsimur.Dubcast.soundcloud.SoundcloudLookupCache.Region;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+class SoundcloudLookupCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private SimpleMeterRegistry registry;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    loads = new AtomicInteger();
+  }
+
+  private SoundcloudLookupCache cache(int maxSize, long ttlMs, String diskPath) {
+    return new SoundcloudLookupCache(objectMapper, registry, maxSize, ttlMs, 60_000, diskPath);
+  }
+
+  private Supplier<JsonNode> loader(int value) {
+    return () -> {
+      loads.incrementAndGet();
+      return IntNode.valueOf(value);
+    };
+  }
+
+  private double count(String region, String result) {
+    return registry
+        .get("soundcloud.cache.requests")
+        .tag("region", region)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  @Test
+  void normalizeUrl_collapsesEquivalentTrackUrls() {
+    String expected = "https://soundcloud.com/artist/track";
+    assertEquals(
+        expected, SoundcloudLookupCache.normalizeUrl("https://soundcloud.com/artist/track"));
+    assertEquals(
+        expected,
+        SoundcloudLookupCache.normalizeUrl("http://www.SoundCloud.com/Artist/track/?si=abc#t=10"));
+    assertEquals(
+        expected, SoundcloudLookupCache.normalizeUrl(" https://m.soundcloud.com/artist/track "));
+  }
+
+  @Test
+  void get_secondLookupOfSameTrack_isServedFromCache() {
+    SoundcloudLookupCache cache = cache(10, 60_000, "");
+
+    assertEquals(
+        1, cache.get(Region.RESOLVE, "https://soundcloud.com/a/t?si=1", loader(1)).asInt());
+    assertEquals(
+        1, cache.get(Region.RESOLVE, "https://soundcloud.com/a/t?si=2", loader(2)).asInt());
+
+    assertEquals(1, loads.get());
+    assertEquals(1.0, count("resolve", "miss"));
+    assertEquals(1.0, count("resolve", "hit"));
+  }
+
+  @Test
+  void get_regionsAreSeparate() {
+    SoundcloudLookupCache cache = cache(10, 60_000, "");
+
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/t", loader(1));
+    assertEquals(2, cache.get(Region.OEMBED, "https://soundcloud.com/a/t", loader(2)).asInt());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_expiredEntry_isReloaded() throws Exception {
+    SoundcloudLookupCache cache = cache(10, 20, "");
+
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/t", loader(1));
+    Thread.sleep(40);
+    assertEquals(2, cache.get(Region.RESOLVE, "https://soundcloud.com/a/t", loader(2)).asInt());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void get_overMaxSize_evictsLeastRecentlyUsed() {
+    SoundcloudLookupCache cache = cache(2, 60_000, "");
+
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/1", loader(1));
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/2", loader(2));
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/1", loader(1)); // 1 is now most recent
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/3", loader(3)); // evicts 2
+
+    assertEquals(2, cache.size());
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/1", loader(1));
+    assertEquals(3, loads.get());
+    cache.get(Region.RESOLVE, "https://soundcloud.com/a/2", loader(2));
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  void get_notFound_isCachedNegativelyAndRethrown() {
+    SoundcloudLookupCache cache = cache(10, 60_000, "");
+    Supplier<JsonNode> notFound =
+        () -> {
+          loads.incrementAndGet();
+          throw new RuntimeException(
+              "SoundCloud resolve failed",
+              HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        };
+
+    assertThrows(
+        RuntimeException.class,
+        () -> cache.get(Region.RESOLVE, "https://soundcloud.com/a/x", notFound));
+    RuntimeException again =
+        assertThrows(
+            RuntimeException.class,
+            () -> cache.get(Region.RESOLVE, "https://soundcloud.com/a/x", notFound));
+
+    assertEquals("SoundCloud resolve failed", again.getMessage());
+    assertEquals(1, loads.get());
+    assertEquals(1.0, count("resolve", "negative_hit"));
+  }
+
+  @Test
+  void get_transientOrAuthFailures_areNotCached() {
+    SoundcloudLookupCache cache = cache(10, 60_000, "");
+    for (RuntimeException failure :
+        new RuntimeException[] {
+          HttpServerErrorException.create(
+              HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null),
+          HttpClientErrorException.create(
+              HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null),
+          HttpClientErrorException.create(
+              HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null)
+        }) {
+      assertThrows(
+          RuntimeException.class,
+          () ->
+              cache.get(
+                  Region.OEMBED,
+                  "https://soundcloud.com/a/y",
+                  () -> {
+                    throw failure;
+                  }));
+    }
+
+    assertEquals(7, cache.get(Region.OEMBED, "https://soundcloud.com/a/y", loader(7)).asInt());
+    assertEquals(0.0, count("oembed", "negative_hit"));
+  }
+
+  @Test
+  void diskTier_keepsWarmEntriesAcrossRestart(@TempDir Path dir) {
+    String file = dir.resolve("sc-cache.json").toString();
+    SoundcloudLookupCache before = cache(10, 60_000, file);
+    before.get(Region.RESOLVE, "https://soundcloud.com/a/t", loader(5));
+    before.saveToDisk();
+
+    SoundcloudLookupCache after = cache(10, 60_000, file);
+    after.loadFromDisk();
+
+    assertEquals(5, after.get(Region.RESOLVE, "https://soundcloud.com/a/t", loader(6)).asInt());
+    assertEquals(1, loads.get());
+  }
+}
@@ -0,0 +1,264 @@
+package com.Tsimur.Dubcast.soundcloud;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.Tsimur.Dubcast.config.SoundcloudHttpClientConfig;
+import com.Tsimur.Dubcast.exception.type.SoundcloudUnavailableException;
+import com.Tsimur.Dubcast.soundcloud.SoundcloudResilience.CircuitState;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/** Failure scenarios against a local server that injects 5xx, 404 and slow responses. */
+class SoundcloudResilienceTest {
+
+  private static final int READ_TIMEOUT_MS = 300;
+
+  private HttpServer server;
+  private String baseUrl;
+  private CloseableHttpClient httpClient;
+  private RestTemplate restTemplate;
+  private SimpleMeterRegistry registry;
+
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger flakyFailuresLeft = new AtomicInteger();
+  private final AtomicInteger downStatus = new AtomicInteger(500);
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext(
+        "/flaky",
+        exchange -> {
+          hits.incrementAndGet();
+          boolean fail = flakyFailuresLeft.getAndDecrement() > 0;
+          respond(exchange, fail ? 503 : 200, fail ? "{}" : "ok");
+        });
+    server.createContext(
+        "/down",
+        exchange -> {
+          hits.incrementAndGet();
+          respond(exchange, downStatus.get(), "ok");
+        });
+    server.createContext(
+        "/missing",
+        exchange -> {
+          hits.incrementAndGet();
+          respond(exchange, 404, "{}");
+        });
+    server.createContext(
+        "/slow",
+        exchange -> {
+          hits.incrementAndGet();
+          sleep(READ_TIMEOUT_MS * 3L);
+          respond(exchange, 200, "ok");
+        });
+    server.createContext(
+        "/busy",
+        exchange -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          try {
+            sleep(READ_TIMEOUT_MS / 2);
+            respond(exchange, 200, "ok");
+          } finally {
+            inFlight.decrementAndGet();
+          }
+        });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+    SoundcloudHttpClientConfig config = new SoundcloudHttpClientConfig();
+    httpClient =
+        config.soundcloudHttpClient(
+            config.soundcloudConnectionManager(16, 16, 1_000, READ_TIMEOUT_MS),
+            5_000,
+            READ_TIMEOUT_MS);
+    restTemplate = config.soundcloudRestTemplate(new RestTemplateBuilder(), httpClient);
+    registry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    httpClient.close();
+    server.stop(0);
+  }
+
+  private SoundcloudResilience resilience(
+      int maxConcurrent, int maxAttempts, int windowSize, long openMs) {
+    return new SoundcloudResilience(
+        registry, maxConcurrent, 0, maxAttempts, 10, 50, windowSize, windowSize, 50, openMs);
+  }
+
+  private String get(SoundcloudResilience resilience, String path) {
+    return resilience.call("test", () -> restTemplate.getForObject(baseUrl + path, String.class));
+  }
+
+  private double calls(String outcome) {
+    return registry
+        .get("soundcloud.resilience.calls")
+        .tag("operation", "test")
+        .tag("outcome", outcome)
+        .counter()
+        .count();
+  }
+
+  @Test
+  void transientFailures_areRetriedUntilSuccess() {
+    SoundcloudResilience resilience = resilience(4, 3, 20, 30_000);
+    flakyFailuresLeft.set(2);
+
+    assertEquals("ok", get(resilience, "/flaky"));
+
+    assertEquals(3, hits.get());
+    assertEquals(
+        2.0,
+        registry.get("soundcloud.resilience.retries").tag("operation", "test").counter().count());
+    assertEquals(CircuitState.CLOSED, resilience.getState());
+  }
+
+  @Test
+  void persistentFailures_openCircuitThenTrialCallClosesIt() throws Exception {
+    SoundcloudResilience resilience = resilience(4, 1, 4, 200);
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(HttpServerErrorException.class, () -> get(resilience, "/down"));
+    }
+    assertEquals(CircuitState.OPEN, resilience.getState());
+
+    assertThrows(SoundcloudUnavailableException.class, () -> get(resilience, "/down"));
+    assertEquals(4, hits.get(), "open circuit must not reach the server");
+    assertEquals(1.0, calls("short_circuited"));
+
+    downStatus.set(200);
+    Thread.sleep(250);
+    assertEquals("ok", get(resilience, "/down"));
+    assertEquals(CircuitState.CLOSED, resilience.getState());
+  }
+
+  @Test
+  void failedTrialCall_reopensCircuit() throws Exception {
+    SoundcloudResilience resilience = resilience(4, 1, 2, 100);
+    Logger logger = (Logger) LoggerFactory.getLogger(SoundcloudResilience.class);
+    ListAppender<ILoggingEvent> logs = new ListAppender<>();
+    logs.start();
+    logger.addAppender(logs);
+    try {
+      for (int i = 0; i < 2; i++) {
+        assertThrows(HttpServerErrorException.class, () -> get(resilience, "/down"));
+      }
+
+      Thread.sleep(150);
+      assertThrows(HttpServerErrorException.class, () -> get(resilience, "/down"));
+
+      assertEquals(CircuitState.OPEN, resilience.getState());
+      assertThrows(SoundcloudUnavailableException.class, () -> get(resilience, "/down"));
+      assertEquals(3, hits.get());
+    } finally {
+      logger.detachAppender(logs);
+    }
+
+    // в логе — настоящая причина каждого открытия, а не пустое окно
+    List<String> opened =
+        logs.list.stream()
+            .map(ILoggingEvent::getFormattedMessage)
+            .filter(m -> m.contains("circuit opened"))
+            .toList();
+    assertEquals(2, opened.size());
+    assertTrue(opened.get(0).contains("2 of last 2 calls failed"), opened.get(0));
+    assertTrue(opened.get(1).contains("half-open trial call failed"), opened.get(1));
+  }
+
+  @Test
+  void readTimeouts_areRetriedAFixedNumberOfTimes() {
+    SoundcloudResilience resilience = resilience(4, 2, 20, 30_000);
+
+    long started = System.nanoTime();
+    assertThrows(ResourceAccessException.class, () -> get(resilience, "/slow"));
+    long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+    assertEquals(2, hits.get());
+    assertTrue(elapsedMs < READ_TIMEOUT_MS * 2 + 500, "took " + elapsedMs + " ms");
+    assertEquals(2.0, calls("failure"));
+  }
+
+  @Test
+  void clientErrors_areNeitherRetriedNorTripTheCircuit() {
+    SoundcloudResilience resilience = resilience(4, 3, 1, 30_000);
+
+    assertThrows(HttpClientErrorException.class, () -> get(resilience, "/missing"));
+
+    assertEquals(1, hits.get());
+    assertEquals(CircuitState.CLOSED, resilience.getState());
+    assertEquals(1.0, calls("client_error"));
+  }
+
+  @Test
+  void bulkhead_capsConcurrentCallsAndRejectsOverflowFast() throws Exception {
+    SoundcloudResilience resilience = resilience(2, 1, 20, 30_000);
+
+    ExecutorService callers = Executors.newFixedThreadPool(6);
+    int rejected = 0;
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        results.add(callers.submit(() -> get(resilience, "/busy")));
+      }
+      for (Future<String> result : results) {
+        try {
+          assertEquals("ok", result.get());
+        } catch (ExecutionException e) {
+          assertInstanceOf(SoundcloudUnavailableException.class, e.getCause());
+          rejected++;
+        }
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    assertTrue(maxInFlight.get() <= 2, "in flight: " + maxInFlight.get());
+    assertTrue(rejected > 0, "overflow calls should be rejected");
+    assertEquals(rejected, (int) calls("rejected"));
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "text/plain");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+    exchange.close();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}